@@ -0,0 +1,39 @@
+package com.example.bookingsystem.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Minimal dynamic-proxy stubs for repositories and other interfaces, so benchmarks exercise the code under test
+ * without a database or a mocking framework on the measured path.
+ */
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    /**
+     * Creates a stub of the interface that answers the named methods and throws for all others.
+     *
+     * @param type    the interface to stub
+     * @param answers method name to answer, computed from the invocation arguments
+     * @param <T>     the interface type
+     * @return the stub
+     */
+    public static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object stub = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+            };
+        });
+        return type.cast(stub);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.benchmark.Stubs;
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.service.BookingJournalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how a booking change is applied to the availability count cache as the number of cached ranges grows.
+ * The change always overlaps the same number of ranges, so the cost should stay flat with cache size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvailabilityCountCacheBenchmark {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+    private static final int MAX_RANGE_LENGTH = 30;
+
+    @Param({"100", "1000", "10000", "100000", "1000000"})
+    public int cachedRanges;
+
+    private AvailabilityCountCache cache;
+    private BookingStatusChangedEvent bookingCreated;
+    private BookingStatusChangedEvent bookingCancelled;
+
+    @Setup
+    public void setUp() {
+        BookingJournalService bookingJournalService = Stubs.of(BookingJournalService.class, Map.of(
+                "loadActivePeriods", args -> List.of()));
+        BookingIntervalIndex bookingIntervalIndex = new BookingIntervalIndex(bookingJournalService);
+        bookingIntervalIndex.rebuild();
+        cache = new AvailabilityCountCache(bookingIntervalIndex);
+
+        for (int i = 0; i < cachedRanges; i++) {
+            LocalDate start = BASE.plusDays(i / MAX_RANGE_LENGTH);
+            LocalDate end = start.plusDays(i % MAX_RANGE_LENGTH);
+            cache.computeIfAbsent(start, end, () -> 1_000);
+        }
+
+        LocalDate start = BASE.plusDays(Math.min(cachedRanges / MAX_RANGE_LENGTH / 2, 60));
+        LocalDate end = start.plusDays(4);
+        bookingIntervalIndex.reserve(new BookingPeriod(1L, 1L, start, end));
+        bookingCreated = new BookingStatusChangedEvent(1L, 1L, 1L, start, end, null, BookingStatus.PENDING);
+        bookingCancelled = new BookingStatusChangedEvent(1L, 1L, 1L, start, end, BookingStatus.PENDING, BookingStatus.CANCELLED);
+    }
+
+    /**
+     * Applies a booking creation; the unit's only booking is the new one, so every overlapping count is decremented.
+     */
+    @Benchmark
+    public void applyBookingCreated() {
+        cache.onBookingStatusChanged(bookingCreated);
+    }
+
+    /**
+     * Applies a cancellation while the index still holds the booking, so every overlapping range is visited
+     * but left unchanged.
+     */
+    @Benchmark
+    public void applyBookingCancelled() {
+        cache.onBookingStatusChanged(bookingCancelled);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.benchmark.Stubs;
+import com.example.bookingsystem.dto.UnitAttributes;
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.model.enums.AccommodationType;
+import com.example.bookingsystem.repository.UnitRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Measures a filtered, cost-sorted unit search answered by the {@link UnitCatalog}, with and without the Vector API.
+ * The same search through {@code UnitSpecification} against PostgreSQL is measured by
+ * {@code UnitSearchQueryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnitCatalogBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int units;
+
+    @Param({"false", "true"})
+    public boolean vectorized;
+
+    private UnitCatalog catalog;
+    private List<UnitAttributes> rows;
+    private UnitSearchCriteria criteria;
+
+    @Setup
+    public void setUp() {
+        rows = LongStream.rangeClosed(1, units)
+                         .mapToObj(id -> new UnitAttributes(id, (int) (id % 5) + 1,
+                                 AccommodationType.values()[(int) (id % 3)], (int) (id % 20),
+                                 BigDecimal.valueOf(id * 7919 % 100_000, 2)))
+                         .toList();
+        UnitRepository unitRepository = Stubs.of(UnitRepository.class, Map.of(
+                "findAllAttributes", args -> rows));
+        catalog = new UnitCatalog(unitRepository, vectorized);
+        catalog.rebuild();
+        criteria = UnitSearchCriteria.builder()
+                                     .numberOfRooms(2)
+                                     .type("FLAT")
+                                     .maxCost(new BigDecimal("500.00"))
+                                     .build();
+    }
+
+    @Benchmark
+    public long[] catalogSearch() {
+        return catalog.matchingIds(criteria, null, "totalCost", true).orElseThrow();
+    }
+
+    /**
+     * Only the cost filter, which the catalog evaluates over the whole cost column.
+     */
+    @Benchmark
+    public long[] catalogCostOnly() {
+        return catalog.matchingIds(UnitSearchCriteria.builder().maxCost(new BigDecimal("500.00")).build(), null,
+                "id", true).orElseThrow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.bookingsystem.mapper;
+
+import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.model.Booking;
+import com.example.bookingsystem.model.Unit;
+import com.example.bookingsystem.model.User;
+import com.example.bookingsystem.model.enums.AccommodationType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.service.MarkupServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the MapStruct-generated {@link UnitMapper} and {@link BookingMapper} conversions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    private UnitMapper unitMapper;
+    private BookingMapper bookingMapper;
+    private Unit unit;
+    private UnitDto unitDto;
+    private User user;
+    private Booking booking;
+    private BookingDto bookingDto;
+
+    @Setup
+    public void setUp() {
+        unitMapper = new UnitMapperImpl();
+        unitMapper.markupService = new MarkupServiceImpl();
+        bookingMapper = new BookingMapperImpl();
+
+        unit = Unit.builder()
+                   .id(1L)
+                   .numberOfRooms(3)
+                   .type(AccommodationType.FLAT)
+                   .floor(2)
+                   .baseCost(new BigDecimal("100.00"))
+                   .totalCost(new BigDecimal("115.00"))
+                   .description("Benchmark unit")
+                   .build();
+        unitDto = unitMapper.toDto(unit);
+
+        user = new User();
+        user.setId(2L);
+        user.setName("Benchmark");
+        user.setEmail("benchmark@example.com");
+
+        booking = Booking.builder()
+                         .id(3L)
+                         .unit(unit)
+                         .user(user)
+                         .startDate(LocalDate.of(2025, 7, 1))
+                         .endDate(LocalDate.of(2025, 7, 5))
+                         .status(BookingStatus.PENDING)
+                         .build();
+        bookingDto = bookingMapper.toDto(booking);
+    }
+
+    @Benchmark
+    public UnitDto unitToDto() {
+        return unitMapper.toDto(unit);
+    }
+
+    @Benchmark
+    public Unit unitToEntity() {
+        return unitMapper.toEntity(unitDto);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return bookingMapper.toDto(booking);
+    }
+
+    @Benchmark
+    public Booking bookingToEntity() {
+        return bookingMapper.toEntity(bookingDto, user, unit);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.BookingSystemApplication;
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.index.UnitCatalog;
+import com.example.bookingsystem.model.Unit;
+import com.example.bookingsystem.specification.UnitSpecification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first page of a filtered, cost-sorted unit search against the local PostgreSQL database configured in
+ * {@code application.yml}: once through {@link UnitProjectionRepository#findDtos} with the {@link UnitSpecification}
+ * filters the service builds, and once the way the {@link UnitCatalog} answers it, matching in memory and fetching
+ * only the rows of the page. The database must be running, as for the integration tests; the units are added on
+ * top of its content and deleted again after the run. {@code UnitCatalogBenchmark} covers the in-memory side alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnitSearchQueryBenchmark {
+
+    private static final String DESCRIPTION = "jmh-unit-search";
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20, Sort.by("totalCost"));
+
+    @Param({"10000", "100000", "1000000"})
+    public int units;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private UnitRepository unitRepository;
+    private UnitCatalog unitCatalog;
+    private UnitSearchCriteria criteria;
+    private Specification<Unit> specification;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BookingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        unitRepository = context.getBean(UnitRepository.class);
+        unitCatalog = context.getBean(UnitCatalog.class);
+
+        // Same attribute distribution as UnitCatalogBenchmark
+        jdbcTemplate.update("""
+                INSERT INTO units (number_of_rooms, type, floor, base_cost, total_cost, description)
+                SELECT n % 5 + 1, (ARRAY['HOME', 'FLAT', 'APARTMENT'])[n % 3 + 1], n % 20,
+                       n::bigint * 7919 % 100000 / 100.0, n::bigint * 7919 % 100000 / 100.0, ?
+                FROM generate_series(1, ?) n
+                """, DESCRIPTION, units);
+        jdbcTemplate.execute("ANALYZE units");
+        // The units were inserted behind the application's back
+        unitCatalog.rebuild();
+
+        criteria = UnitSearchCriteria.builder()
+                                     .numberOfRooms(2)
+                                     .type("FLAT")
+                                     .maxCost(new BigDecimal("500.00"))
+                                     .build();
+        specification = Specification.where(UnitSpecification.hasNumberOfRooms(criteria.getNumberOfRooms()))
+                                     .and(UnitSpecification.hasType(criteria.getType()))
+                                     .and(UnitSpecification.hasFloor(criteria.getFloor()))
+                                     .and(UnitSpecification.hasMaxCost(criteria.getMaxCost()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM units WHERE description = ?", DESCRIPTION);
+        context.close();
+    }
+
+    @Benchmark
+    public Page<UnitDto> specificationQuery() {
+        return unitRepository.findDtos(specification, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<UnitDto> catalogMatchAndFetch() {
+        long[] ids = unitCatalog.matchingIds(criteria, null, "totalCost", true).orElseThrow();
+        List<Long> pageIds = Arrays.stream(ids, 0, Math.min(FIRST_PAGE.getPageSize(), ids.length)).boxed().toList();
+        return unitRepository.findDtoSlice(UnitSpecification.hasIdIn(pageIds), Sort.unsorted(), pageIds.size());
+    }
+}
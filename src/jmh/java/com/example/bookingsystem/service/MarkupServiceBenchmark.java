@@ -0,0 +1,36 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.UnitDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MarkupServiceImpl#calculatePriseWithMarkup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MarkupServiceBenchmark {
+
+    private MarkupServiceImpl markupService;
+    private UnitDto unit;
+
+    @Setup
+    public void setUp() {
+        markupService = new MarkupServiceImpl();
+        unit = UnitDto.builder().baseCost(new BigDecimal("123.45")).build();
+    }
+
+    @Benchmark
+    public BigDecimal calculatePriceWithMarkup() {
+        return markupService.calculatePriseWithMarkup(unit);
+    }
+}
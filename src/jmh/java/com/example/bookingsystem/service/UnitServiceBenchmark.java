@@ -0,0 +1,101 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.benchmark.Stubs;
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.index.AvailabilityCountCache;
+import com.example.bookingsystem.index.BookingIntervalIndex;
+import com.example.bookingsystem.index.OccupancyBitmapEngine;
+import com.example.bookingsystem.index.UnitCatalog;
+import com.example.bookingsystem.index.UnitSearchCache;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.UnitRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Measures {@link UnitServiceImpl#getAvailableUnitsCount} on cache hits and misses. Misses are answered either by
+ * the occupancy bitmaps or by a stubbed repository count, so only the in-process cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UnitServiceBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Param({"1000", "100000"})
+    public int units;
+
+    @Param({"false", "true"})
+    public boolean occupancyBitmaps;
+
+    private UnitServiceImpl unitService;
+    private AvailabilityCountCache availabilityCache;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup
+    public void setUp() {
+        List<Long> unitIds = LongStream.rangeClosed(1, units).boxed().toList();
+        List<BookingPeriod> periods = LongStream.rangeClosed(1, units / 2)
+                                                .mapToObj(id -> new BookingPeriod(id, id * 2,
+                                                        TODAY.plusDays(id % 60), TODAY.plusDays(id % 60 + 3)))
+                                                .toList();
+
+        UnitRepository unitRepository = Stubs.of(UnitRepository.class, Map.of(
+                "findAllIds", args -> unitIds,
+                "count", args -> (long) units / 2));
+        BookingRepository bookingRepository = Stubs.of(BookingRepository.class, Map.of());
+        BookingJournalService bookingJournalService = Stubs.of(BookingJournalService.class, Map.of(
+                "loadActivePeriods", args -> periods));
+
+        BookingIntervalIndex bookingIntervalIndex = new BookingIntervalIndex(bookingJournalService);
+        bookingIntervalIndex.rebuild();
+        Clock clock = Clock.fixed(Instant.parse("2025-06-15T00:00:00Z"), ZoneOffset.UTC);
+        OccupancyBitmapEngine occupancyEngine = new OccupancyBitmapEngine(
+                bookingRepository, unitRepository, bookingJournalService, bookingIntervalIndex, clock, 730, false);
+        if (occupancyBitmaps) {
+            occupancyEngine.rebuild();
+        }
+
+        availabilityCache = new AvailabilityCountCache(bookingIntervalIndex);
+        ApplicationEventPublisher eventPublisher = event -> {
+        };
+        unitService = new UnitServiceImpl(unitRepository, null, occupancyEngine, eventPublisher, availabilityCache,
+                new UnitSearchCache(1000), new UnitCatalog(unitRepository, false));
+
+        start = TODAY.plusDays(10);
+        end = TODAY.plusDays(17);
+        unitService.getAvailableUnitsCount(start, end);
+    }
+
+    @Benchmark
+    public long cacheHit() {
+        return unitService.getAvailableUnitsCount(start, end);
+    }
+
+    /**
+     * Includes clearing the (single-entry) cache so every call takes the miss path.
+     */
+    @Benchmark
+    public long cacheMiss() {
+        availabilityCache.clear();
+        return unitService.getAvailableUnitsCount(start, end);
+    }
+}
@@ -42,7 +42,8 @@ public class AppConfig {
 
     /**
      * Provides an {@link Executor} backed by Java virtual threads (Project Loom).
-     * Allows for lightweight, scalable asynchronous task execution.
+     * Allows for lightweight, scalable asynchronous task execution. The executor is unbounded, so database work
+     * of payments is submitted to the {@link com.example.bookingsystem.scheduling.PaymentStage} instead.
      *
      * @return an executor that creates a new virtual thread per task
      */
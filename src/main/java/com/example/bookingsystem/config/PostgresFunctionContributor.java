@@ -0,0 +1,34 @@
+package com.example.bookingsystem.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registers PostgreSQL specific functions for use in JPQL and Criteria queries.
+ * <p>
+ * Loaded by Hibernate through {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class PostgresFunctionContributor implements FunctionContributor {
+
+    /**
+     * {@code date_range_overlaps(period, startDate, endDate)}: tells whether the {@code daterange} column overlaps
+     * the closed range {@code [startDate, endDate]}. Rendered with the {@code &&} operator so that the condition
+     * can be answered by a GiST index on the column.
+     */
+    public static final String DATE_RANGE_OVERLAPS = "date_range_overlaps";
+
+    @Override
+    public void contributeFunctions(@NotNull FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+                                                              .getBasicTypeRegistry()
+                                                              .resolve(StandardBasicTypes.BOOLEAN);
+        functionContributions.getFunctionRegistry()
+                             .patternDescriptorBuilder(DATE_RANGE_OVERLAPS, "(?1 && daterange(?2, ?3, '[]'))")
+                             .setExactArgumentCount(3)
+                             .setInvariantType(booleanType)
+                             .register();
+    }
+}
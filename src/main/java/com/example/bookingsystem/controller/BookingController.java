@@ -1,16 +1,28 @@
 package com.example.bookingsystem.controller;
 
+import com.example.bookingsystem.dto.BookingBatchItemResult;
 import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.exception.BatchTooLargeException;
+import com.example.bookingsystem.service.BookingEventStreamService;
+import com.example.bookingsystem.service.BookingIdempotencyService;
 import com.example.bookingsystem.service.BookingService;
+import com.example.bookingsystem.util.NdjsonStreamingBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,29 +35,96 @@ import java.util.List;
 @Tag(name = "Bookings", description = "Endpoints for managing bookings")
 public class BookingController {
 
+    /**
+     * Header carrying the client generated key that makes a booking request safe to retry.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    /**
+     * Largest number of requests a batch may hold; the whole batch runs in one transaction.
+     */
+    static final int MAX_BATCH_SIZE = 500;
+
     private final BookingService bookingService;
+    private final BookingIdempotencyService bookingIdempotencyService;
+    private final BookingEventStreamService bookingEventStreamService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all bookings.
+     * Retrieves a page of bookings ordered by ID.
      *
+     * @param cursor the ID of the last booking of the previous page, taken from the {@code X-Next-Cursor} header
+     * @param size   the page size, at most {@value CursorPagination#MAX_PAGE_SIZE}
      * @return list of BookingDto objects
      */
-    @Operation(summary = "Get all bookings", description = "Returns a list of all bookings")
+    @Operation(summary = "Get bookings", description = "Returns a page of bookings ordered by ID; "
+            + "the X-Next-Cursor response header holds the cursor of the next page")
     @GetMapping
-    public List<BookingDto> getAll() {
-        return bookingService.getAll();
+    public ResponseEntity<List<BookingDto>> getAll(@RequestParam(required = false) Long cursor,
+                                                   @RequestParam(defaultValue = CursorPagination.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = CursorPagination.clamp(size);
+        return CursorPagination.response(bookingService.getAll(cursor, pageSize), pageSize, BookingDto::getId);
+    }
+
+    /**
+     * Streams all bookings as newline-delimited JSON.
+     *
+     * @return streaming response body
+     */
+    @Operation(summary = "Stream all bookings", description = "Streams all bookings ordered by ID as newline-delimited JSON")
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(NdjsonStreamingBody.of(objectMapper, bookingService::streamAll));
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the status changes of a booking.
+     *
+     * @param id the identifier of the booking
+     * @return emitter pushing a {@code booking-status} event per transition
+     */
+    @Operation(summary = "Subscribe to booking status changes",
+            description = "Streams booking-status events, e.g. confirmation after payment or cancellation on expiration")
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long id) {
+        return bookingEventStreamService.subscribeToBooking(id);
     }
 
     /**
      * Creates a new booking for a unit.
      *
-     * @param dto booking details
+     * @param idempotencyKey optional key identifying the request across retries
+     * @param dto            booking details
      * @return created BookingDto
      */
-    @Operation(summary = "Create a new booking", description = "Books a unit with provided booking details")
+    @Operation(summary = "Create a new booking", description = "Books a unit with provided booking details; "
+            + "a retry with the same Idempotency-Key header returns the original booking")
     @PostMapping
-    public ResponseEntity<BookingDto> bookUnit(@RequestBody BookingDto dto) {
-        BookingDto booking = bookingService.bookUnit(dto);
+    public ResponseEntity<BookingDto> bookUnit(@RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                               @RequestBody BookingDto dto) {
+        BookingDto booking = idempotencyKey == null
+                ? bookingService.bookUnit(dto)
+                : bookingIdempotencyService.bookUnit(idempotencyKey, dto);
         return ResponseEntity.ok(booking);
     }
+
+    /**
+     * Creates bookings for a batch of requests.
+     *
+     * @param dtos booking details, at most {@value #MAX_BATCH_SIZE}
+     * @return per-request results in submission order
+     */
+    @Operation(summary = "Create bookings in batch",
+            description = "Books up to " + MAX_BATCH_SIZE + " units in one transaction and reports success or the "
+                    + "rejection reason per request")
+    @PostMapping("/batch")
+    public ResponseEntity<List<BookingBatchItemResult>> bookUnits(@RequestBody List<BookingDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("A batch holds at most " + MAX_BATCH_SIZE + " bookings, got " + dtos.size());
+        }
+        List<BookingBatchItemResult> results = bookingService.bookUnits(dtos);
+        return ResponseEntity.ok(results);
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.bookingsystem.controller;
+
+import com.example.bookingsystem.dto.BookingJournalEntry;
+import com.example.bookingsystem.dto.BookingJournalPosition;
+import com.example.bookingsystem.service.BookingJournalService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller exposing the booking journal as an incremental feed.
+ */
+@RestController
+@RequestMapping("/api/booking-events")
+@RequiredArgsConstructor
+@Tag(name = "Booking journal", description = "Incremental feed of booking lifecycle events")
+public class BookingJournalController {
+
+    private final BookingJournalService bookingJournalService;
+
+    /**
+     * Retrieves the journal events recorded after the given cursor in journal order. Polling with the last
+     * received cursor returns only newer events; an empty page means the consumer is up to date.
+     *
+     * @param cursor the position of the last event already consumed, taken from the {@code X-Next-Cursor} header
+     * @param size   the page size, at most {@value CursorPagination#MAX_PAGE_SIZE}
+     * @return list of BookingJournalEntry objects
+     */
+    @Operation(summary = "Get booking events", description = "Returns the booking lifecycle events after the cursor "
+            + "in journal order; the X-Next-Cursor response header holds the cursor of the next page")
+    @GetMapping
+    public ResponseEntity<List<BookingJournalEntry>> getFeed(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = CursorPagination.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = CursorPagination.clamp(size);
+        return CursorPagination.response(
+                bookingJournalService.getFeed(BookingJournalPosition.parse(cursor), pageSize), pageSize,
+                entry -> entry.position().toCursor());
+    }
+}
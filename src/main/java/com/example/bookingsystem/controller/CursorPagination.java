@@ -0,0 +1,58 @@
+package com.example.bookingsystem.controller;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Shared constants and helpers for keyset-paginated list endpoints.
+ */
+final class CursorPagination {
+
+    /**
+     * Page size used when the request does not specify one.
+     */
+    static final String DEFAULT_PAGE_SIZE = "100";
+
+    /**
+     * Largest page size a client may request.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Response header carrying the cursor of the next page; absent on the last page.
+     */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPagination() {
+    }
+
+    /**
+     * Limits the requested page size to {@code [1, MAX_PAGE_SIZE]}.
+     *
+     * @param size the requested page size
+     * @return the effective page size
+     */
+    static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Wraps a page in a response, adding the next cursor header when the page is full.
+     *
+     * @param page        the page content
+     * @param size        the effective page size
+     * @param idExtractor extracts the cursor of an element
+     * @param <T>         the element type
+     * @return response with the page as body
+     */
+    static <T> ResponseEntity<List<T>> response(@NotNull List<T> page, int size, Function<T, ?> idExtractor) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.size() == size) {
+            builder.header(NEXT_CURSOR_HEADER, String.valueOf(idExtractor.apply(page.get(page.size() - 1))));
+        }
+        return builder.body(page);
+    }
+}
@@ -2,12 +2,18 @@ package com.example.bookingsystem.controller;
 
 import com.example.bookingsystem.dto.PaymentDto;
 import com.example.bookingsystem.service.PaymentService;
+import com.example.bookingsystem.util.NdjsonStreamingBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -21,16 +27,34 @@ import java.util.List;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all payments.
+     * Retrieves a page of payments ordered by ID.
      *
+     * @param cursor the ID of the last payment of the previous page, taken from the {@code X-Next-Cursor} header
+     * @param size   the page size, at most {@value CursorPagination#MAX_PAGE_SIZE}
      * @return list of PaymentDto objects
      */
-    @Operation(summary = "Get all payments", description = "Returns a list of all payments")
+    @Operation(summary = "Get payments", description = "Returns a page of payments ordered by ID; "
+            + "the X-Next-Cursor response header holds the cursor of the next page")
     @GetMapping
-    public List<PaymentDto> getAll() {
-        return paymentService.getAll();
+    public ResponseEntity<List<PaymentDto>> getAll(@RequestParam(required = false) Long cursor,
+                                                   @RequestParam(defaultValue = CursorPagination.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = CursorPagination.clamp(size);
+        return CursorPagination.response(paymentService.getAll(cursor, pageSize), pageSize, PaymentDto::getId);
     }
-}
 
+    /**
+     * Streams all payments as newline-delimited JSON.
+     *
+     * @return streaming response body
+     */
+    @Operation(summary = "Stream all payments", description = "Streams all payments ordered by ID as newline-delimited JSON")
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(NdjsonStreamingBody.of(objectMapper, paymentService::streamAll));
+    }
+}
@@ -2,7 +2,10 @@ package com.example.bookingsystem.controller;
 
 import com.example.bookingsystem.dto.AvailabilityRequest;
 import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
 import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.dto.UnitSlice;
+import com.example.bookingsystem.service.SearchCountMode;
 import com.example.bookingsystem.service.UnitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -99,6 +102,97 @@ public class UnitController {
         return ResponseEntity.ok(units);
     }
 
+    /**
+     * Searches units with the same filters as {@link #searchUnits}, returning slices paginated by an opaque cursor
+     * instead of numbered pages, for clients that scroll through the results.
+     *
+     * @param numberOfRooms number of rooms filter
+     * @param type          unit type filter
+     * @param floor         floor filter
+     * @param startDate     availability start date filter
+     * @param endDate       availability end date filter
+     * @param maxCost       maximum cost filter
+     * @param cursor        the {@code nextCursor} of the previous slice, absent for the first slice
+     * @param size          slice size (default 10), at most {@value CursorPagination#MAX_PAGE_SIZE}
+     * @param sortBy        sorting field: id, numberOfRooms, floor, baseCost or totalCost (default "id")
+     * @param sortDir       sorting direction: asc or desc (default "asc")
+     * @param count         total count mode: NONE, EXACT or ESTIMATE (default NONE)
+     * @return slice of units matching filters with the cursor of the next slice
+     */
+    @Operation(
+            summary = "Scroll units",
+            description = "Returns a slice of units filtered by various parameters, paginated by an opaque cursor; "
+                    + "the total count is computed only on request, exactly or as an estimate",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Units retrieved successfully"),
+                    @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field")
+            }
+    )
+    @GetMapping("/search/scroll")
+    public ResponseEntity<UnitSlice> scrollUnits(
+            @RequestParam(required = false) Integer numberOfRooms,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer floor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) BigDecimal maxCost,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "NONE") SearchCountMode count
+    ) {
+        UnitSearchCriteria criteria = UnitSearchCriteria.builder()
+                                                        .numberOfRooms(numberOfRooms)
+                                                        .type(type)
+                                                        .floor(floor)
+                                                        .startDate(startDate)
+                                                        .endDate(endDate)
+                                                        .maxCost(maxCost)
+                                                        .build();
+        UnitSlice slice = unitService.scrollUnits(criteria, cursor, CursorPagination.clamp(size), sortBy, sortDir, count);
+        return ResponseEntity.ok(slice);
+    }
+
+    /**
+     * Counts the units matching the same filters as {@link #searchUnits} per accommodation type, number of rooms
+     * and floor. Pagination and sort parameters are accepted and ignored, so a search query string can be reused.
+     *
+     * @param numberOfRooms number of rooms filter
+     * @param type          unit type filter
+     * @param floor         floor filter
+     * @param startDate     availability start date filter
+     * @param endDate       availability end date filter
+     * @param maxCost       maximum cost filter
+     * @return the total and the per-value counts of matching units
+     */
+    @Operation(
+            summary = "Count unit search facets",
+            description = "Returns how many units match the filters in total and per type, number of rooms and floor",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Facet counts returned successfully")
+            }
+    )
+    @GetMapping("/facets")
+    public ResponseEntity<UnitFacets> getFacets(
+            @RequestParam(required = false) Integer numberOfRooms,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer floor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) BigDecimal maxCost
+    ) {
+        UnitSearchCriteria criteria = UnitSearchCriteria.builder()
+                                                        .numberOfRooms(numberOfRooms)
+                                                        .type(type)
+                                                        .floor(floor)
+                                                        .startDate(startDate)
+                                                        .endDate(endDate)
+                                                        .maxCost(maxCost)
+                                                        .build();
+        return ResponseEntity.ok(unitService.getFacets(criteria));
+    }
+
     /**
      * Returns the count of units available between given dates.
      *
@@ -1,14 +1,23 @@
 package com.example.bookingsystem.controller;
 
 import com.example.bookingsystem.dto.UserDto;
+import com.example.bookingsystem.service.BookingEventStreamService;
 import com.example.bookingsystem.service.UserService;
+import com.example.bookingsystem.util.NdjsonStreamingBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,22 +32,54 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final BookingEventStreamService bookingEventStreamService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves a list of all users.
+     * Retrieves a page of users ordered by ID.
      *
-     * @return list of {@link UserDto} representing all users
+     * @param cursor the ID of the last user of the previous page, taken from the {@code X-Next-Cursor} header
+     * @param size   the page size, at most {@value CursorPagination#MAX_PAGE_SIZE}
+     * @return list of {@link UserDto}
      */
     @Operation(
-            summary = "Get all users",
-            description = "Returns a list of all users in the system",
+            summary = "Get users",
+            description = "Returns a page of users ordered by ID; "
+                    + "the X-Next-Cursor response header holds the cursor of the next page",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Successfully retrieved list of users")
             }
     )
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.getAll();
+    public ResponseEntity<List<UserDto>> getAllUsers(@RequestParam(required = false) Long cursor,
+                                                     @RequestParam(defaultValue = CursorPagination.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = CursorPagination.clamp(size);
+        return CursorPagination.response(userService.getAll(cursor, pageSize), pageSize, UserDto::id);
+    }
+
+    /**
+     * Streams all users as newline-delimited JSON.
+     *
+     * @return streaming response body
+     */
+    @Operation(summary = "Stream all users", description = "Streams all users ordered by ID as newline-delimited JSON")
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ResponseEntity.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(NdjsonStreamingBody.of(objectMapper, userService::streamAll));
     }
-}
 
+    /**
+     * Opens a Server-Sent Events stream of the status changes of all bookings of a user.
+     *
+     * @param id the identifier of the user
+     * @return emitter pushing a {@code booking-status} event per transition
+     */
+    @Operation(summary = "Subscribe to the user's booking status changes",
+            description = "Streams booking-status events for every booking of the user")
+    @GetMapping(path = "/{id}/bookings/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bookingEvents(@PathVariable Long id) {
+        return bookingEventStreamService.subscribeToUser(id);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.bookingsystem.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome of a single booking request submitted as part of a batch.
+ */
+@Data
+@Builder
+public class BookingBatchItemResult {
+
+    /**
+     * Position of the request in the submitted batch (zero-based).
+     */
+    private int index;
+
+    /**
+     * Outcome of the request.
+     */
+    private Status status;
+
+    /**
+     * The created booking, present only when {@link #status} is {@link Status#SUCCESS}.
+     */
+    private BookingDto booking;
+
+    /**
+     * Reason the request was rejected, absent on success.
+     */
+    private String message;
+
+    /**
+     * Possible outcomes of a batch item.
+     */
+    public enum Status {
+        /**
+         * The booking was created.
+         */
+        SUCCESS,
+        /**
+         * The unit is already booked for the requested dates, or another item of the batch claimed them first.
+         */
+        CONFLICT,
+        /**
+         * The referenced unit or user does not exist.
+         */
+        NOT_FOUND,
+        /**
+         * The request is missing required fields or has an invalid date range.
+         */
+        INVALID
+    }
+}
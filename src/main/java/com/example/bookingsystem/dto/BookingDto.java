@@ -1,6 +1,7 @@
 package com.example.bookingsystem.dto;
 
 import com.example.bookingsystem.model.enums.BookingStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,6 +12,7 @@ import java.time.LocalDate;
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class BookingDto {
 
     /**
@@ -0,0 +1,44 @@
+package com.example.bookingsystem.dto;
+
+import com.example.bookingsystem.model.enums.BookingEventType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a booking journal event, as served by the incremental feed and used for replay.
+ *
+ * @param id         the identifier of the event
+ * @param txId       the identifier of the transaction that appended the event
+ * @param bookingId  the identifier of the booking
+ * @param unitId     the identifier of the booked unit
+ * @param userId     the identifier of the user who made the booking
+ * @param startDate  the first booked day (inclusive)
+ * @param endDate    the last booked day (inclusive)
+ * @param type       the kind of lifecycle step
+ * @param status     the booking status after the step
+ * @param occurredAt the date and time of the step
+ */
+public record BookingJournalEntry(
+        Long id,
+        Long txId,
+        Long bookingId,
+        Long unitId,
+        Long userId,
+        LocalDate startDate,
+        LocalDate endDate,
+        BookingEventType type,
+        BookingStatus status,
+        LocalDateTime occurredAt
+) {
+
+    /**
+     * Returns the position of the event in the journal.
+     *
+     * @return the position, usable as feed cursor
+     */
+    public BookingJournalPosition position() {
+        return new BookingJournalPosition(txId, id);
+    }
+}
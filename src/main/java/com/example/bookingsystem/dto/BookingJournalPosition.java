@@ -0,0 +1,53 @@
+package com.example.bookingsystem.dto;
+
+import com.example.bookingsystem.exception.InvalidCursorException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Position in the booking journal: events are ordered by the transaction that appended them, then by identifier.
+ * Serialized as {@code <txId>-<eventId>} for the feed cursor.
+ *
+ * @param txId    the identifier of the transaction that appended the last event already seen
+ * @param eventId the identifier of the last event already seen
+ */
+public record BookingJournalPosition(long txId, long eventId) {
+
+    /**
+     * The position before the first event of the journal.
+     */
+    public static final BookingJournalPosition START = new BookingJournalPosition(0L, 0L);
+
+    private static final char SEPARATOR = '-';
+
+    /**
+     * Parses a feed cursor.
+     *
+     * @param cursor the cursor produced by {@link #toCursor()}, or {@code null} for the beginning of the journal
+     * @return the position
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    public static @NotNull BookingJournalPosition parse(String cursor) {
+        if (cursor == null) {
+            return START;
+        }
+        int separator = cursor.indexOf(SEPARATOR);
+        try {
+            if (separator > 0) {
+                return new BookingJournalPosition(Long.parseLong(cursor.substring(0, separator)),
+                        Long.parseLong(cursor.substring(separator + 1)));
+            }
+        } catch (NumberFormatException exception) {
+            // reported below
+        }
+        throw new InvalidCursorException("Malformed cursor");
+    }
+
+    /**
+     * Formats the position as a feed cursor.
+     *
+     * @return the cursor
+     */
+    public @NotNull String toCursor() {
+        return String.valueOf(txId) + SEPARATOR + eventId;
+    }
+}
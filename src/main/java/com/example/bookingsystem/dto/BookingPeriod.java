@@ -0,0 +1,19 @@
+package com.example.bookingsystem.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight projection of a booking that carries only the data needed to reason about occupancy.
+ *
+ * @param id        the identifier of the booking
+ * @param unitId    the identifier of the booked unit
+ * @param startDate the first booked day (inclusive)
+ * @param endDate   the last booked day (inclusive)
+ */
+public record BookingPeriod(
+        Long id,
+        Long unitId,
+        LocalDate startDate,
+        LocalDate endDate
+) {
+}
@@ -0,0 +1,26 @@
+package com.example.bookingsystem.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Payment job claimed by a worker.
+ *
+ * @param jobId         the identifier of the job
+ * @param paymentId     the identifier of the payment to process
+ * @param amount        the amount of the payment
+ * @param attempts      the number of times the job has been claimed, including this claim
+ * @param authorization the gateway reference of the approved authorization, {@code null} if not authorized yet
+ * @param capture       the gateway reference of the approved capture, {@code null} if not captured yet
+ * @param expiresAt     the deadline of the payment
+ */
+public record ClaimedPaymentJob(
+        Long jobId,
+        Long paymentId,
+        BigDecimal amount,
+        int attempts,
+        String authorization,
+        String capture,
+        LocalDateTime expiresAt
+) {
+}
@@ -0,0 +1,15 @@
+package com.example.bookingsystem.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a payment expiration carrying only what is needed to schedule it.
+ *
+ * @param paymentId          the identifier of the payment
+ * @param expirationDateTime the moment the payment expires
+ */
+public record PaymentDeadline(
+        Long paymentId,
+        LocalDateTime expirationDateTime
+) {
+}
@@ -1,6 +1,7 @@
 package com.example.bookingsystem.dto;
 
 import com.example.bookingsystem.model.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,6 +12,7 @@ import java.math.BigDecimal;
  */
 @Data
 @Builder
+@AllArgsConstructor
 public class PaymentDto {
 
     /**
@@ -0,0 +1,28 @@
+package com.example.bookingsystem.dto;
+
+import com.example.bookingsystem.model.enums.BookingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Result row of a guarded payment transition: the payment that changed its status and the booking it moved along,
+ * e.g. a failed payment and the booking it cancelled.
+ *
+ * @param paymentId             the identifier of the payment
+ * @param bookingId             the identifier of the booking
+ * @param unitId                the identifier of the booked unit
+ * @param userId                the identifier of the user who made the booking
+ * @param startDate             the first booked day (inclusive)
+ * @param endDate               the last booked day (inclusive)
+ * @param previousBookingStatus the booking status before the transition
+ */
+public record PaymentTransition(
+        Long paymentId,
+        Long bookingId,
+        Long unitId,
+        Long userId,
+        LocalDate startDate,
+        LocalDate endDate,
+        BookingStatus previousBookingStatus
+) {
+}
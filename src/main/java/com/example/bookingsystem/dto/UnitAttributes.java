@@ -0,0 +1,23 @@
+package com.example.bookingsystem.dto;
+
+import com.example.bookingsystem.model.enums.AccommodationType;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight projection of a unit that carries only the attributes units are searched by.
+ *
+ * @param id            the identifier of the unit
+ * @param numberOfRooms the number of rooms
+ * @param type          the accommodation type
+ * @param floor         the floor the unit is on
+ * @param totalCost     the total cost after markup
+ */
+public record UnitAttributes(
+        Long id,
+        int numberOfRooms,
+        AccommodationType type,
+        int floor,
+        BigDecimal totalCost
+) {
+}
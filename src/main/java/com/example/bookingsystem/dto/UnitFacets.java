@@ -0,0 +1,22 @@
+package com.example.bookingsystem.dto;
+
+import com.example.bookingsystem.model.enums.AccommodationType;
+
+import java.util.Map;
+
+/**
+ * Number of units matching a search, broken down by the values of the categorical attributes. Values without
+ * matching units are left out.
+ *
+ * @param total         the number of matching units
+ * @param types         the matching units per accommodation type
+ * @param numberOfRooms the matching units per number of rooms, in ascending order
+ * @param floors        the matching units per floor, in ascending order
+ */
+public record UnitFacets(
+        long total,
+        Map<AccommodationType, Long> types,
+        Map<Integer, Long> numberOfRooms,
+        Map<Integer, Long> floors
+) {
+}
@@ -0,0 +1,21 @@
+package com.example.bookingsystem.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a scrolling unit search.
+ *
+ * @param content        the units of the slice
+ * @param hasNext        whether more units follow
+ * @param nextCursor     the opaque cursor of the next slice, {@code null} on the last slice
+ * @param totalCount     the total number of matching units, {@code null} unless requested
+ * @param totalEstimated whether {@code totalCount} is an estimate rather than an exact count
+ */
+public record UnitSlice(
+        List<UnitDto> content,
+        boolean hasNext,
+        String nextCursor,
+        Long totalCount,
+        boolean totalEstimated
+) {
+}
@@ -0,0 +1,87 @@
+package com.example.bookingsystem.event;
+
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.model.Booking;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published whenever a booking changes its status.
+ *
+ * @param bookingId      the identifier of the booking
+ * @param unitId         the identifier of the booked unit
+ * @param userId         the identifier of the user who made the booking
+ * @param startDate      the first booked day (inclusive)
+ * @param endDate        the last booked day (inclusive)
+ * @param previousStatus the status before the transition, {@code null} for a newly created booking
+ * @param status         the status after the transition
+ */
+public record BookingStatusChangedEvent(
+        Long bookingId,
+        Long unitId,
+        Long userId,
+        LocalDate startDate,
+        LocalDate endDate,
+        BookingStatus previousStatus,
+        BookingStatus status
+) {
+
+    /**
+     * Tells whether the booking starts occupying its unit with this change: it was just created in an active status.
+     *
+     * @return {@code true} for a newly created, non-cancelled booking
+     */
+    public boolean occupies() {
+        return previousStatus == null && status != BookingStatus.CANCELLED;
+    }
+
+    /**
+     * Tells whether the booking stops occupying its unit with this change.
+     *
+     * @return {@code true} for a booking that was cancelled just now
+     */
+    public boolean releases() {
+        return status == BookingStatus.CANCELLED && previousStatus != BookingStatus.CANCELLED;
+    }
+
+    /**
+     * Creates an event describing the current state of the given booking.
+     *
+     * @param booking        the booking after the transition
+     * @param previousStatus the status before the transition
+     * @return a new {@link BookingStatusChangedEvent}
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull BookingStatusChangedEvent of(@NotNull Booking booking, BookingStatus previousStatus) {
+        return new BookingStatusChangedEvent(
+                booking.getId(),
+                booking.getUnit().getId(),
+                booking.getUser().getId(),
+                booking.getStartDate(),
+                booking.getEndDate(),
+                previousStatus,
+                booking.getStatus());
+    }
+
+    /**
+     * Creates an event describing the booking side of a payment transition.
+     *
+     * @param transition the payment transition
+     * @param status     the status the booking was moved to
+     * @return a new {@link BookingStatusChangedEvent}
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull BookingStatusChangedEvent of(@NotNull PaymentTransition transition, BookingStatus status) {
+        return new BookingStatusChangedEvent(
+                transition.bookingId(),
+                transition.unitId(),
+                transition.userId(),
+                transition.startDate(),
+                transition.endDate(),
+                transition.previousBookingStatus(),
+                status);
+    }
+}
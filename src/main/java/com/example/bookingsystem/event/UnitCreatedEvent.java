@@ -0,0 +1,11 @@
+package com.example.bookingsystem.event;
+
+import com.example.bookingsystem.dto.UnitDto;
+
+/**
+ * Application event published after a new unit has been added to the inventory.
+ *
+ * @param unit the saved unit
+ */
+public record UnitCreatedEvent(UnitDto unit) {
+}
@@ -0,0 +1,10 @@
+package com.example.bookingsystem.exception;
+
+/**
+ * Thrown when a batch request holds more items than the endpoint accepts.
+ */
+public class BatchTooLargeException extends RuntimeException {
+    public BatchTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bookingsystem.exception;
+
+/**
+ * Thrown when an {@code Idempotency-Key} is reused with a request that differs from the one it was first used with.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.bookingsystem.exception;
+
+/**
+ * Thrown when a pagination cursor cannot be decoded or does not belong to the requested sort order.
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
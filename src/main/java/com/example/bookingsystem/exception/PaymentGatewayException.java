@@ -0,0 +1,11 @@
+package com.example.bookingsystem.exception;
+
+/**
+ * Thrown when the payment gateway fails to answer a request, e.g. because of an error or throttling.
+ * Unlike a decline, the operation may succeed when retried.
+ */
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bookingsystem.gateway;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Answer of the {@link PaymentGateway} to an authorization, capture or refund.
+ *
+ * @param approved  whether the gateway accepted the operation
+ * @param reference the gateway reference of an approved operation, {@code null} when declined
+ * @param message   the decline reason, {@code null} when approved
+ */
+public record GatewayResponse(boolean approved, String reference, String message) {
+
+    /**
+     * Creates an approval.
+     *
+     * @param reference the gateway reference of the operation
+     * @return a new approved {@link GatewayResponse}
+     */
+    @Contract("_ -> new")
+    public static @NotNull GatewayResponse approved(String reference) {
+        return new GatewayResponse(true, reference, null);
+    }
+
+    /**
+     * Creates a decline.
+     *
+     * @param message the decline reason
+     * @return a new declined {@link GatewayResponse}
+     */
+    @Contract("_ -> new")
+    public static @NotNull GatewayResponse declined(String message) {
+        return new GatewayResponse(false, null, message);
+    }
+}
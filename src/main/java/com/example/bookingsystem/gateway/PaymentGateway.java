@@ -0,0 +1,43 @@
+package com.example.bookingsystem.gateway;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service provider interface of the payment gateway that charges booking payments.
+ * <p>
+ * A payment is charged in two steps: the amount is authorized and the authorization is then captured. A captured
+ * amount that can no longer be booked, e.g. because the payment expired meanwhile, is given back with a refund. All
+ * calls are idempotent per reference and asynchronous and must not block the caller. A response that is not approved is a business decline and is
+ * final; transport failures, throttling and errors complete the future exceptionally and may be retried. The caller
+ * is responsible for applying a timeout.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Reserves the amount of a payment.
+     *
+     * @param paymentId the identifier of the payment, used as the idempotency reference towards the gateway
+     * @param amount    the amount to authorize
+     * @return the gateway response carrying the authorization reference when approved
+     */
+    CompletableFuture<GatewayResponse> authorize(Long paymentId, BigDecimal amount);
+
+    /**
+     * Captures a previously approved authorization.
+     *
+     * @param authorization the reference returned by {@link #authorize(Long, BigDecimal)}
+     * @param amount        the amount to capture
+     * @return the gateway response carrying the capture reference when approved
+     */
+    CompletableFuture<GatewayResponse> capture(String authorization, BigDecimal amount);
+
+    /**
+     * Refunds a previously approved capture. Refunding the same capture again returns the recorded answer.
+     *
+     * @param capture the reference returned by {@link #capture(String, BigDecimal)}
+     * @param amount  the amount to refund
+     * @return the gateway response carrying the refund reference when approved
+     */
+    CompletableFuture<GatewayResponse> refund(String capture, BigDecimal amount);
+}
@@ -0,0 +1,204 @@
+package com.example.bookingsystem.gateway;
+
+import com.example.bookingsystem.exception.PaymentGatewayException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Local {@link PaymentGateway} modelling the behaviour of a remote gateway, used unless
+ * {@code payment.gateway.type} selects another implementation.
+ * <p>
+ * Every call answers after a log-normally distributed latency given by its median and 99th percentile. Authorizations
+ * are declined at {@code decline-rate}; any call fails with a {@link PaymentGatewayException} at {@code error-rate}
+ * and never answers at {@code timeout-rate}, leaving the caller's timeout to fire. Calls beyond
+ * {@code max-requests-per-second} are throttled with a {@link PaymentGatewayException}, like a gateway answering
+ * HTTP 429. Responses are completed on the virtual thread executor, so pending calls hold no platform thread.
+ * <p>
+ * Like a real gateway, the simulator is idempotent: an authorization is answered once per payment ID and a capture
+ * once per authorization and a refund once per capture, and repeated requests get the recorded answer, so a retried
+ * charge never takes the amount twice. Capturing an unknown authorization or refunding an unknown capture is
+ * declined. Answers are remembered for the {@code idempotency-capacity} most recently used references of each kind,
+ * like the limited idempotency window of a real gateway.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.gateway.type", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    /**
+     * Quantile of the standard normal distribution at 0.99.
+     */
+    private static final double Z_99 = 2.326348;
+
+    private final double latencyMu;
+    private final double latencySigma;
+    private final double declineRate;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final Executor virtualThreadExecutor;
+    private final TokenBucket throughput;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, GatewayResponse> authorizations;
+    private final Map<String, GatewayResponse> approvedAuthorizations;
+    private final Map<String, GatewayResponse> captures;
+    private final Map<String, GatewayResponse> approvedCaptures;
+    private final Map<String, GatewayResponse> refunds;
+
+    public SimulatedPaymentGateway(@Value("${payment.gateway.simulator.latency-median-ms:200}") long latencyMedianMillis,
+                                   @Value("${payment.gateway.simulator.latency-p99-ms:1500}") long latencyP99Millis,
+                                   @Value("${payment.gateway.simulator.decline-rate:0.2}") double declineRate,
+                                   @Value("${payment.gateway.simulator.error-rate:0.01}") double errorRate,
+                                   @Value("${payment.gateway.simulator.timeout-rate:0.005}") double timeoutRate,
+                                   @Value("${payment.gateway.simulator.max-requests-per-second:200}") int maxRequestsPerSecond,
+                                   @Value("${payment.gateway.simulator.idempotency-capacity:100000}") int idempotencyCapacity,
+                                   Executor virtualThreadExecutor) {
+        if (latencyMedianMillis < 0 || latencyP99Millis < latencyMedianMillis) {
+            throw new IllegalArgumentException("Latency percentiles must satisfy 0 <= median <= p99: "
+                    + latencyMedianMillis + ", " + latencyP99Millis);
+        }
+        this.latencyMu = Math.log(latencyMedianMillis);
+        this.latencySigma = latencyMedianMillis == 0 ? 0 : Math.log((double) latencyP99Millis / latencyMedianMillis) / Z_99;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.throughput = new TokenBucket(maxRequestsPerSecond);
+        this.authorizations = leastRecentlyUsed(idempotencyCapacity);
+        this.approvedAuthorizations = leastRecentlyUsed(idempotencyCapacity);
+        this.captures = leastRecentlyUsed(idempotencyCapacity);
+        this.approvedCaptures = leastRecentlyUsed(idempotencyCapacity);
+        this.refunds = leastRecentlyUsed(idempotencyCapacity);
+    }
+
+    @Override
+    public CompletableFuture<GatewayResponse> authorize(Long paymentId, BigDecimal amount) {
+        return call("authorize", random -> locked(() -> authorizations.computeIfAbsent(paymentId, id -> {
+            if (random.nextDouble() < declineRate) {
+                return GatewayResponse.declined("Card declined");
+            }
+            GatewayResponse approved = GatewayResponse.approved("sim-auth-" + UUID.randomUUID());
+            approvedAuthorizations.put(approved.reference(), approved);
+            return approved;
+        })));
+    }
+
+    @Override
+    public CompletableFuture<GatewayResponse> capture(String authorization, BigDecimal amount) {
+        return call("capture", random -> locked(() -> {
+            // Looked up rather than tested, so that using a reference keeps it from being forgotten
+            if (approvedAuthorizations.get(authorization) == null) {
+                return GatewayResponse.declined("Unknown authorization");
+            }
+            return captures.computeIfAbsent(authorization, reference -> {
+                GatewayResponse approved = GatewayResponse.approved("sim-capture-" + UUID.randomUUID());
+                approvedCaptures.put(approved.reference(), approved);
+                return approved;
+            });
+        }));
+    }
+
+    @Override
+    public CompletableFuture<GatewayResponse> refund(String capture, BigDecimal amount) {
+        return call("refund", random -> locked(() -> {
+            if (approvedCaptures.get(capture) == null) {
+                return GatewayResponse.declined("Unknown capture");
+            }
+            return refunds.computeIfAbsent(capture, reference ->
+                    GatewayResponse.approved("sim-refund-" + UUID.randomUUID()));
+        }));
+    }
+
+    /**
+     * Samples the latency of a call.
+     *
+     * @param gaussian a sample of the standard normal distribution
+     * @return the latency in milliseconds
+     */
+    long latencyMillis(double gaussian) {
+        return Double.isInfinite(latencyMu) ? 0 : Math.round(Math.exp(latencyMu + latencySigma * gaussian));
+    }
+
+    private GatewayResponse locked(Supplier<GatewayResponse> answer) {
+        lock.lock();
+        try {
+            return answer.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <K, V> Map<K, V> leastRecentlyUsed(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private CompletableFuture<GatewayResponse> call(String operation,
+                                                    Function<ThreadLocalRandom, GatewayResponse> outcome) {
+        if (!throughput.tryAcquire()) {
+            log.debug("Simulated gateway throttled {}", operation);
+            return CompletableFuture.failedFuture(new PaymentGatewayException("Gateway rate limit exceeded"));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < timeoutRate) {
+            log.debug("Simulated gateway drops {}", operation);
+            return new CompletableFuture<>();
+        }
+        boolean error = roll < timeoutRate + errorRate;
+        GatewayResponse response = error ? null : outcome.apply(random);
+        Executor delayed = CompletableFuture.delayedExecutor(latencyMillis(random.nextGaussian()), TimeUnit.MILLISECONDS,
+                virtualThreadExecutor);
+        return CompletableFuture.supplyAsync(() -> {
+            if (error) {
+                throw new PaymentGatewayException("Simulated gateway error on " + operation);
+            }
+            return response;
+        }, delayed);
+    }
+
+    /**
+     * Token bucket refilled continuously at the given rate with a burst of one second's worth of requests.
+     */
+    private static final class TokenBucket {
+
+        private final double ratePerNano;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(int perSecond) {
+            this.ratePerNano = perSecond / 1e9;
+            this.capacity = perSecond;
+            this.tokens = perSecond;
+        }
+
+        private synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * ratePerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
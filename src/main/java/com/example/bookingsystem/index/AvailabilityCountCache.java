@@ -0,0 +1,254 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+/**
+ * Cache of available unit counts per closed date range, kept current by applying deltas instead of evicting.
+ * <p>
+ * Each range is keyed by its start and end epoch days packed into one {@code long}, and all cached ranges are
+ * additionally held in an {@link IntervalTree}, so a booking change only visits the ranges it overlaps. When a
+ * unit becomes booked or free within a cached range the count is adjusted by one; the
+ * {@link BookingIntervalIndex} tells whether the unit was already booked in that range by another booking.
+ * <p>
+ * Changes are applied once their transaction commits. While a change is in flight, and whenever the count of a
+ * freshly loaded range may have raced with a change, the loaded value is returned without being cached. The index
+ * also holds reservations whose transaction is still open, and booking changes of other transactions may be
+ * awaiting their turn; a range where such a booking of the same unit overlaps cannot be adjusted reliably and is
+ * evicted instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvailabilityCountCache {
+
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongLongMap counts = new LongLongMap(256);
+    private final IntervalTree ranges = new IntervalTree();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final CommitDeferredChanges changes = new CommitDeferredChanges(lock);
+    private final List<BookingStatusChangedEvent> pendingBookingChanges = new ArrayList<>();
+
+    /**
+     * Returns the cached count for the range, loading and caching it on a miss.
+     *
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @param loader    computes the count on a cache miss; invoked without holding the cache lock
+     * @return the number of available units
+     */
+    public long computeIfAbsent(@NotNull LocalDate startDate, @NotNull LocalDate endDate, LongSupplier loader) {
+        if (!isPackable(startDate) || !isPackable(endDate) || startDate.isAfter(endDate)) {
+            return loader.getAsLong();
+        }
+        long key = pack(startDate.toEpochDay(), endDate.toEpochDay());
+        long observedGeneration;
+        lock.lock();
+        try {
+            if (counts.containsKey(key)) {
+                hits.increment();
+                return counts.get(key, 0);
+            }
+            observedGeneration = changes.generation();
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+
+        long count = loader.getAsLong();
+
+        lock.lock();
+        try {
+            if (changes.isSettled(observedGeneration) && !counts.containsKey(key)) {
+                counts.put(key, count);
+                ranges.insert(key, startDate.toEpochDay(), endDate.toEpochDay());
+            } else {
+                log.debug("Not caching count for {} - {} loaded concurrently with a change", startDate, endDate);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of cached ranges.
+     *
+     * @return the size of the cache
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return counts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the cumulative hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to load the count.
+     *
+     * @return the cumulative miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cached ranges dropped instead of being adjusted in place.
+     *
+     * @return the cumulative eviction count
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Drops every cached count.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            evictions.add(counts.size());
+            counts.clear();
+            ranges.clear();
+            changes.advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adjusts the cached ranges overlapping a booking once its creation or cancellation is committed.
+     *
+     * @param event the booking status change
+     */
+    @EventListener
+    public void onBookingStatusChanged(@NotNull BookingStatusChangedEvent event) {
+        if (!event.occupies() && !event.releases()) {
+            return;
+        }
+        // Tracked until its transaction completes, see hasUnsettledOverlapping
+        lock.lock();
+        try {
+            pendingBookingChanges.add(event);
+        } finally {
+            lock.unlock();
+        }
+        changes.onCommit(() -> applyBookingChange(event, event.occupies()), () -> pendingBookingChanges.remove(event));
+    }
+
+    /**
+     * Counts a newly created unit as available in every cached range once it is committed.
+     *
+     * @param event the unit creation
+     */
+    @EventListener
+    public void onUnitCreated(@NotNull UnitCreatedEvent event) {
+        changes.onCommit(() -> counts.addToAll(1));
+    }
+
+    private void applyBookingChange(@NotNull BookingStatusChangedEvent event, boolean booked) {
+        long start = event.startDate().toEpochDay();
+        long end = event.endDate().toEpochDay();
+        if (!bookingIntervalIndex.isReady()) {
+            evictOverlapping(start, end);
+            return;
+        }
+        LongStream.Builder unsettled = LongStream.builder();
+        ranges.forEachOverlapping(start, end, key -> {
+            LocalDate rangeStart = LocalDate.ofEpochDay(unpackStart(key));
+            LocalDate rangeEnd = LocalDate.ofEpochDay(unpackEnd(key));
+            if (hasUnsettledOverlapping(event, rangeStart, rangeEnd)) {
+                unsettled.add(key);
+                return;
+            }
+            int active = bookingIntervalIndex.countOverlapping(event.unitId(), rangeStart, rangeEnd);
+            if (booked && active == 1) {
+                counts.addTo(key, -1);
+            } else if (!booked && active == 0) {
+                counts.addTo(key, 1);
+            }
+        });
+        unsettled.build().forEach(this::evict);
+        log.debug("Applied {} of booking ID: {} to cached availability counts",
+                booked ? "creation" : "cancellation", event.bookingId());
+    }
+
+    /**
+     * Tells whether another booking of the unit overlapping the range is uncommitted or awaits its change, so the
+     * index cannot tell whether the unit was occupied in the range before this change.
+     */
+    private boolean hasUnsettledOverlapping(@NotNull BookingStatusChangedEvent event, LocalDate startDate,
+                                            LocalDate endDate) {
+        if (bookingIntervalIndex.hasUncommittedOverlapping(event.unitId(), startDate, endDate, event.bookingId())) {
+            return true;
+        }
+        for (BookingStatusChangedEvent pending : pendingBookingChanges) {
+            if (pending.unitId().equals(event.unitId())
+                    && !pending.bookingId().equals(event.bookingId())
+                    && !pending.startDate().isAfter(endDate)
+                    && !pending.endDate().isBefore(startDate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictOverlapping(long start, long end) {
+        LongStream.Builder overlapping = LongStream.builder();
+        ranges.forEachOverlapping(start, end, overlapping);
+        overlapping.build().forEach(this::evict);
+        log.debug("Evicted cached availability counts overlapping {} - {}",
+                LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(end));
+    }
+
+    private void evict(long key) {
+        counts.remove(key);
+        ranges.remove(key, unpackStart(key));
+        evictions.increment();
+    }
+
+    private static boolean isPackable(@NotNull LocalDate date) {
+        long epochDay = date.toEpochDay();
+        return epochDay > Integer.MIN_VALUE && epochDay <= Integer.MAX_VALUE;
+    }
+
+    private static long pack(long startEpochDay, long endEpochDay) {
+        return (startEpochDay << 32) | (endEpochDay & 0xFFFFFFFFL);
+    }
+
+    private static long unpackStart(long key) {
+        return key >> 32;
+    }
+
+    private static long unpackEnd(long key) {
+        return (int) key;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.bookingsystem.index;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Fixed-size array of 64-bit words backing the occupancy bitmaps, either on the Java heap or in direct memory.
+ */
+interface BitmapStore {
+
+    /**
+     * Returns the word at the given index.
+     *
+     * @param index the word index
+     * @return the stored word
+     */
+    long get(int index);
+
+    /**
+     * Replaces the word at the given index.
+     *
+     * @param index the word index
+     * @param value the new word
+     */
+    void set(int index, long value);
+
+    /**
+     * Returns the number of words in the store.
+     *
+     * @return the capacity in words
+     */
+    int size();
+
+    /**
+     * Allocates a zeroed store.
+     *
+     * @param size    the capacity in words
+     * @param offHeap whether the words should live outside the Java heap
+     * @return a new {@link BitmapStore}
+     */
+    @Contract("_, _ -> new")
+    static @NotNull BitmapStore allocate(int size, boolean offHeap) {
+        return offHeap ? new OffHeap(size) : new Heap(size);
+    }
+
+    final class Heap implements BitmapStore {
+        private final long[] words;
+
+        private Heap(int size) {
+            this.words = new long[size];
+        }
+
+        @Override
+        public long get(int index) {
+            return words[index];
+        }
+
+        @Override
+        public void set(int index, long value) {
+            words[index] = value;
+        }
+
+        @Override
+        public int size() {
+            return words.length;
+        }
+    }
+
+    final class OffHeap implements BitmapStore {
+        private final LongBuffer words;
+
+        private OffHeap(int size) {
+            if ((long) size * Long.BYTES > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Off-heap bitmap store is limited to 2 GB, requested words: " + size);
+            }
+            this.words = ByteBuffer.allocateDirect(size * Long.BYTES)
+                                   .order(ByteOrder.nativeOrder())
+                                   .asLongBuffer();
+        }
+
+        @Override
+        public long get(int index) {
+            return words.get(index);
+        }
+
+        @Override
+        public void set(int index, long value) {
+            words.put(index, value);
+        }
+
+        @Override
+        public int size() {
+            return words.capacity();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.service.BookingJournalService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the in-memory booking read models once the application is ready.
+ * <p>
+ * The {@link BookingIntervalIndex} and the {@link OccupancyBitmapEngine} both start from the set of active bookings;
+ * replaying the booking journal once and handing the result to both halves the startup cost. Both are taken offline
+ * before the replay starts, so changes committed while it runs are held back and applied after the load.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIndexLoader {
+
+    private final BookingJournalService bookingJournalService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final OccupancyBitmapEngine occupancyBitmapEngine;
+
+    /**
+     * Loads the active bookings from the booking journal and rebuilds the index and the engine from them. If the
+     * journal cannot be read, both rebuilds are aborted, so no changes are held back for a load that never happens.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        bookingIntervalIndex.beginRebuild();
+        occupancyBitmapEngine.beginRebuild();
+        List<BookingPeriod> periods;
+        try {
+            periods = bookingJournalService.loadActivePeriods();
+        } catch (RuntimeException exception) {
+            bookingIntervalIndex.abortRebuild();
+            occupancyBitmapEngine.abortRebuild();
+            throw exception;
+        }
+        bookingIntervalIndex.rebuild(periods);
+        occupancyBitmapEngine.rebuild(periods);
+    }
+}
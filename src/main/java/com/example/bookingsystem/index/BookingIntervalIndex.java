@@ -0,0 +1,325 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.service.BookingJournalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory per-unit index of active (PENDING and CONFIRMED) bookings.
+ * <p>
+ * Answers "does the range overlap an active booking of this unit?" in O(log n) without a database round trip.
+ * The index is loaded by the {@link BookingIndexLoader} once the application is ready and kept current by
+ * {@link #reserve(BookingPeriod)} for new bookings and by {@link BookingStatusChangedEvent}s for cancellations. Until
+ * it is loaded every lookup reports no overlap, so callers must keep the database check as the final guard.
+ * <p>
+ * Reservations and cancellations keep being tracked while a rebuild is loading: reservations whose transaction is
+ * still open or has committed since {@link #beginRebuild()} are added on top of the load, and cancellations that
+ * arrived meanwhile are applied after that, so a booking committed during the load is neither lost nor resurrected.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    /**
+     * Booking statuses that occupy a unit.
+     */
+    public static final List<BookingStatus> ACTIVE_STATUSES = List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+
+    private final BookingJournalService bookingJournalService;
+
+    private final ConcurrentMap<Long, IntervalTree> treesByUnit = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, BookingPeriod> periodsByBooking = new ConcurrentHashMap<>();
+
+    // Updates share the read lock; starting and finishing a rebuild take the write lock
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private final ConcurrentMap<Long, BookingPeriod> uncommitted = new ConcurrentHashMap<>();
+    private final Queue<BookingPeriod> committedDuringRebuild = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> cancelledDuringRebuild = new ConcurrentLinkedQueue<>();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    /**
+     * Loads all active bookings by replaying the booking journal from its latest snapshot.
+     */
+    public void rebuild() {
+        beginRebuild();
+        List<BookingPeriod> periods;
+        try {
+            periods = bookingJournalService.loadActivePeriods();
+        } catch (RuntimeException exception) {
+            abortRebuild();
+            throw exception;
+        }
+        rebuild(periods);
+    }
+
+    /**
+     * Takes the index offline ahead of a rebuild. From now on committed reservations and cancellations are recorded
+     * for the next {@link #rebuild(List)} instead of being applied. Must be called before the active bookings are
+     * read, so that every booking either is part of the load or is recorded.
+     */
+    public void beginRebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives up a rebuild started with {@link #beginRebuild()} whose load failed. The recorded changes are dropped and
+     * the index stays offline until the next rebuild.
+     */
+    public void abortRebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            committedDuringRebuild.clear();
+            cancelledDuringRebuild.clear();
+            rebuilding = false;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the content of the index with the given active bookings, then merges the reservations and
+     * cancellations recorded since {@link #beginRebuild()}.
+     *
+     * @param periods the periods of all active bookings, as loaded from the booking journal
+     */
+    public void rebuild(@NotNull List<BookingPeriod> periods) {
+        log.info("Building booking interval index...");
+        int merged;
+        rebuildLock.writeLock().lock();
+        try {
+            ready = false;
+            treesByUnit.clear();
+            periodsByBooking.clear();
+
+            periods.forEach(this::add);
+            // A booking is cancelled only after it has committed, so every add precedes every cancellation
+            merged = uncommitted.size() + committedDuringRebuild.size() + cancelledDuringRebuild.size();
+            uncommitted.values().forEach(this::add);
+            committedDuringRebuild.forEach(this::add);
+            cancelledDuringRebuild.forEach(this::remove);
+            committedDuringRebuild.clear();
+            cancelledDuringRebuild.clear();
+
+            rebuilding = false;
+            ready = true;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        log.info("Booking interval index built with {} active booking(s) across {} unit(s), {} change(s) merged",
+                periodsByBooking.size(), treesByUnit.size(), merged);
+    }
+
+    /**
+     * Checks whether the unit has an active booking overlapping the given closed date range.
+     *
+     * @param unitId    the identifier of the unit
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return {@code true} if an overlapping active booking is known
+     */
+    public boolean overlaps(Long unitId, @NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        if (!ready) {
+            return false;
+        }
+        IntervalTree tree = treesByUnit.get(unitId);
+        if (tree == null) {
+            return false;
+        }
+        synchronized (tree) {
+            return tree.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+        }
+    }
+
+    /**
+     * Counts the active bookings of the unit overlapping the given closed date range.
+     *
+     * @param unitId    the identifier of the unit
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return the number of overlapping active bookings known to the index
+     */
+    public int countOverlapping(Long unitId, @NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        IntervalTree tree = treesByUnit.get(unitId);
+        if (tree == null) {
+            return 0;
+        }
+        synchronized (tree) {
+            return tree.countOverlapping(startDate.toEpochDay(), endDate.toEpochDay());
+        }
+    }
+
+    /**
+     * Checks whether a reservation of the unit overlapping the given closed date range belongs to a transaction that
+     * has not completed yet, and so may still be withdrawn.
+     *
+     * @param unitId            the identifier of the unit
+     * @param startDate         the first day of the range (inclusive)
+     * @param endDate           the last day of the range (inclusive)
+     * @param excludedBookingId a booking to leave out of the check
+     * @return {@code true} if such a reservation is known
+     */
+    public boolean hasUncommittedOverlapping(Long unitId, @NotNull LocalDate startDate, @NotNull LocalDate endDate,
+                                             Long excludedBookingId) {
+        return uncommitted.values().stream().anyMatch(period -> period.unitId().equals(unitId)
+                && !period.id().equals(excludedBookingId)
+                && !period.startDate().isAfter(endDate)
+                && !period.endDate().isBefore(startDate));
+    }
+
+    /**
+     * Tells whether the index has been loaded and reflects all active bookings.
+     *
+     * @return {@code true} once the initial load has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Atomically checks the period against the index and records it if it does not overlap any active booking.
+     * When called inside a transaction the reservation is withdrawn again if the transaction does not commit.
+     * While the index is not loaded the period cannot be checked; it is recorded for the next rebuild instead.
+     *
+     * @param period the period of the newly created booking
+     * @return {@code false} if the period overlaps an already known active booking
+     */
+    public boolean reserve(@NotNull BookingPeriod period) {
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        rebuildLock.readLock().lock();
+        try {
+            if (ready && !tryAdd(period)) {
+                return false;
+            }
+            if (transactional) {
+                uncommitted.put(period.id(), period);
+            } else if (rebuilding) {
+                committedDuringRebuild.add(period);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+
+        if (transactional) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completeReservation(period, status == STATUS_COMMITTED);
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Removes the booking from the index.
+     *
+     * @param bookingId the identifier of the booking
+     */
+    public void remove(Long bookingId) {
+        BookingPeriod period = periodsByBooking.get(bookingId);
+        if (period == null) {
+            return;
+        }
+        IntervalTree tree = treesByUnit.get(period.unitId());
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            if (periodsByBooking.remove(bookingId, period)) {
+                tree.remove(period.id(), period.startDate().toEpochDay());
+            }
+        }
+    }
+
+    /**
+     * Drops cancelled bookings from the index once the status change is committed.
+     *
+     * @param event the booking status change
+     */
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingStatusChanged(@NotNull BookingStatusChangedEvent event) {
+        if (event.status() != BookingStatus.CANCELLED) {
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            if (rebuilding) {
+                cancelledDuringRebuild.add(event.bookingId());
+            } else {
+                remove(event.bookingId());
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+        log.debug("Removed cancelled booking ID: {} from interval index", event.bookingId());
+    }
+
+    /**
+     * Settles a transactional reservation. A commit during a rebuild is recorded because the load may have missed
+     * it; a rollback withdraws the reservation from a loaded index.
+     */
+    private void completeReservation(@NotNull BookingPeriod period, boolean committed) {
+        rebuildLock.readLock().lock();
+        try {
+            uncommitted.remove(period.id());
+            if (committed) {
+                if (rebuilding) {
+                    committedDuringRebuild.add(period);
+                }
+            } else if (ready) {
+                log.debug("Withdrawing reservation of booking ID: {} after rollback", period.id());
+                remove(period.id());
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private boolean tryAdd(@NotNull BookingPeriod period) {
+        IntervalTree tree = treesByUnit.computeIfAbsent(period.unitId(), id -> new IntervalTree());
+        synchronized (tree) {
+            if (tree.overlaps(period.startDate().toEpochDay(), period.endDate().toEpochDay())) {
+                return false;
+            }
+            tree.insert(period.id(), period.startDate().toEpochDay(), period.endDate().toEpochDay());
+            periodsByBooking.put(period.id(), period);
+            return true;
+        }
+    }
+
+    private void add(@NotNull BookingPeriod period) {
+        IntervalTree tree = treesByUnit.computeIfAbsent(period.unitId(), id -> new IntervalTree());
+        synchronized (tree) {
+            if (periodsByBooking.putIfAbsent(period.id(), period) == null) {
+                tree.insert(period.id(), period.startDate().toEpochDay(), period.endDate().toEpochDay());
+            }
+        }
+    }
+}
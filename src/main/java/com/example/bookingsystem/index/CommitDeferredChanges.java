@@ -0,0 +1,103 @@
+package com.example.bookingsystem.index;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Defers the changes of a cache to the commit of the transaction that caused them, and tells loads that raced with a
+ * change apart from those that did not.
+ * <p>
+ * Every change, whether applied or discarded, advances a generation. A value loaded without the cache lock may be
+ * cached only if the generation observed before the load is still current and no change is waiting for its
+ * transaction. All methods except {@link #onCommit} must be called with the lock held.
+ */
+final class CommitDeferredChanges {
+
+    private final ReentrantLock lock;
+    private long generation;
+    private int pendingChanges;
+
+    /**
+     * @param lock the lock guarding the cache; changes run while holding it
+     */
+    CommitDeferredChanges(ReentrantLock lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * Returns the current generation, to be passed to {@link #isSettled(long)} after a load.
+     *
+     * @return the generation
+     */
+    long generation() {
+        return generation;
+    }
+
+    /**
+     * Tells whether a value loaded after observing the given generation may be cached.
+     *
+     * @param observedGeneration the generation observed before the load
+     * @return {@code true} if no change happened or is pending since
+     */
+    boolean isSettled(long observedGeneration) {
+        return generation == observedGeneration && pendingChanges == 0;
+    }
+
+    /**
+     * Records a change made directly under the lock, such as clearing the cache.
+     */
+    void advance() {
+        generation++;
+    }
+
+    /**
+     * Runs the change under the lock after the current transaction commits, or immediately without one.
+     *
+     * @param change the change to the cache
+     */
+    void onCommit(Runnable change) {
+        onCommit(change, () -> {
+        });
+    }
+
+    /**
+     * Runs the change under the lock after the current transaction commits, or immediately without one. The
+     * completion runs under the lock before it, once the transaction has completed with either outcome.
+     *
+     * @param change     the change to the cache
+     * @param completion bookkeeping to undo whether or not the change is applied
+     */
+    void onCommit(Runnable change, Runnable completion) {
+        lock.lock();
+        try {
+            generation++;
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                completion.run();
+                change.run();
+                return;
+            }
+            pendingChanges++;
+        } finally {
+            lock.unlock();
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.lock();
+                try {
+                    completion.run();
+                    if (status == STATUS_COMMITTED) {
+                        change.run();
+                    }
+                    pendingChanges--;
+                    generation++;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bookingsystem.index;
+
+/**
+ * Bitmap filter primitives of the {@link UnitCatalog}, evaluated over whole columns. Bit {@code i} of word
+ * {@code i / 64} stands for catalog position {@code i}.
+ */
+interface FilterKernel {
+
+    /**
+     * Intersects {@code target} with {@code bits}. Words missing from {@code bits} count as empty.
+     *
+     * @param target the bitmap to narrow
+     * @param bits   the bitmap to intersect with
+     */
+    void and(long[] target, long[] bits);
+
+    /**
+     * Clears from {@code target} every position among the first {@code count} whose value exceeds
+     * {@code threshold}.
+     *
+     * @param target    the bitmap to narrow
+     * @param values    the column values by position
+     * @param count     the number of positions in use
+     * @param threshold the largest accepted value
+     */
+    void lessOrEqual(long[] target, long[] values, int count, long threshold);
+}
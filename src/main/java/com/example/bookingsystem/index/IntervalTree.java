@@ -0,0 +1,204 @@
+package com.example.bookingsystem.index;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongConsumer;
+
+/**
+ * Augmented interval tree over closed {@code [start, end]} ranges of {@code long} values (typically epoch days).
+ * <p>
+ * Implemented as a treap ordered by {@code (start, id)}. Every node additionally keeps the maximum end of its
+ * subtree, so an overlap lookup only descends into subtrees that may contain a match. All operations run in
+ * expected O(log n). The tree is not thread-safe; callers are responsible for synchronization.
+ */
+public final class IntervalTree {
+
+    private Node root;
+    private int size;
+
+    /**
+     * Inserts a new interval. The pair {@code (id, start)} must not already be present in the tree.
+     *
+     * @param id    the identifier of the interval
+     * @param start the start of the interval (inclusive)
+     * @param end   the end of the interval (inclusive)
+     */
+    public void insert(long id, long start, long end) {
+        Node node = new Node(id, start, end, ThreadLocalRandom.current().nextInt());
+        Node[] parts = split(root, start, id);
+        root = merge(merge(parts[0], node), parts[1]);
+        size++;
+    }
+
+    /**
+     * Removes the interval with the given identifier and start.
+     *
+     * @param id    the identifier of the interval
+     * @param start the start of the interval
+     * @return {@code true} if the interval was present
+     */
+    public boolean remove(long id, long start) {
+        Node[] lower = split(root, start, id);
+        Node[] upper = split(lower[1], start, id + 1);
+        boolean removed = upper[0] != null;
+        root = merge(lower[0], upper[1]);
+        if (removed) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all intervals.
+     */
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Checks whether any stored interval overlaps the given closed range.
+     *
+     * @param start the start of the range (inclusive)
+     * @param end   the end of the range (inclusive)
+     * @return {@code true} if at least one interval overlaps the range
+     */
+    public boolean overlaps(long start, long end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start <= end && node.end >= start) {
+                return true;
+            }
+            node = node.left != null && node.left.maxEnd >= start ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the stored intervals overlapping the given closed range.
+     *
+     * @param start the start of the range (inclusive)
+     * @param end   the end of the range (inclusive)
+     * @return the number of overlapping intervals
+     */
+    public int countOverlapping(long start, long end) {
+        int[] count = new int[1];
+        forEachOverlapping(start, end, id -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Passes the identifier of every stored interval overlapping the given closed range to the action,
+     * in ascending order of start. The tree must not be modified by the action.
+     *
+     * @param start  the start of the range (inclusive)
+     * @param end    the end of the range (inclusive)
+     * @param action the consumer of interval identifiers
+     */
+    public void forEachOverlapping(long start, long end, LongConsumer action) {
+        forEachOverlapping(root, start, end, action);
+    }
+
+    /**
+     * Returns the number of stored intervals.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the tree holds no intervals.
+     *
+     * @return {@code true} if the tree is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static void forEachOverlapping(Node node, long start, long end, LongConsumer action) {
+        while (node != null && node.maxEnd >= start) {
+            forEachOverlapping(node.left, start, end, action);
+            if (node.start > end) {
+                return;
+            }
+            if (node.end >= start) {
+                action.accept(node.id);
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Splits the subtree into nodes ordered strictly before {@code (start, id)} and all remaining nodes.
+     */
+    private static Node[] split(Node node, long start, long id) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (node.compareTo(start, id) < 0) {
+            Node[] parts = split(node.right, start, id);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, start, id);
+        node.left = parts[1];
+        node.update();
+        return new Node[]{parts[0], node};
+    }
+
+    /**
+     * Merges two subtrees where every key of {@code left} is ordered before every key of {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static final class Node {
+        private final long id;
+        private final long start;
+        private final long end;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(long id, long start, long end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        private int compareTo(long otherStart, long otherId) {
+            int result = Long.compare(start, otherStart);
+            return result != 0 ? result : Long.compare(id, otherId);
+        }
+
+        private void update() {
+            long max = end;
+            if (left != null && left.maxEnd > max) {
+                max = left.maxEnd;
+            }
+            if (right != null && right.maxEnd > max) {
+                max = right.maxEnd;
+            }
+            maxEnd = max;
+        }
+    }
+}
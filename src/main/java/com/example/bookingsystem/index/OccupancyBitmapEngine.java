@@ -0,0 +1,431 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.UnitRepository;
+import com.example.bookingsystem.service.BookingJournalService;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Units &times; days occupancy engine.
+ * <p>
+ * Keeps one bitmap per day over a rolling horizon starting today, where bit {@code n} of a day is set when the unit
+ * with ID {@code n} has an active booking on that day. "Units free on every day of a range" becomes an OR of the
+ * day bitmaps followed by a popcount against the bitmap of known units. The engine is built by the
+ * {@link BookingIndexLoader} once the application is ready, updated incrementally from
+ * {@link BookingStatusChangedEvent}s and {@link UnitCreatedEvent}s and rolled forward daily. Events that arrive while
+ * a rebuild is loading are held back and applied once the load is in place, so nothing committed meanwhile is lost.
+ * Bitmaps can optionally be stored off-heap.
+ */
+@Slf4j
+@Component
+public class OccupancyBitmapEngine {
+
+    private final BookingRepository bookingRepository;
+    private final UnitRepository unitRepository;
+    private final BookingJournalService bookingJournalService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final Clock clock;
+    private final int horizonDays;
+    private final boolean offHeap;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+    private BitmapStore store = BitmapStore.allocate(0, false);
+    private long[] knownUnits = new long[0];
+    private int wordsPerDay;
+    private long windowStart;
+    private volatile boolean ready;
+    private boolean rebuilding;
+
+    public OccupancyBitmapEngine(BookingRepository bookingRepository, UnitRepository unitRepository,
+                                 BookingJournalService bookingJournalService,
+                                 BookingIntervalIndex bookingIntervalIndex, Clock clock,
+                                 @Value("${occupancy.horizon-days:730}") int horizonDays,
+                                 @Value("${occupancy.off-heap:false}") boolean offHeap) {
+        this.bookingRepository = bookingRepository;
+        this.unitRepository = unitRepository;
+        this.bookingJournalService = bookingJournalService;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.clock = clock;
+        this.horizonDays = horizonDays;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Filter on unit IDs equivalent to an availability check.
+     *
+     * @param include {@code true} if matching units are those in {@code ids}, {@code false} if they are all others
+     * @param ids     the unit IDs to include or exclude
+     */
+    public record UnitIdFilter(boolean include, List<Long> ids) {
+    }
+
+    /**
+     * Loads all units from the database and the active bookings from the booking journal, and rebuilds every bitmap.
+     */
+    public void rebuild() {
+        beginRebuild();
+        List<BookingPeriod> periods;
+        try {
+            periods = bookingJournalService.loadActivePeriods();
+        } catch (RuntimeException exception) {
+            abortRebuild();
+            throw exception;
+        }
+        rebuild(periods);
+    }
+
+    /**
+     * Takes the engine offline ahead of a rebuild. From now on booking and unit events are held back instead of being
+     * dropped, and the next {@link #rebuild(List)} applies them on top of what it loads. Must be called before the
+     * active bookings are read, so that every change either is part of the load or is held back.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads all units from the database and rebuilds every bitmap from the given active bookings, then applies the
+     * events held back since {@link #beginRebuild()}.
+     *
+     * @param periods the periods of all active bookings, as loaded from the booking journal
+     */
+    public void rebuild(@NotNull List<BookingPeriod> periods) {
+        log.info("Building occupancy bitmaps for {} day(s), off-heap: {}", horizonDays, offHeap);
+        List<Long> unitIds;
+        try {
+            unitIds = unitRepository.findAllIds();
+        } catch (RuntimeException exception) {
+            abortRebuild();
+            throw exception;
+        }
+        long maxUnitId = unitIds.stream().mapToLong(Long::longValue).max().orElse(0);
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            wordsPerDay = wordIndex(maxUnitId) + 1;
+            store = BitmapStore.allocate(Math.multiplyExact(horizonDays, wordsPerDay), offHeap);
+            knownUnits = new long[wordsPerDay];
+            unitIds.forEach(id -> knownUnits[wordIndex(id)] |= bitMask(id));
+            windowStart = LocalDate.now(clock).toEpochDay();
+            periods.forEach(period -> mark(period.unitId(), period.startDate(), period.endDate()));
+            // Marking and registering are idempotent and releasing consults the interval index, so replaying a
+            // change the load already contains is harmless
+            replayed = pendingUpdates.size();
+            pendingUpdates.forEach(Runnable::run);
+            pendingUpdates.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Occupancy bitmaps built for {} unit(s) and {} active booking(s), {} held-back event(s) applied",
+                unitIds.size(), periods.size(), replayed);
+    }
+
+    /**
+     * Checks whether the engine can answer queries for the given range.
+     *
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return {@code true} if the engine is built and the range lies within its horizon
+     */
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        if (!ready || startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return startDate.toEpochDay() >= windowStart && endDate.toEpochDay() < windowStart + horizonDays;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the units that are free on every day of the range. The range must be {@linkplain #covers covered}.
+     *
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return the number of available units
+     */
+    public long countAvailable(@NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            long[] occupied = occupiedWords(startDate, endDate);
+            long count = 0;
+            for (int word = 0; word < wordsPerDay; word++) {
+                count += Long.bitCount(knownUnits[word] & ~occupied[word]);
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the units that are free on every day of the range as a bitmap over unit IDs: bit {@code id % 64} of
+     * word {@code id / 64} is set for an available unit. The range must be {@linkplain #covers covered}.
+     *
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return a fresh bitmap of the available units
+     */
+    public long[] availableUnits(@NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            long[] available = occupiedWords(startDate, endDate);
+            for (int word = 0; word < wordsPerDay; word++) {
+                available[word] = knownUnits[word] & ~available[word];
+            }
+            return available;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the smallest unit ID filter equivalent to "available on every day of the range".
+     * The range must be {@linkplain #covers covered}.
+     *
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @param maxIds    the maximum number of IDs the caller is willing to handle
+     * @return the filter, or empty if both the free and the occupied set exceed {@code maxIds}
+     */
+    public Optional<UnitIdFilter> availabilityFilter(@NotNull LocalDate startDate, @NotNull LocalDate endDate, int maxIds) {
+        lock.readLock().lock();
+        try {
+            long[] occupied = occupiedWords(startDate, endDate);
+            long occupiedCount = 0;
+            long freeCount = 0;
+            for (int word = 0; word < wordsPerDay; word++) {
+                occupiedCount += Long.bitCount(knownUnits[word] & occupied[word]);
+                freeCount += Long.bitCount(knownUnits[word] & ~occupied[word]);
+            }
+            if (occupiedCount <= freeCount && occupiedCount <= maxIds) {
+                return Optional.of(new UnitIdFilter(false, collectIds(occupied, false)));
+            }
+            if (freeCount <= maxIds) {
+                return Optional.of(new UnitIdFilter(true, collectIds(occupied, true)));
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the horizon forward to start today, clearing the days that left it and loading bookings for the days
+     * that entered it.
+     */
+    @Scheduled(cron = "${occupancy.roll-cron:0 1 0 * * *}")
+    public void roll() {
+        if (!ready) {
+            return;
+        }
+        long today = LocalDate.now(clock).toEpochDay();
+        lock.writeLock().lock();
+        try {
+            if (today <= windowStart) {
+                return;
+            }
+            if (today - windowStart >= horizonDays) {
+                ready = false;
+                rebuilding = true;
+            } else {
+                LocalDate firstEntering = LocalDate.ofEpochDay(windowStart + horizonDays);
+                LocalDate lastEntering = LocalDate.ofEpochDay(today + horizonDays - 1);
+                List<BookingPeriod> entering = bookingRepository.findActivePeriodsOverlapping(firstEntering, lastEntering);
+
+                for (long day = windowStart; day < today; day++) {
+                    clearDay(day);
+                }
+                windowStart = today;
+                entering.forEach(period -> mark(period.unitId(), period.startDate(), period.endDate()));
+                log.info("Occupancy horizon rolled to start at {}, {} booking(s) entered", LocalDate.ofEpochDay(today), entering.size());
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Occupancy horizon is stale, rebuilding");
+        rebuild();
+    }
+
+    /**
+     * Applies booking status changes once they are committed.
+     *
+     * @param event the booking status change
+     */
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingStatusChanged(@NotNull BookingStatusChangedEvent event) {
+        if (event.occupies()) {
+            update(() -> mark(event.unitId(), event.startDate(), event.endDate()));
+        } else if (event.releases()) {
+            update(() -> release(event.unitId(), event.startDate(), event.endDate()));
+        }
+    }
+
+    /**
+     * Registers a newly added unit.
+     *
+     * @param event the unit creation event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUnitCreated(@NotNull UnitCreatedEvent event) {
+        long unitId = event.unit().getId();
+        update(() -> {
+            ensureCapacity(unitId);
+            knownUnits[wordIndex(unitId)] |= bitMask(unitId);
+        });
+    }
+
+    /**
+     * Applies an incremental update, or holds it back while a rebuild is loading. Before the first build there is
+     * nothing to update: the initial load will contain the change.
+     */
+    private void update(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                pendingUpdates.add(change);
+            } else if (ready) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives up a rebuild started with {@link #beginRebuild()} whose load failed. The held back events are dropped and
+     * the engine stays offline until the next rebuild.
+     */
+    public void abortRebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingUpdates.clear();
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] occupiedWords(@NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        long[] occupied = new long[wordsPerDay];
+        for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+            int base = slot(day) * wordsPerDay;
+            for (int word = 0; word < wordsPerDay; word++) {
+                occupied[word] |= store.get(base + word);
+            }
+        }
+        return occupied;
+    }
+
+    private @NotNull List<Long> collectIds(long[] occupied, boolean free) {
+        List<Long> ids = new ArrayList<>();
+        for (int word = 0; word < wordsPerDay; word++) {
+            long bits = knownUnits[word] & (free ? ~occupied[word] : occupied[word]);
+            while (bits != 0) {
+                ids.add((long) word * Long.SIZE + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return ids;
+    }
+
+    private void mark(Long unitId, @NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        ensureCapacity(unitId);
+        int word = wordIndex(unitId);
+        long mask = bitMask(unitId);
+        long from = Math.max(startDate.toEpochDay(), windowStart);
+        long to = Math.min(endDate.toEpochDay(), windowStart + horizonDays - 1);
+        for (long day = from; day <= to; day++) {
+            int index = slot(day) * wordsPerDay + word;
+            store.set(index, store.get(index) | mask);
+        }
+    }
+
+    private void release(Long unitId, @NotNull LocalDate startDate, @NotNull LocalDate endDate) {
+        if (wordIndex(unitId) >= wordsPerDay) {
+            return;
+        }
+        int word = wordIndex(unitId);
+        long mask = bitMask(unitId);
+        long from = Math.max(startDate.toEpochDay(), windowStart);
+        long to = Math.min(endDate.toEpochDay(), windowStart + horizonDays - 1);
+        for (long day = from; day <= to; day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            if (bookingIntervalIndex.overlaps(unitId, date, date)) {
+                continue;
+            }
+            int index = slot(day) * wordsPerDay + word;
+            store.set(index, store.get(index) & ~mask);
+        }
+    }
+
+    private void clearDay(long day) {
+        int base = slot(day) * wordsPerDay;
+        for (int word = 0; word < wordsPerDay; word++) {
+            store.set(base + word, 0L);
+        }
+    }
+
+    private void ensureCapacity(long unitId) {
+        int required = wordIndex(unitId) + 1;
+        if (required <= wordsPerDay) {
+            return;
+        }
+        int grown = Math.max(required, wordsPerDay * 2);
+        BitmapStore resized = BitmapStore.allocate(Math.multiplyExact(horizonDays, grown), offHeap);
+        for (int slot = 0; slot < horizonDays; slot++) {
+            for (int word = 0; word < wordsPerDay; word++) {
+                resized.set(slot * grown + word, store.get(slot * wordsPerDay + word));
+            }
+        }
+        store = resized;
+        knownUnits = Arrays.copyOf(knownUnits, grown);
+        wordsPerDay = grown;
+        log.debug("Occupancy bitmaps grown to {} word(s) per day", grown);
+    }
+
+    private int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) horizonDays);
+    }
+
+    private static int wordIndex(long unitId) {
+        return Math.toIntExact(unitId >>> 6);
+    }
+
+    private static long bitMask(long unitId) {
+        return 1L << unitId;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bookingsystem.index;
+
+/**
+ * Plain loop implementation of the filter kernel, used when the Vector API is not available.
+ */
+final class ScalarFilterKernel implements FilterKernel {
+
+    @Override
+    public void and(long[] target, long[] bits) {
+        int shared = Math.min(target.length, bits.length);
+        for (int word = 0; word < shared; word++) {
+            target[word] &= bits[word];
+        }
+        for (int word = shared; word < target.length; word++) {
+            target[word] = 0;
+        }
+    }
+
+    @Override
+    public void lessOrEqual(long[] target, long[] values, int count, long threshold) {
+        for (int base = 0; base < count; base += Long.SIZE) {
+            int end = Math.min(base + Long.SIZE, count);
+            long accepted = 0;
+            for (int position = base; position < end; position++) {
+                accepted |= (values[position] <= threshold ? 1L : 0L) << (position - base);
+            }
+            target[base >>> 6] &= accepted;
+        }
+    }
+}
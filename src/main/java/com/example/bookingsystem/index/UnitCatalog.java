@@ -0,0 +1,387 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.UnitAttributes;
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.model.enums.AccommodationType;
+import com.example.bookingsystem.repository.UnitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar replica of the searchable unit attributes, answering the attribute filters of a unit search
+ * without the database.
+ * <p>
+ * Every unit gets a position, in ID order at load time and in commit order afterwards. The number of rooms, floor and
+ * type ordinal are kept in primitive columns and the total cost as a column of cents; each distinct number of rooms,
+ * floor and type also has a bitmap of the positions holding it. A search intersects the bitmaps of the requested
+ * values and compares the cost column against the limit, a SIMD register of positions at a time when the
+ * {@code jdk.incubator.vector} module is present, then sorts the surviving IDs from the columns so only the rows of
+ * the requested page have to be fetched.
+ * <p>
+ * Units are never updated or deleted, so the catalog is loaded once and extended as units are added. Units created
+ * while the load runs are queued and appended after it unless the load already returned them.
+ */
+@Slf4j
+@Component
+public class UnitCatalog {
+
+    /**
+     * Low bits of a packed sort key holding the position. Costs fit in the remaining bits since the column is a
+     * {@code DECIMAL(10,2)}, i.e. below 2^34 cents.
+     */
+    private static final int POSITION_BITS = 29;
+    private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+    private static final long[] EMPTY = new long[0];
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.example.bookingsystem.index.VectorFilterKernel";
+
+    private final UnitRepository unitRepository;
+    private final FilterKernel kernel;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, long[]> roomBitmaps = new HashMap<>();
+    private final Map<Integer, long[]> floorBitmaps = new HashMap<>();
+    private final long[][] typeBitmaps = new long[AccommodationType.values().length][];
+    private final List<UnitAttributes> pendingUnits = new ArrayList<>();
+    private long[] ids = EMPTY;
+    private int[] rooms = new int[0];
+    private int[] floors = new int[0];
+    private int[] types = new int[0];
+    private long[] costCents = EMPTY;
+    private int size;
+    private volatile boolean ready;
+    private boolean loading;
+
+    public UnitCatalog(UnitRepository unitRepository,
+                       @Value("${unit.catalog.vectorized:true}") boolean vectorized) {
+        this.unitRepository = unitRepository;
+        this.kernel = vectorized ? vectorKernel().orElseGet(ScalarFilterKernel::new) : new ScalarFilterKernel();
+    }
+
+    /**
+     * Loads the attributes of all units and rebuilds every column and bitmap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            loading = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<UnitAttributes> units;
+        try {
+            units = unitRepository.findAllAttributes();
+        } catch (RuntimeException exception) {
+            lock.writeLock().lock();
+            try {
+                pendingUnits.clear();
+                loading = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw exception;
+        }
+
+        lock.writeLock().lock();
+        try {
+            roomBitmaps.clear();
+            floorBitmaps.clear();
+            Arrays.fill(typeBitmaps, null);
+            ids = new long[units.size()];
+            rooms = new int[units.size()];
+            floors = new int[units.size()];
+            types = new int[units.size()];
+            costCents = new long[units.size()];
+            size = 0;
+            units.forEach(this::append);
+            int loaded = size;
+            int expected = units.size();
+            // The load is in ID order, so a unit it already returned is found by binary search
+            for (UnitAttributes unit : pendingUnits) {
+                if (Arrays.binarySearch(ids, 0, loaded, unit.id()) < 0) {
+                    append(unit);
+                    expected++;
+                }
+            }
+            pendingUnits.clear();
+            loading = false;
+            ready = size == expected;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Unit catalog built for {} unit(s) with the {} filter kernel", size, kernel.getClass().getSimpleName());
+    }
+
+    /**
+     * Registers a newly added unit once its transaction has committed.
+     *
+     * @param event the unit creation event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUnitCreated(@NotNull UnitCreatedEvent event) {
+        UnitDto unit = event.unit();
+        UnitAttributes attributes = new UnitAttributes(unit.getId(), unit.getNumberOfRooms(), unit.getType(),
+                unit.getFloor(), unit.getTotalCost());
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pendingUnits.add(attributes);
+            } else if (ready) {
+                append(attributes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the units matching the attribute filters of a search, restricted to the given set of unit IDs.
+     * The date range of the criteria is not evaluated here; pass the available units as {@code allowedUnits}.
+     *
+     * @param criteria     the search filters; number of rooms, type, floor and maximum cost are applied
+     * @param allowedUnits bitmap of the unit IDs that may match, bit {@code id} set for an allowed unit,
+     *                     or {@code null} to allow all units
+     * @param sortBy       the attribute to sort by: {@code id}, {@code numberOfRooms}, {@code floor} or
+     *                     {@code totalCost}
+     * @param ascending    whether to sort in ascending order
+     * @return the matching unit IDs in the requested order, or empty if the catalog is not built or cannot sort by
+     * the attribute
+     */
+    public Optional<long[]> matchingIds(@NotNull UnitSearchCriteria criteria, long[] allowedUnits,
+                                        @NotNull String sortBy, boolean ascending) {
+        if (!ready || !isSortKey(sortBy)) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long[] sorted = sortedIds(matches(criteria, allowedUnits), sortBy);
+            if (!ascending) {
+                reverse(sorted);
+            }
+            return Optional.of(sorted);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the units matching a search per accommodation type, number of rooms and floor in one pass over the
+     * bitmaps: the matches are intersected with the bitmap of every value and the bits counted.
+     *
+     * @param criteria     the search filters, applied as in {@link #matchingIds}
+     * @param allowedUnits bitmap of the unit IDs that may match, or {@code null} to allow all units
+     * @return the facet counts, or empty if the catalog is not built
+     */
+    public Optional<UnitFacets> facets(@NotNull UnitSearchCriteria criteria, long[] allowedUnits) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long[] matches = matches(criteria, allowedUnits);
+            Map<AccommodationType, Long> typeCounts = new EnumMap<>(AccommodationType.class);
+            for (AccommodationType type : AccommodationType.values()) {
+                putCount(typeCounts, type, matches, typeBitmaps[type.ordinal()]);
+            }
+            SortedMap<Integer, Long> roomCounts = new TreeMap<>();
+            roomBitmaps.forEach((value, bitmap) -> putCount(roomCounts, value, matches, bitmap));
+            SortedMap<Integer, Long> floorCounts = new TreeMap<>();
+            floorBitmaps.forEach((value, bitmap) -> putCount(floorCounts, value, matches, bitmap));
+            return Optional.of(new UnitFacets(countAnd(matches, matches), typeCounts, roomCounts, floorCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] matches(@NotNull UnitSearchCriteria criteria, long[] allowedUnits) {
+        long[] matches = filter(criteria);
+        if (allowedUnits != null) {
+            for (int word = 0; word < matches.length; word++) {
+                long bits = matches[word];
+                while (bits != 0) {
+                    long bit = bits & -bits;
+                    bits ^= bit;
+                    if (!contains(allowedUnits, ids[word * Long.SIZE + Long.numberOfTrailingZeros(bit)])) {
+                        matches[word] ^= bit;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private long[] filter(@NotNull UnitSearchCriteria criteria) {
+        long[] matches = new long[(size + Long.SIZE - 1) >>> 6];
+        Arrays.fill(matches, -1L);
+        if ((size & (Long.SIZE - 1)) != 0) {
+            matches[matches.length - 1] = (1L << size) - 1;
+        }
+        if (criteria.getNumberOfRooms() != null) {
+            kernel.and(matches, roomBitmaps.getOrDefault(criteria.getNumberOfRooms(), EMPTY));
+        }
+        if (criteria.getType() != null && !criteria.getType().isEmpty()) {
+            long[] bitmap = typeBitmaps[AccommodationType.valueOf(criteria.getType().toUpperCase()).ordinal()];
+            kernel.and(matches, bitmap == null ? EMPTY : bitmap);
+        }
+        if (criteria.getFloor() != null) {
+            kernel.and(matches, floorBitmaps.getOrDefault(criteria.getFloor(), EMPTY));
+        }
+        if (criteria.getMaxCost() != null) {
+            kernel.lessOrEqual(matches, costCents, size, maxCents(criteria.getMaxCost()));
+        }
+        return matches;
+    }
+
+    private long[] sortedIds(long[] matches, @NotNull String sortBy) {
+        boolean byId = sortBy.equals("id");
+        int count = (int) countAnd(matches, matches);
+        long[] keys = new long[count];
+        int next = 0;
+        for (int word = 0; word < matches.length; word++) {
+            long bits = matches[word];
+            while (bits != 0) {
+                int position = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                keys[next++] = byId ? ids[position] : sortKey(sortBy, position) << POSITION_BITS | position;
+            }
+        }
+        Arrays.sort(keys);
+        if (!byId) {
+            for (int i = 0; i < count; i++) {
+                keys[i] = ids[(int) (keys[i] & POSITION_MASK)];
+            }
+        }
+        return keys;
+    }
+
+    private long sortKey(@NotNull String sortBy, int position) {
+        return switch (sortBy) {
+            case "numberOfRooms" -> rooms[position];
+            case "floor" -> floors[position];
+            default -> costCents[position];
+        };
+    }
+
+    private void append(@NotNull UnitAttributes unit) {
+        if (size > POSITION_MASK) {
+            log.warn("Unit catalog is full at {} unit(s), searches fall back to the database", size);
+            ready = false;
+            return;
+        }
+        if (size == ids.length) {
+            int grown = Math.max(16, size * 2);
+            ids = Arrays.copyOf(ids, grown);
+            rooms = Arrays.copyOf(rooms, grown);
+            floors = Arrays.copyOf(floors, grown);
+            types = Arrays.copyOf(types, grown);
+            costCents = Arrays.copyOf(costCents, grown);
+        }
+        int position = size;
+        ids[position] = unit.id();
+        rooms[position] = unit.numberOfRooms();
+        floors[position] = unit.floor();
+        types[position] = unit.type().ordinal();
+        // Rounded like the DECIMAL(10,2) column rounds the cost of a freshly saved unit
+        costCents[position] = unit.totalCost().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        roomBitmaps.put(unit.numberOfRooms(), withBit(roomBitmaps.get(unit.numberOfRooms()), position));
+        floorBitmaps.put(unit.floor(), withBit(floorBitmaps.get(unit.floor()), position));
+        typeBitmaps[types[position]] = withBit(typeBitmaps[types[position]], position);
+        size++;
+    }
+
+    /**
+     * Loads the Vector API kernel, which is compiled in its own source set so that only it needs the incubator module.
+     */
+    private static Optional<FilterKernel> vectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.warn("Unit catalog falls back to plain loops: start the JVM with --add-modules {} to vectorize it",
+                    VECTOR_MODULE);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((FilterKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError exception) {
+            log.warn("Unit catalog falls back to plain loops: cannot load {}", VECTOR_KERNEL, exception);
+            return Optional.empty();
+        }
+    }
+
+    private static <K> void putCount(Map<K, Long> counts, K value, long[] matches, long[] bitmap) {
+        long count = bitmap == null ? 0 : countAnd(matches, bitmap);
+        if (count > 0) {
+            counts.put(value, count);
+        }
+    }
+
+    private static long countAnd(long[] first, long[] second) {
+        long count = 0;
+        for (int word = 0, shared = Math.min(first.length, second.length); word < shared; word++) {
+            count += Long.bitCount(first[word] & second[word]);
+        }
+        return count;
+    }
+
+    private static long[] withBit(long[] bitmap, int position) {
+        int word = position >>> 6;
+        long[] grown = bitmap == null ? new long[word + 1]
+                : word < bitmap.length ? bitmap
+                : Arrays.copyOf(bitmap, Math.max(word + 1, bitmap.length * 2));
+        grown[word] |= 1L << position;
+        return grown;
+    }
+
+    /**
+     * Converts a cost limit to the largest accepted number of cents.
+     */
+    private static long maxCents(@NotNull BigDecimal maxCost) {
+        BigDecimal cents = maxCost.movePointRight(2).setScale(0, RoundingMode.FLOOR);
+        if (cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        return cents.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0 ? Long.MIN_VALUE : cents.longValue();
+    }
+
+    private static boolean contains(long[] bitmap, long id) {
+        long word = id >>> 6;
+        return word < bitmap.length && (bitmap[(int) word] & 1L << id) != 0;
+    }
+
+    private static boolean isSortKey(@NotNull String sortBy) {
+        return switch (sortBy) {
+            case "id", "numberOfRooms", "floor", "totalCost" -> true;
+            default -> false;
+        };
+    }
+
+    private static void reverse(long[] values) {
+        for (int i = 0, j = values.length - 1; i < j; i++, j--) {
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
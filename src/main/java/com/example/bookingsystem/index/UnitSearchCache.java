@@ -0,0 +1,236 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of unit search result pages, keyed by the normalized search criteria, page, size and sort.
+ * <p>
+ * Entries are invalidated precisely rather than expired: a booking or cancellation drops only the pages searched
+ * for an overlapping date range, and a new unit drops only the pages whose filters it satisfies. Pages searched
+ * without a date range do not depend on bookings and survive booking changes.
+ * <p>
+ * Changes are applied once their transaction commits. While a change is in flight, and whenever a freshly loaded
+ * page may have raced with a change, the loaded page is returned without being cached.
+ */
+@Slf4j
+@Component
+public class UnitSearchCache {
+
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Key, Page<UnitDto>> pages;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final CommitDeferredChanges changes = new CommitDeferredChanges(lock);
+
+    public UnitSearchCache(@Value("${unit.search.cache-size:1000}") int capacity) {
+        this.capacity = capacity;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Page<UnitDto>> eldest) {
+                if (size() > UnitSearchCache.this.capacity) {
+                    capacityEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Normalized unit search: blank filters are dropped, the type is upper-cased, the cost is compared by value,
+     * and a date range is kept only when both ends are given, mirroring how the search ignores a half-open range.
+     *
+     * @param numberOfRooms the number of rooms, or {@code null} for any
+     * @param type          the upper-cased accommodation type, or {@code null} for any
+     * @param floor         the floor, or {@code null} for any
+     * @param maxCost       the maximum total cost without trailing zeros, or {@code null} for any
+     * @param startDate     the first day the unit must be free, or {@code null} for no availability filter
+     * @param endDate       the last day the unit must be free, or {@code null} for no availability filter
+     * @param page          the page number (zero-based)
+     * @param size          the page size
+     * @param sortBy        the property to sort by
+     * @param ascending     the sort direction
+     */
+    public record Key(Integer numberOfRooms, String type, Integer floor, BigDecimal maxCost,
+                      LocalDate startDate, LocalDate endDate,
+                      int page, int size, String sortBy, boolean ascending) {
+
+        /**
+         * Builds the cache key of a unit search.
+         *
+         * @param criteria the search criteria
+         * @param page     the page number (zero-based)
+         * @param size     the page size
+         * @param sortBy   the property to sort by
+         * @param sortDir  the direction of sort, {@code "asc"} for ascending and anything else for descending
+         * @return the normalized key
+         */
+        public static @NotNull Key of(@NotNull UnitSearchCriteria criteria, int page, int size,
+                                      String sortBy, @NotNull String sortDir) {
+            String type = criteria.getType() == null || criteria.getType().isEmpty()
+                    ? null : criteria.getType().toUpperCase(Locale.ROOT);
+            BigDecimal maxCost = criteria.getMaxCost() == null ? null : criteria.getMaxCost().stripTrailingZeros();
+            boolean dated = criteria.getStartDate() != null && criteria.getEndDate() != null;
+            return new Key(criteria.getNumberOfRooms(), type, criteria.getFloor(), maxCost,
+                    dated ? criteria.getStartDate() : null, dated ? criteria.getEndDate() : null,
+                    page, size, sortBy, sortDir.equalsIgnoreCase("asc"));
+        }
+
+        private boolean overlaps(@NotNull LocalDate start, @NotNull LocalDate end) {
+            return startDate != null && !startDate.isAfter(end) && !endDate.isBefore(start);
+        }
+
+        private boolean couldMatch(@NotNull UnitDto unit) {
+            return (numberOfRooms == null || numberOfRooms == unit.getNumberOfRooms())
+                    && (type == null || unit.getType() == null || type.equals(unit.getType().name()))
+                    && (floor == null || floor == unit.getFloor())
+                    && (maxCost == null || unit.getTotalCost() == null || unit.getTotalCost().compareTo(maxCost) <= 0);
+        }
+    }
+
+    /**
+     * Returns the cached page for the search, loading and caching it on a miss.
+     *
+     * @param key    the normalized search
+     * @param loader runs the search on a cache miss; invoked without holding the cache lock
+     * @return the page of matching units
+     */
+    public Page<UnitDto> computeIfAbsent(@NotNull Key key, Supplier<Page<UnitDto>> loader) {
+        long observedGeneration;
+        lock.lock();
+        try {
+            Page<UnitDto> cached = pages.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            observedGeneration = changes.generation();
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+
+        Page<UnitDto> page = loader.get();
+
+        lock.lock();
+        try {
+            if (changes.isSettled(observedGeneration)) {
+                pages.putIfAbsent(key, page);
+            } else {
+                log.debug("Not caching search page {} loaded concurrently with a change", key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Returns the number of cached pages.
+     *
+     * @return the size of the cache
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return pages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of searches answered from the cache.
+     *
+     * @return the cumulative hit count
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of searches that had to query the database.
+     *
+     * @return the cumulative miss count
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of least recently used pages dropped to stay within capacity.
+     *
+     * @return the cumulative capacity eviction count
+     */
+    public long capacityEvictionCount() {
+        return capacityEvictions.sum();
+    }
+
+    /**
+     * Returns the number of pages dropped because a booking or unit change could alter them.
+     *
+     * @return the cumulative invalidation count
+     */
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Drops the pages searched for a date range overlapping a booking once its creation or cancellation is
+     * committed.
+     *
+     * @param event the booking status change
+     */
+    @EventListener
+    public void onBookingStatusChanged(@NotNull BookingStatusChangedEvent event) {
+        if (event.occupies() || event.releases()) {
+            changes.onCommit(() -> invalidate(key -> key.overlaps(event.startDate(), event.endDate())));
+        }
+    }
+
+    /**
+     * Drops the pages whose filters the new unit satisfies once it is committed.
+     *
+     * @param event the unit creation
+     */
+    @EventListener
+    public void onUnitCreated(@NotNull UnitCreatedEvent event) {
+        changes.onCommit(() -> invalidate(key -> key.couldMatch(event.unit())));
+    }
+
+    private void invalidate(Predicate<Key> affected) {
+        int dropped = 0;
+        for (Iterator<Key> keys = pages.keySet().iterator(); keys.hasNext(); ) {
+            if (affected.test(keys.next())) {
+                keys.remove();
+                dropped++;
+            }
+        }
+        invalidations.add(dropped);
+        log.debug("Invalidated {} cached search page(s)", dropped);
+    }
+}
@@ -35,5 +35,6 @@ public interface BookingMapper {
      * @return mapped Booking entity
      */
     @InheritInverseConfiguration
+    @Mapping(target = "period", ignore = true)
     Booking toEntity(BookingDto dto, @Context User user, @Context Unit unit);
 }
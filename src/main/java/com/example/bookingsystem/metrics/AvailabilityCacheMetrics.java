@@ -0,0 +1,49 @@
+package com.example.bookingsystem.metrics;
+
+import com.example.bookingsystem.index.AvailabilityCountCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the size, hit ratio and evictions of the {@link AvailabilityCountCache}.
+ * <p>
+ * The meters read the cache's own statistics when scraped, so the lookup path carries no extra cost.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvailabilityCacheMetrics implements MeterBinder {
+
+    private final AvailabilityCountCache cache;
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        Gauge.builder("availability.cache.size", cache, AvailabilityCountCache::size)
+             .description("Number of cached date ranges")
+             .register(registry);
+        FunctionCounter.builder("availability.cache.requests", cache, AvailabilityCountCache::hitCount)
+                       .description("Availability count lookups")
+                       .tag("result", "hit")
+                       .register(registry);
+        FunctionCounter.builder("availability.cache.requests", cache, AvailabilityCountCache::missCount)
+                       .description("Availability count lookups")
+                       .tag("result", "miss")
+                       .register(registry);
+        FunctionCounter.builder("availability.cache.evictions", cache, AvailabilityCountCache::evictionCount)
+                       .description("Cached ranges dropped instead of being adjusted in place")
+                       .register(registry);
+        Gauge.builder("availability.cache.hit.ratio", cache, AvailabilityCacheMetrics::hitRatio)
+             .description("Share of lookups answered from the cache since startup")
+             .register(registry);
+    }
+
+    private static double hitRatio(@NotNull AvailabilityCountCache cache) {
+        long hits = cache.hitCount();
+        long total = hits + cache.missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.bookingsystem.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Business meters of the booking flow that cannot be expressed with {@code @Timed}.
+ * <p>
+ * Publishes the number of rejected bookings by the check that detected the conflict, the number of claimed payment
+ * processing jobs still running, the latency of those jobs and the latency and outcome of payment gateway calls.
+ */
+@Component
+public class BookingMetrics {
+
+    /**
+     * Conflict detected by the in-memory interval index.
+     */
+    public static final String CONFLICT_INDEX = "index";
+
+    /**
+     * Conflict detected by the database overlap query or the exclusion constraint.
+     */
+    public static final String CONFLICT_DATABASE = "database";
+
+    /**
+     * Conflict detected after insertion, when a concurrent booking won the index reservation.
+     */
+    public static final String CONFLICT_RESERVATION = "reservation";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger outstandingPaymentTasks = new AtomicInteger();
+    private final Timer paymentProcessingTimer;
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("payment.tasks.outstanding", outstandingPaymentTasks, AtomicInteger::get)
+             .description("Claimed payment processing jobs not yet finished")
+             .register(registry);
+        this.paymentProcessingTimer = Timer.builder("payment.process")
+                                           .description("Asynchronous payment processing")
+                                           .publishPercentileHistogram()
+                                           .register(registry);
+    }
+
+    /**
+     * Counts a booking request rejected because the unit is already booked.
+     *
+     * @param source the check that detected the conflict, one of the {@code CONFLICT_*} constants
+     */
+    public void bookingConflict(String source) {
+        Counter.builder("booking.conflicts")
+               .description("Booking requests rejected because the unit is not available")
+               .tag("source", source)
+               .register(registry)
+               .increment();
+    }
+
+    /**
+     * Records that a payment processing job has been claimed and handed to a worker.
+     */
+    public void paymentTaskScheduled() {
+        outstandingPaymentTasks.incrementAndGet();
+    }
+
+    /**
+     * Releases the slot in the outstanding gauge of a payment processing job that ends without being processed.
+     */
+    public void paymentTaskAbandoned() {
+        outstandingPaymentTasks.decrementAndGet();
+    }
+
+    /**
+     * Records a call to the payment gateway.
+     *
+     * @param operation   the gateway operation, e.g. {@code authorize}
+     * @param outcome     the outcome of the call, e.g. {@code approved} or {@code timeout}
+     * @param nanoseconds the time until the gateway answered or the call was given up
+     */
+    public void gatewayCall(String operation, String outcome, long nanoseconds) {
+        Timer.builder("payment.gateway.requests")
+             .description("Payment gateway calls")
+             .tag("operation", operation)
+             .tag("outcome", outcome)
+             .publishPercentileHistogram()
+             .register(registry)
+             .record(nanoseconds, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs the payment processing task, recording its latency and releasing its slot in the outstanding gauge.
+     *
+     * @param task the processing task
+     */
+    public void recordPaymentTask(Runnable task) {
+        try {
+            paymentProcessingTimer.record(task);
+        } finally {
+            outstandingPaymentTasks.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.bookingsystem.metrics;
+
+import com.example.bookingsystem.index.UnitSearchCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the size, hit ratio and evictions of the {@link UnitSearchCache}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UnitSearchCacheMetrics implements MeterBinder {
+
+    private final UnitSearchCache cache;
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        Gauge.builder("unit.search.cache.size", cache, UnitSearchCache::size)
+             .description("Number of cached search result pages")
+             .register(registry);
+        FunctionCounter.builder("unit.search.cache.requests", cache, UnitSearchCache::hitCount)
+                       .description("Unit searches")
+                       .tag("result", "hit")
+                       .register(registry);
+        FunctionCounter.builder("unit.search.cache.requests", cache, UnitSearchCache::missCount)
+                       .description("Unit searches")
+                       .tag("result", "miss")
+                       .register(registry);
+        FunctionCounter.builder("unit.search.cache.evictions", cache, UnitSearchCache::capacityEvictionCount)
+                       .description("Cached search pages dropped")
+                       .tag("cause", "capacity")
+                       .register(registry);
+        FunctionCounter.builder("unit.search.cache.evictions", cache, UnitSearchCache::invalidationCount)
+                       .description("Cached search pages dropped")
+                       .tag("cause", "invalidation")
+                       .register(registry);
+        Gauge.builder("unit.search.cache.hit.ratio", cache, UnitSearchCacheMetrics::hitRatio)
+             .description("Share of searches answered from the cache since startup")
+             .register(registry);
+    }
+
+    private static double hitRatio(@NotNull UnitSearchCache cache) {
+        long hits = cache.hitCount();
+        long total = hits + cache.missCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
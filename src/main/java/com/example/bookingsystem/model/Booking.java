@@ -68,4 +68,11 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookingStatus status;
+
+    /**
+     * The booked days as a PostgreSQL {@code daterange}, generated by the database from the start and end dates.
+     * Read-only; mapped so that queries can apply range operators that are served by the GiST indexes.
+     */
+    @Column(insertable = false, updatable = false)
+    private String period;
 }
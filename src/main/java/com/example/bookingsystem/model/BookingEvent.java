@@ -0,0 +1,95 @@
+package com.example.bookingsystem.model;
+
+import com.example.bookingsystem.model.enums.BookingEventType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing one entry of the append-only booking journal.
+ * <p>
+ * Each entry carries the booking's unit, user and dates, so read models can be rebuilt from the journal alone.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "booking_events")
+public class BookingEvent {
+    /**
+     * Position of the event in the journal.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identifier of the transaction that appended the event, assigned by the database.
+     */
+    @Column(name = "tx_id", insertable = false, updatable = false)
+    private Long txId;
+
+    /**
+     * Identifier of the booking the event belongs to.
+     */
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    /**
+     * Identifier of the booked unit.
+     */
+    @Column(name = "unit_id", nullable = false)
+    private Long unitId;
+
+    /**
+     * Identifier of the user who made the booking.
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * First booked day (inclusive).
+     */
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    /**
+     * Last booked day (inclusive).
+     */
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    /**
+     * Kind of lifecycle step.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingEventType type;
+
+    /**
+     * Booking status after the step.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+
+    /**
+     * Date and time at which the step happened.
+     */
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
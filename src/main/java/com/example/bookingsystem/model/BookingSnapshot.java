@@ -0,0 +1,63 @@
+package com.example.bookingsystem.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the active bookings as of a position in the booking journal, so the journal only needs to be
+ * replayed from that position on.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "booking_snapshots")
+public class BookingSnapshot {
+    /**
+     * Unique identifier of the snapshot.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Identifier of the transaction that appended the last journal event reflected in the snapshot.
+     */
+    @Column(name = "last_tx_id", nullable = false)
+    private Long lastTxId;
+
+    /**
+     * Identifier of the last journal event reflected in the snapshot.
+     */
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    /**
+     * Number of active bookings in the snapshot.
+     */
+    @Column(name = "booking_count", nullable = false)
+    private Integer bookingCount;
+
+    /**
+     * The encoded active bookings.
+     */
+    @Column(nullable = false)
+    private byte[] payload;
+
+    /**
+     * Date and time at which the snapshot was taken.
+     */
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
@@ -0,0 +1,48 @@
+package com.example.bookingsystem.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording the outcome of a booking request submitted with an {@code Idempotency-Key} header.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+    /**
+     * The key supplied by the client.
+     */
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+
+    /**
+     * Fingerprint of the request the key was first used with.
+     */
+    @Column(name = "request_fingerprint", nullable = false)
+    private String requestFingerprint;
+
+    /**
+     * Identifier of the booking created by the request.
+     */
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    /**
+     * Date and time at which the key was first used.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -17,6 +17,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 /**
  * Entity representing a payment linked to a booking.
@@ -54,5 +55,11 @@ public class Payment {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private PaymentStatus status;
+
+    /**
+     * Moment the payment expires unless it is processed first; only meaningful while it is INITIATED.
+     */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
 }
 
@@ -0,0 +1,73 @@
+package com.example.bookingsystem.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a pending delayed processing job of a Payment.
+ */
+@Entity
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "payment_jobs")
+public class PaymentJob {
+    /**
+     * Unique identifier of the job.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Payment to be processed by this job.
+     */
+    @OneToOne
+    @JoinColumn(name = "payment_id", nullable = false)
+    private Payment payment;
+
+    /**
+     * Earliest date and time at which the job may run.
+     */
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    /**
+     * Number of times the job has been claimed by a worker.
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * End of the lease held by the worker that claimed the job, {@code null} if the job has never been claimed.
+     * Once the lease runs out the job can be claimed again.
+     */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    /**
+     * Gateway reference of the approved authorization, {@code null} until the amount is authorized.
+     */
+    @Column(name = "authorization_reference")
+    private String authorizationReference;
+
+    /**
+     * Gateway reference of the approved capture, {@code null} until the amount is captured. A job with a capture
+     * reference is never charged again.
+     */
+    @Column(name = "capture_reference")
+    private String captureReference;
+}
@@ -0,0 +1,33 @@
+package com.example.bookingsystem.model.enums;
+
+/**
+ * Represents the kind of step recorded in the booking journal.
+ */
+public enum BookingEventType {
+    /**
+     * The booking was created and its payment initiated, leaving it PENDING.
+     */
+    REQUESTED,
+    /**
+     * The payment completed and the booking was CONFIRMED.
+     */
+    CONFIRMED,
+    /**
+     * The payment expired and the booking was CANCELLED.
+     */
+    EXPIRED;
+
+    /**
+     * Determines the journal event type of a booking status transition.
+     *
+     * @param previousStatus the status before the transition, {@code null} for a newly created booking
+     * @param status         the status after the transition
+     * @return the matching event type
+     */
+    public static BookingEventType of(BookingStatus previousStatus, BookingStatus status) {
+        if (previousStatus == null) {
+            return REQUESTED;
+        }
+        return status == BookingStatus.CONFIRMED ? CONFIRMED : EXPIRED;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.BookingEvent;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for {@link BookingEvent} journal operations executed with plain JDBC.
+ */
+public interface BookingEventJdbcRepository {
+
+    /**
+     * Appends the events to the journal with a single JDBC batch and assigns the generated identifiers to the given
+     * entities. Each row records the identifier of the appending transaction, which readers combine with
+     * {@link #stableHorizon()} to consume the journal in an order that late-committing appends cannot break.
+     *
+     * @param events events with all fields but the identifier set
+     */
+    void appendAll(List<BookingEvent> events);
+
+    /**
+     * Returns the oldest transaction identifier still running as of the current snapshot. Every transaction below
+     * it has committed or rolled back, so no event with a smaller transaction identifier can appear any more.
+     *
+     * @return the transaction identifier horizon
+     */
+    long stableHorizon();
+
+    /**
+     * Tries to take the transaction-scoped advisory lock that elects the instance taking the next snapshot,
+     * without waiting.
+     *
+     * @return {@code true} if the lock was acquired, {@code false} if another session holds it
+     */
+    boolean tryLockSnapshot();
+}
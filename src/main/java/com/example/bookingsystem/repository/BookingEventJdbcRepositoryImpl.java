@@ -0,0 +1,61 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.BookingEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+@RequiredArgsConstructor
+public class BookingEventJdbcRepositoryImpl implements BookingEventJdbcRepository {
+
+    /**
+     * First key of the advisory locks guarding the booking journal; the second key selects the lock.
+     */
+    private static final int JOURNAL_LOCK_NAMESPACE = 0x424A524E;
+    private static final int SNAPSHOT_LOCK = 1;
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?, ?)";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO booking_events (booking_id, unit_id, user_id, start_date, end_date, type, status, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String HORIZON_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void appendAll(List<BookingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        long[] ids = JdbcBatchInserter.insert(jdbcTemplate, INSERT_SQL, events, (statement, event) -> {
+            statement.setLong(1, event.getBookingId());
+            statement.setLong(2, event.getUnitId());
+            statement.setLong(3, event.getUserId());
+            statement.setObject(4, event.getStartDate());
+            statement.setObject(5, event.getEndDate());
+            statement.setString(6, event.getType().name());
+            statement.setString(7, event.getStatus().name());
+            statement.setObject(8, event.getOccurredAt());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            events.get(i).setId(ids[i]);
+        }
+    }
+
+    @Override
+    public long stableHorizon() {
+        Long horizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class);
+        return Objects.requireNonNull(horizon);
+    }
+
+    @Override
+    public boolean tryLockSnapshot() {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, JOURNAL_LOCK_NAMESPACE, SNAPSHOT_LOCK));
+    }
+}
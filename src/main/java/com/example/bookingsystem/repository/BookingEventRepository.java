@@ -0,0 +1,57 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.BookingJournalEntry;
+import com.example.bookingsystem.model.BookingEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repository for the append-only {@link BookingEvent} journal.
+ */
+@Repository
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long>, BookingEventJdbcRepository {
+
+    /**
+     * Finds the next page of journal events in journal order, starting after the given position (keyset pagination).
+     * Only events appended by transactions below the horizon are returned: those can no longer be joined by a
+     * late-committing event at an earlier position, so a consumer never skips one.
+     *
+     * @param txId     the transaction identifier of the last event already seen, or {@code 0} for the beginning
+     * @param eventId  the identifier of the last event already seen, or {@code 0} for the beginning
+     * @param horizon  the transaction identifier horizon, see {@link #stableHorizon()}
+     * @param pageable the page size; the page number must be {@code 0}
+     * @return list of {@link BookingJournalEntry} after the position
+     */
+    @Query("select new com.example.bookingsystem.dto.BookingJournalEntry(e.id, e.txId, e.bookingId, e.unitId, "
+            + "e.userId, e.startDate, e.endDate, e.type, e.status, e.occurredAt) from BookingEvent e "
+            + "where (e.txId > :txId or (e.txId = :txId and e.id > :eventId)) and e.txId < :horizon "
+            + "order by e.txId, e.id")
+    List<BookingJournalEntry> findEntriesAfter(@Param("txId") long txId, @Param("eventId") long eventId,
+                                               @Param("horizon") long horizon, Pageable pageable);
+
+    /**
+     * Streams the journal events after the given position and below the horizon in journal order through a
+     * server-side cursor. Must be consumed and closed inside a transaction.
+     *
+     * @param txId    the transaction identifier of the last event already applied, or {@code 0} for the whole journal
+     * @param eventId the identifier of the last event already applied, or {@code 0} for the whole journal
+     * @param horizon the transaction identifier horizon, or {@link Long#MAX_VALUE} for every visible event
+     * @return stream of {@link BookingJournalEntry}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.bookingsystem.dto.BookingJournalEntry(e.id, e.txId, e.bookingId, e.unitId, "
+            + "e.userId, e.startDate, e.endDate, e.type, e.status, e.occurredAt) from BookingEvent e "
+            + "where (e.txId > :txId or (e.txId = :txId and e.id > :eventId)) and e.txId < :horizon "
+            + "order by e.txId, e.id")
+    Stream<BookingJournalEntry> streamEntriesAfter(@Param("txId") long txId, @Param("eventId") long eventId,
+                                                   @Param("horizon") long horizon);
+}
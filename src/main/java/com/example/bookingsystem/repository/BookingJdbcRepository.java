@@ -0,0 +1,21 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.Booking;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for bulk {@link Booking} operations executed with plain JDBC.
+ */
+public interface BookingJdbcRepository {
+
+    /**
+     * Inserts all bookings with a single statement and assigns the generated identifiers to the given entities.
+     * A booking that overlaps an active booking of its unit, committed or inserted by a concurrent transaction that
+     * commits, is skipped and keeps a {@code null} identifier. No two of the given bookings may overlap each other.
+     * The entities are not attached to the persistence context.
+     *
+     * @param bookings bookings with user, unit, dates and status set
+     */
+    void insertAll(List<Booking> bookings);
+}
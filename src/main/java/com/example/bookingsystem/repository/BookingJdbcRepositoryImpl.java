@@ -0,0 +1,73 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.Booking;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookingJdbcRepositoryImpl implements BookingJdbcRepository {
+
+    /**
+     * Inserts the rows passed as one array per column. Rows rejected by the exclusion constraint are skipped rather
+     * than failing the statement, and the inserted rows are identified by unit and start date, which no two of them
+     * can share without overlapping.
+     */
+    private static final String INSERT_SQL = """
+            INSERT INTO bookings (user_id, unit_id, start_date, end_date, status)
+            SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::date[], ?::date[], ?::varchar[])
+            ON CONFLICT ON CONSTRAINT ex_bookings_unit_period DO NOTHING
+            RETURNING id, unit_id, start_date
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        Map<UnitStart, Booking> byUnitStart = new HashMap<>();
+        bookings.forEach(booking -> byUnitStart.put(
+                new UnitStart(booking.getUnit().getId(), booking.getStartDate()), booking));
+
+        jdbcTemplate.query(connection -> prepareInsert(connection, bookings), resultSet -> {
+            UnitStart key = new UnitStart(resultSet.getLong(2), resultSet.getObject(3, LocalDate.class));
+            byUnitStart.get(key).setId(resultSet.getLong(1));
+        });
+    }
+
+    private static PreparedStatement prepareInsert(Connection connection, List<Booking> bookings) throws SQLException {
+        int size = bookings.size();
+        Long[] userIds = new Long[size];
+        Long[] unitIds = new Long[size];
+        String[] startDates = new String[size];
+        String[] endDates = new String[size];
+        String[] statuses = new String[size];
+        for (int i = 0; i < size; i++) {
+            Booking booking = bookings.get(i);
+            userIds[i] = booking.getUser().getId();
+            unitIds[i] = booking.getUnit().getId();
+            startDates[i] = booking.getStartDate().toString();
+            endDates[i] = booking.getEndDate().toString();
+            statuses[i] = booking.getStatus().name();
+        }
+        PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+        statement.setArray(1, connection.createArrayOf("bigint", userIds));
+        statement.setArray(2, connection.createArrayOf("bigint", unitIds));
+        statement.setArray(3, connection.createArrayOf("text", startDates));
+        statement.setArray(4, connection.createArrayOf("text", endDates));
+        statement.setArray(5, connection.createArrayOf("text", statuses));
+        return statement;
+    }
+
+    private record UnitStart(long unitId, LocalDate startDate) {
+    }
+}
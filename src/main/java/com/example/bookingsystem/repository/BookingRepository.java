@@ -1,30 +1,110 @@
 package com.example.bookingsystem.repository;
 
+import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.dto.BookingPeriod;
 import com.example.bookingsystem.model.Booking;
-import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.enums.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for {@link Booking} entity.
  */
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingJdbcRepository {
+
+    /**
+     * Condition matching active bookings overlapping {@code [:startDate, :endDate]}. The status is compared with
+     * a literal so that the planner can match the {@code status <> 'CANCELLED'} predicate of the partial indexes.
+     */
+    String ACTIVE_OVERLAPPING = "b.status <> com.example.bookingsystem.model.enums.BookingStatus.CANCELLED "
+            + "and date_range_overlaps(b.period, :startDate, :endDate) = true";
+
+    /**
+     * Finds the next page of bookings ordered by ID, starting after the given ID (keyset pagination).
+     * Rows are projected directly into DTOs, so no entities or associations are loaded.
+     *
+     * @param afterId  the last ID of the previous page, or {@code 0} for the first page
+     * @param pageable the page size; the page number must be {@code 0}
+     * @return list of {@link BookingDto} with IDs greater than {@code afterId}
+     */
+    @Query("select new com.example.bookingsystem.dto.BookingDto(b.id, b.user.id, b.unit.id, b.startDate, b.endDate, b.status) "
+            + "from Booking b where b.id > :afterId order by b.id")
+    List<BookingDto> findDtosByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Streams all bookings ordered by ID through a server-side cursor.
+     * Must be consumed and closed inside a transaction.
+     *
+     * @return stream of {@link BookingDto}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.bookingsystem.dto.BookingDto(b.id, b.user.id, b.unit.id, b.startDate, b.endDate, b.status) "
+            + "from Booking b order by b.id")
+    Stream<BookingDto> streamAllDtos();
+
+    /**
+     * Checks whether the unit has an active (not cancelled) booking overlapping the given closed date range.
+     * The range overlap is evaluated with the {@code &&} operator on the {@code period} column, so the lookup
+     * is served by the GiST index behind the booking exclusion constraint.
+     *
+     * @param unitId    the identifier of the unit
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return {@code true} if an overlapping active booking exists
+     */
+    @Query("select case when count(b) > 0 then true else false end from Booking b "
+            + "where b.unit.id = :unitId and " + ACTIVE_OVERLAPPING)
+    boolean existsActiveOverlapping(@Param("unitId") Long unitId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    /**
+     * Finds the periods of all bookings with the given statuses without loading the associated entities.
+     *
+     * @param statuses booking statuses to filter by
+     * @return list of matching {@link BookingPeriod} projections
+     */
+    @Query("select new com.example.bookingsystem.dto.BookingPeriod(b.id, b.unit.id, b.startDate, b.endDate) "
+            + "from Booking b where b.status in :statuses")
+    List<BookingPeriod> findPeriodsByStatusIn(@Param("statuses") Collection<BookingStatus> statuses);
+
+    /**
+     * Finds the periods of active (not cancelled) bookings that overlap the given closed date range.
+     * Served by the partial GiST index on {@code period}.
+     *
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return list of matching {@link BookingPeriod} projections
+     */
+    @Query("select new com.example.bookingsystem.dto.BookingPeriod(b.id, b.unit.id, b.startDate, b.endDate) "
+            + "from Booking b where " + ACTIVE_OVERLAPPING)
+    List<BookingPeriod> findActivePeriodsOverlapping(@Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate);
+
     /**
-     * Finds the top booking by unit with specified statuses that overlaps given date range.
+     * Finds the periods of active (not cancelled) bookings of the given units that overlap the given closed
+     * date range. Served by the GiST index behind the booking exclusion constraint.
      *
-     * @param unit      the unit to search bookings for
-     * @param statuses  list of booking statuses to filter by
-     * @param endDate   the end date of the booking period
-     * @param startDate the start date of the booking period
-     * @return an Optional containing the found Booking or empty if none found
+     * @param unitIds   identifiers of the units to search bookings for
+     * @param startDate the first day of the range (inclusive)
+     * @param endDate   the last day of the range (inclusive)
+     * @return list of matching {@link BookingPeriod} projections
      */
-    Optional<Booking> findTopByUnitAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-            Unit unit, List<BookingStatus> statuses, LocalDate endDate, LocalDate startDate
-    );
-}
\ No newline at end of file
+    @Query("select new com.example.bookingsystem.dto.BookingPeriod(b.id, b.unit.id, b.startDate, b.endDate) "
+            + "from Booking b where b.unit.id in :unitIds and " + ACTIVE_OVERLAPPING)
+    List<BookingPeriod> findActivePeriodsByUnitIdInOverlapping(@Param("unitIds") Collection<Long> unitIds,
+                                                               @Param("startDate") LocalDate startDate,
+                                                               @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,36 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.BookingSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for managing {@link BookingSnapshot} entities.
+ */
+@Repository
+public interface BookingSnapshotRepository extends JpaRepository<BookingSnapshot, Long> {
+
+    /**
+     * Finds the most recent snapshot.
+     *
+     * @return an Optional containing the snapshot covering the most journal events, or empty if none was taken
+     */
+    Optional<BookingSnapshot> findFirstByOrderByLastTxIdDescLastEventIdDesc();
+
+    /**
+     * Deletes the snapshots taken before the given journal position.
+     *
+     * @param lastTxId    the transaction identifier of the journal position of the oldest snapshot to keep
+     * @param lastEventId the event identifier of the journal position of the oldest snapshot to keep
+     * @return the number of deleted snapshots
+     */
+    @Modifying
+    @Query("delete from BookingSnapshot s "
+            + "where s.lastTxId < :lastTxId or (s.lastTxId = :lastTxId and s.lastEventId < :lastEventId)")
+    int deleteOlderThan(@Param("lastTxId") long lastTxId, @Param("lastEventId") long lastEventId);
+}
@@ -0,0 +1,56 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for managing {@link IdempotencyKey} entities.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Records the first use of a key. If another transaction has inserted the same key but not yet finished, the
+     * statement waits for it, so concurrent duplicates on any instance are serialized on the key.
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @param createdAt   the current time
+     * @return {@code 1} if the key was claimed, {@code 0} if it had already been used
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO idempotency_keys (idempotency_key, request_fingerprint, created_at)
+            VALUES (:key, :fingerprint, :createdAt)
+            ON CONFLICT (idempotency_key) DO NOTHING
+            """, nativeQuery = true)
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Stores the booking created for a claimed key.
+     *
+     * @param key       the idempotency key
+     * @param bookingId the identifier of the created booking
+     * @return the number of updated keys
+     */
+    @Modifying
+    @Query("update IdempotencyKey k set k.bookingId = :bookingId where k.key = :key")
+    int attachBooking(@Param("key") String key, @Param("bookingId") Long bookingId);
+
+    /**
+     * Deletes keys first used before the given time.
+     *
+     * @param cutoff the oldest creation time to keep
+     * @return the number of deleted keys
+     */
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,67 @@
+package com.example.bookingsystem.repository;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Executes a single-row {@code INSERT} statement as one JDBC batch and collects the generated identifiers.
+ */
+final class JdbcBatchInserter {
+
+    private JdbcBatchInserter() {
+    }
+
+    /**
+     * Binds the parameters of a single row.
+     *
+     * @param <T> the type of the inserted row
+     */
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    /**
+     * Inserts all rows in one batch.
+     *
+     * @param jdbcTemplate the template bound to the current transaction
+     * @param sql          the insert statement
+     * @param rows         the rows to insert
+     * @param binder       binds the parameters of each row
+     * @param <T>          the type of the inserted rows
+     * @return generated {@code id} values in the order of {@code rows}
+     */
+    static <T> long[] insert(@NotNull JdbcTemplate jdbcTemplate, String sql, @NotNull List<T> rows,
+                             RowBinder<? super T> binder) {
+        if (rows.isEmpty()) {
+            return new long[0];
+        }
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"})) {
+                for (T row : rows) {
+                    binder.bind(statement, row);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                long[] ids = new long[rows.size()];
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    int i = 0;
+                    while (keys.next() && i < ids.length) {
+                        ids[i++] = keys.getLong(1);
+                    }
+                    if (i != ids.length) {
+                        throw new SQLException("Expected " + ids.length + " generated keys but received " + i);
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+}
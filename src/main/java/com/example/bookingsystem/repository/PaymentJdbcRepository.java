@@ -0,0 +1,68 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.model.Payment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom repository fragment for bulk {@link Payment} operations executed with plain JDBC.
+ */
+public interface PaymentJdbcRepository {
+
+    /**
+     * Inserts all payments with a single JDBC batch and assigns the generated identifiers to the given entities.
+     * The entities are not attached to the persistence context.
+     *
+     * @param payments payments with booking, amount, status and expiration time set
+     */
+    void insertAll(List<Payment> payments);
+
+    /**
+     * Completes a payment with a single guarded statement: the payment is marked COMPLETED only if it is still
+     * INITIATED, its processing job is deleted and its booking CONFIRMED only if it is still PENDING. A payment
+     * completing while it expires is decided by whichever transaction locks the payment row first; the other one
+     * no longer matches its guard and becomes a no-op.
+     *
+     * @param paymentId the identifier of the payment
+     * @return the completed payment with the booking it confirmed, or empty if the payment was no longer INITIATED
+     * or its booking no longer PENDING
+     */
+    Optional<PaymentTransition> complete(Long paymentId);
+
+    /**
+     * Tries to take the transaction-scoped advisory lock of an expiration shard without waiting. The lock is
+     * released when the current transaction ends or its connection is lost.
+     *
+     * @param shard the shard, between {@code 0} and the number of shards
+     * @return {@code true} if the lock was acquired, {@code false} if another session holds it
+     */
+    boolean tryLockShard(int shard);
+
+    /**
+     * Expires up to {@code limit} INITIATED payments of one shard whose expiration time is before {@code now} with a
+     * single statement: the payments are marked FAILED, their processing jobs deleted and their bookings still
+     * PENDING are CANCELLED. A payment belongs to shard {@code id mod shards}. Payments locked by a concurrent
+     * transaction are skipped rather than waited for.
+     *
+     * @param now    the cutoff time
+     * @param limit  the maximum number of payments to expire
+     * @param shard  the shard to expire
+     * @param shards the number of shards
+     * @return the expired payments with the bookings they cancelled
+     */
+    List<PaymentTransition> expireDue(LocalDateTime now, int limit, int shard, int shards);
+
+    /**
+     * Expires a single payment whose expiration time is not after {@code now} with the same guarded statement as
+     * {@link #expireDue(LocalDateTime, int, int, int)}. Nothing happens if the payment is no longer INITIATED,
+     * is not due yet or is locked by another transaction.
+     *
+     * @param paymentId the identifier of the payment
+     * @param now       the cutoff time
+     * @return the expired payment with the booking it cancelled, or empty if nothing was expired
+     */
+    Optional<PaymentTransition> expirePayment(Long paymentId, LocalDateTime now);
+}
@@ -0,0 +1,140 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.model.Payment;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PaymentJdbcRepositoryImpl implements PaymentJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payments (booking_id, amount, status, expires_at) VALUES (?, ?, ?, ?)";
+
+    private static final String COMPLETE_SQL = """
+            WITH completed AS (
+                UPDATE payments p SET status = 'COMPLETED'
+                WHERE p.id = ? AND p.status = 'INITIATED'
+                RETURNING p.id AS payment_id, p.booking_id
+            ), dropped AS (
+                DELETE FROM payment_jobs j
+                WHERE j.payment_id = ?
+            ), previous AS (
+                SELECT c.payment_id, b.id AS booking_id, b.status
+                FROM completed c JOIN bookings b ON b.id = c.booking_id
+            )
+            UPDATE bookings b SET status = 'CONFIRMED'
+            FROM previous pr
+            WHERE b.id = pr.booking_id AND b.status = 'PENDING'
+            RETURNING pr.payment_id, b.id, b.unit_id, b.user_id, b.start_date, b.end_date, pr.status
+            """;
+
+    /**
+     * First key of the advisory locks guarding expiration shards; the shard number is the second key.
+     */
+    private static final int EXPIRATION_LOCK_NAMESPACE = 0x50455850;
+
+    private static final String TRY_LOCK_SHARD_SQL = "SELECT pg_try_advisory_xact_lock(?, ?)";
+
+    /**
+     * Statement tail shared by both expirations: given the locked payments in {@code due}, fails those still
+     * INITIATED, deletes their processing jobs and cancels their bookings still PENDING. A job holding a capture is
+     * kept, as it is the only record of the money to refund. A payment completed concurrently no longer matches its
+     * guard, so its chain stops there.
+     */
+    private static final String EXPIRE_SQL_TAIL = """
+            ), failed AS (
+                UPDATE payments p SET status = 'FAILED'
+                FROM due
+                WHERE p.id = due.id AND p.status = 'INITIATED'
+                RETURNING p.id AS payment_id, p.booking_id
+            ), dropped AS (
+                DELETE FROM payment_jobs j USING failed f
+                WHERE j.payment_id = f.payment_id AND j.capture_reference IS NULL
+            ), previous AS (
+                SELECT f.payment_id, b.id AS booking_id, b.status
+                FROM failed f JOIN bookings b ON b.id = f.booking_id
+            )
+            UPDATE bookings b SET status = 'CANCELLED'
+            FROM previous pr
+            WHERE b.id = pr.booking_id AND b.status = 'PENDING'
+            RETURNING pr.payment_id, b.id, b.unit_id, b.user_id, b.start_date, b.end_date, pr.status
+            """;
+
+    // Served by the partial index idx_payments_initiated_expires_at
+    private static final String EXPIRE_DUE_SQL = """
+            WITH due AS (
+                SELECT p.id
+                FROM payments p
+                WHERE p.status = 'INITIATED'
+                  AND p.expires_at < ?
+                  AND mod(p.id, ?) = ?
+                ORDER BY p.expires_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            """ + EXPIRE_SQL_TAIL;
+
+    private static final String EXPIRE_PAYMENT_SQL = """
+            WITH due AS (
+                SELECT p.id
+                FROM payments p
+                WHERE p.id = ?
+                  AND p.status = 'INITIATED'
+                  AND p.expires_at <= ?
+                FOR UPDATE SKIP LOCKED
+            """ + EXPIRE_SQL_TAIL;
+
+    private static final RowMapper<PaymentTransition> TRANSITION_MAPPER = (resultSet, rowNum) -> new PaymentTransition(
+            resultSet.getLong(1),
+            resultSet.getLong(2),
+            resultSet.getLong(3),
+            resultSet.getLong(4),
+            resultSet.getObject(5, LocalDate.class),
+            resultSet.getObject(6, LocalDate.class),
+            BookingStatus.valueOf(resultSet.getString(7))
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<Payment> payments) {
+        long[] ids = JdbcBatchInserter.insert(jdbcTemplate, INSERT_SQL, payments, (statement, payment) -> {
+            statement.setLong(1, payment.getBooking().getId());
+            statement.setBigDecimal(2, payment.getAmount());
+            statement.setString(3, payment.getStatus().name());
+            statement.setObject(4, payment.getExpiresAt());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            payments.get(i).setId(ids[i]);
+        }
+    }
+
+    @Override
+    public Optional<PaymentTransition> complete(Long paymentId) {
+        // All CTEs read the same snapshot, so "previous" still sees the booking status before the final update
+        return jdbcTemplate.query(COMPLETE_SQL, TRANSITION_MAPPER, paymentId, paymentId).stream().findFirst();
+    }
+
+    @Override
+    public boolean tryLockShard(int shard) {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject(TRY_LOCK_SHARD_SQL, Boolean.class, EXPIRATION_LOCK_NAMESPACE, shard));
+    }
+
+    @Override
+    public List<PaymentTransition> expireDue(LocalDateTime now, int limit, int shard, int shards) {
+        return jdbcTemplate.query(EXPIRE_DUE_SQL, TRANSITION_MAPPER, now, shards, shard, limit);
+    }
+
+    @Override
+    public Optional<PaymentTransition> expirePayment(Long paymentId, LocalDateTime now) {
+        return jdbcTemplate.query(EXPIRE_PAYMENT_SQL, TRANSITION_MAPPER, paymentId, now).stream().findFirst();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.ClaimedPaymentJob;
+import com.example.bookingsystem.model.PaymentJob;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Custom repository fragment for bulk {@link PaymentJob} operations executed with plain JDBC.
+ */
+public interface PaymentJobJdbcRepository {
+
+    /**
+     * Inserts all jobs with a single JDBC batch and assigns the generated identifiers to the given entities.
+     * The entities are not attached to the persistence context.
+     *
+     * @param jobs jobs with payment and due time set
+     */
+    void insertAll(List<PaymentJob> jobs);
+
+    /**
+     * Claims up to {@code limit} jobs that are due and not leased by another worker, in order of due time.
+     * Claimed jobs are leased until {@code leaseUntil} and their attempt counter is incremented. Jobs locked by a
+     * concurrent claim are skipped rather than waited for, so several instances can poll the same table. Only jobs of
+     * payments still INITIATED and captured jobs of FAILED payments, which still need a refund, are claimed; other
+     * due jobs of payments that were completed or expired are deleted.
+     *
+     * @param now        the current time
+     * @param leaseUntil the end of the lease granted to the caller
+     * @param limit      the maximum number of jobs to claim
+     * @return the claimed jobs
+     */
+    List<ClaimedPaymentJob> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit);
+
+    /**
+     * Records the gateway reference of the approved authorization of the job's payment.
+     *
+     * @param jobId     the identifier of the job
+     * @param reference the authorization reference
+     */
+    void recordAuthorization(Long jobId, String reference);
+
+    /**
+     * Records the gateway reference of the approved capture of a payment, after which its job only processes or
+     * refunds the payment. If the job has been deleted meanwhile, e.g. by an expiration, it is recreated due at
+     * {@code dueAt}, so the capture is never forgotten before it is refunded.
+     *
+     * @param paymentId the identifier of the payment
+     * @param reference the capture reference
+     * @param dueAt     the due time of a recreated job
+     */
+    void recordCapture(Long paymentId, String reference, LocalDateTime dueAt);
+
+    /**
+     * Deletes the job of a payment, e.g. once its capture has been refunded.
+     *
+     * @param paymentId the identifier of the payment
+     */
+    void deleteByPaymentId(Long paymentId);
+}
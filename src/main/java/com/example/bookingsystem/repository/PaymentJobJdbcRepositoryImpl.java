@@ -0,0 +1,101 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.ClaimedPaymentJob;
+import com.example.bookingsystem.model.PaymentJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class PaymentJobJdbcRepositoryImpl implements PaymentJobJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO payment_jobs (payment_id, due_at) VALUES (?, ?)";
+
+    /**
+     * Claims due jobs of payments still awaiting processing, and of failed payments whose capture still has to be
+     * refunded. Other due jobs whose payment was completed or expired without its job being dropped are deleted on
+     * the way, as nothing is left for them to do.
+     */
+    private static final String CLAIM_DUE_SQL = """
+            WITH stale AS (
+                DELETE FROM payment_jobs s
+                WHERE s.id IN (
+                    SELECT sj.id
+                    FROM payment_jobs sj JOIN payments sp ON sp.id = sj.payment_id
+                    WHERE sj.due_at <= ? AND sp.status <> 'INITIATED'
+                      AND (sp.status = 'COMPLETED' OR sj.capture_reference IS NULL)
+                    FOR UPDATE OF sj SKIP LOCKED
+                )
+            )
+            UPDATE payment_jobs j SET locked_until = ?, attempts = j.attempts + 1
+            FROM (
+                SELECT dj.id
+                FROM payment_jobs dj JOIN payments dp ON dp.id = dj.payment_id
+                WHERE dj.due_at <= ? AND (dj.locked_until IS NULL OR dj.locked_until <= ?)
+                  AND (dp.status = 'INITIATED' OR (dp.status = 'FAILED' AND dj.capture_reference IS NOT NULL))
+                ORDER BY dj.due_at
+                LIMIT ?
+                FOR UPDATE OF dj SKIP LOCKED
+            ) due, payments p
+            WHERE j.id = due.id AND p.id = j.payment_id
+            RETURNING j.id, j.payment_id, p.amount, j.attempts, j.authorization_reference, j.capture_reference,
+                      p.expires_at
+            """;
+
+    private static final String RECORD_AUTHORIZATION_SQL =
+            "UPDATE payment_jobs SET authorization_reference = ? WHERE id = ?";
+
+    /**
+     * Records the capture on the payment's job, recreating the job if an expiration deleted it in the meantime, so
+     * the capture is always kept until it has been refunded.
+     */
+    private static final String RECORD_CAPTURE_SQL = """
+            INSERT INTO payment_jobs (payment_id, due_at, capture_reference) VALUES (?, ?, ?)
+            ON CONFLICT (payment_id) DO UPDATE SET capture_reference = EXCLUDED.capture_reference
+            """;
+
+    private static final String DELETE_BY_PAYMENT_SQL = "DELETE FROM payment_jobs WHERE payment_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<PaymentJob> jobs) {
+        long[] ids = JdbcBatchInserter.insert(jdbcTemplate, INSERT_SQL, jobs, (statement, job) -> {
+            statement.setLong(1, job.getPayment().getId());
+            statement.setObject(2, job.getDueAt());
+        });
+        for (int i = 0; i < ids.length; i++) {
+            jobs.get(i).setId(ids[i]);
+        }
+    }
+
+    @Override
+    public List<ClaimedPaymentJob> claimDue(LocalDateTime now, LocalDateTime leaseUntil, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE_SQL, (resultSet, rowNum) -> new ClaimedPaymentJob(
+                resultSet.getLong(1),
+                resultSet.getLong(2),
+                resultSet.getBigDecimal(3),
+                resultSet.getInt(4),
+                resultSet.getString(5),
+                resultSet.getString(6),
+                resultSet.getObject(7, LocalDateTime.class)
+        ), now, leaseUntil, now, now, limit);
+    }
+
+    @Override
+    public void recordAuthorization(Long jobId, String reference) {
+        jdbcTemplate.update(RECORD_AUTHORIZATION_SQL, reference, jobId);
+    }
+
+    @Override
+    public void recordCapture(Long paymentId, String reference, LocalDateTime dueAt) {
+        jdbcTemplate.update(RECORD_CAPTURE_SQL, paymentId, dueAt, reference);
+    }
+
+    @Override
+    public void deleteByPaymentId(Long paymentId) {
+        jdbcTemplate.update(DELETE_BY_PAYMENT_SQL, paymentId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.model.PaymentJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for managing {@link PaymentJob} entities.
+ */
+@Repository
+public interface PaymentJobRepository extends JpaRepository<PaymentJob, Long>, PaymentJobJdbcRepository {
+}
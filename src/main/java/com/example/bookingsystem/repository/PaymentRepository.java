@@ -1,13 +1,75 @@
 package com.example.bookingsystem.repository;
 
+import com.example.bookingsystem.dto.PaymentDeadline;
+import com.example.bookingsystem.dto.PaymentDto;
 import com.example.bookingsystem.model.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for {@link Payment} entities.
  * Extends JpaRepository to provide CRUD operations on Payment.
  */
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {
-}
\ No newline at end of file
+public interface PaymentRepository extends JpaRepository<Payment, Long>, PaymentJdbcRepository {
+
+    /**
+     * Finds the next page of payments ordered by ID, starting after the given ID (keyset pagination).
+     *
+     * @param afterId  the last ID of the previous page, or {@code 0} for the first page
+     * @param pageable the page size; the page number must be {@code 0}
+     * @return list of {@link PaymentDto} with IDs greater than {@code afterId}
+     */
+    @Query("select new com.example.bookingsystem.dto.PaymentDto(p.id, p.booking.id, p.amount, p.status) "
+            + "from Payment p where p.id > :afterId order by p.id")
+    List<PaymentDto> findDtosByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Streams all payments ordered by ID through a server-side cursor.
+     * Must be consumed and closed inside a transaction.
+     *
+     * @return stream of {@link PaymentDto}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.bookingsystem.dto.PaymentDto(p.id, p.booking.id, p.amount, p.status) "
+            + "from Payment p order by p.id")
+    Stream<PaymentDto> streamAllDtos();
+
+    /**
+     * Finds and row-locks the INITIATED payments of one shard that expired before the specified date and time,
+     * skipping those locked by another transaction. A payment belongs to shard {@code id mod shards}.
+     *
+     * @param now    the cutoff LocalDateTime
+     * @param shard  the shard to search
+     * @param shards the number of shards
+     * @return list of expired payments of the shard
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2")) // LockOptions.SKIP_LOCKED
+    @Query("select p from Payment p where p.status = com.example.bookingsystem.model.enums.PaymentStatus.INITIATED "
+            + "and p.expiresAt < :now and mod(p.id, :shards) = :shard")
+    List<Payment> findAllDueInShard(@Param("now") LocalDateTime now, @Param("shard") int shard,
+                                    @Param("shards") int shards);
+
+    /**
+     * Finds the deadlines of all payments awaiting processing without loading the associated entities.
+     *
+     * @return list of {@link PaymentDeadline} projections
+     */
+    @Query("select new com.example.bookingsystem.dto.PaymentDeadline(p.id, p.expiresAt) from Payment p "
+            + "where p.status = com.example.bookingsystem.model.enums.PaymentStatus.INITIATED")
+    List<PaymentDeadline> findAllDeadlines();
+}
@@ -0,0 +1,51 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
+import com.example.bookingsystem.model.Unit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment reading {@link Unit} search results as {@link UnitDto} projections.
+ * <p>
+ * The columns are selected as a tuple in a read-only transaction, so no entities are loaded into the persistence
+ * context and no dirty-checking snapshots or mapper copies are made.
+ */
+public interface UnitProjectionRepository {
+
+    /**
+     * Finds a page of units matching the specification. The count query is skipped when the page is the last one
+     * and its size tells the total.
+     *
+     * @param spec     the filter
+     * @param pageable the page and sort
+     * @return the page of matching units
+     */
+    Page<UnitDto> findDtos(Specification<Unit> spec, Pageable pageable);
+
+    /**
+     * Finds at most {@code limit} units matching the specification in the given order. Unlike
+     * {@link #findDtos(Specification, Pageable)} no count query is issued and no rows are skipped with
+     * {@code OFFSET}; callers seek to the next slice through the specification instead.
+     *
+     * @param spec  the filter, including any seek predicate
+     * @param sort  the order, which should end with a unique property
+     * @param limit the maximum number of units to return
+     * @return the matching units
+     */
+    List<UnitDto> findDtoSlice(Specification<Unit> spec, Sort sort, int limit);
+
+    /**
+     * Counts the units matching the specification per accommodation type, number of rooms and floor with a single
+     * query grouped by all three attributes. The groups are then summed into the individual facets.
+     *
+     * @param spec the filter
+     * @return the facet counts
+     */
+    UnitFacets countFacets(Specification<Unit> spec);
+}
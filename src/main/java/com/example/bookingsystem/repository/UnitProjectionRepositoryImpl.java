@@ -0,0 +1,129 @@
+package com.example.bookingsystem.repository;
+
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
+import com.example.bookingsystem.model.Unit;
+import com.example.bookingsystem.model.enums.AccommodationType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class UnitProjectionRepositoryImpl implements UnitProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UnitDto> findDtos(Specification<Unit> spec, Pageable pageable) {
+        TypedQuery<Tuple> query = dtoQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<UnitDto> content = query.getResultStream().map(UnitProjectionRepositoryImpl::toDto).toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UnitDto> findDtoSlice(Specification<Unit> spec, Sort sort, int limit) {
+        return dtoQuery(spec, sort).setMaxResults(limit)
+                                   .getResultStream()
+                                   .map(UnitProjectionRepositoryImpl::toDto)
+                                   .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UnitFacets countFacets(Specification<Unit> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Unit> root = query.from(Unit.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+                root.get("type"),
+                root.get("numberOfRooms"),
+                root.get("floor"),
+                criteriaBuilder.count(root)
+        ).groupBy(root.get("type"), root.get("numberOfRooms"), root.get("floor"));
+
+        long total = 0;
+        Map<AccommodationType, Long> types = new EnumMap<>(AccommodationType.class);
+        Map<Integer, Long> numberOfRooms = new TreeMap<>();
+        Map<Integer, Long> floors = new TreeMap<>();
+        for (Tuple group : entityManager.createQuery(query).getResultList()) {
+            long count = group.get(3, Long.class);
+            total += count;
+            types.merge(group.get(0, AccommodationType.class), count, Long::sum);
+            numberOfRooms.merge(group.get(1, Integer.class), count, Long::sum);
+            floors.merge(group.get(2, Integer.class), count, Long::sum);
+        }
+        return new UnitFacets(total, types, numberOfRooms, floors);
+    }
+
+    private TypedQuery<Tuple> dtoQuery(@NotNull Specification<Unit> spec, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Unit> root = query.from(Unit.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.multiselect(
+                root.get("id"),
+                root.get("numberOfRooms"),
+                root.get("type"),
+                root.get("floor"),
+                root.get("baseCost"),
+                root.get("totalCost"),
+                root.get("description")
+        ).orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(@NotNull Specification<Unit> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Unit> root = query.from(Unit.class);
+        Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(criteriaBuilder.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static UnitDto toDto(@NotNull Tuple tuple) {
+        return UnitDto.builder()
+                      .id(tuple.get(0, Long.class))
+                      .numberOfRooms(tuple.get(1, Integer.class))
+                      .type(tuple.get(2, AccommodationType.class))
+                      .floor(tuple.get(3, Integer.class))
+                      .baseCost(tuple.get(4, BigDecimal.class))
+                      .totalCost(tuple.get(5, BigDecimal.class))
+                      .description(tuple.get(6, String.class))
+                      .build();
+    }
+}
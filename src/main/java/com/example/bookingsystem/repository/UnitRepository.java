@@ -1,14 +1,35 @@
 package com.example.bookingsystem.repository;
 
+import com.example.bookingsystem.dto.UnitAttributes;
 import com.example.bookingsystem.model.Unit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository interface for {@link Unit} entities.
  * Provides CRUD operations and supports Specifications for complex queries.
  */
 @Repository
-public interface UnitRepository extends JpaRepository<Unit, Long>, JpaSpecificationExecutor<Unit> {
-}
\ No newline at end of file
+public interface UnitRepository extends JpaRepository<Unit, Long>, JpaSpecificationExecutor<Unit>,
+        UnitProjectionRepository {
+    /**
+     * Finds the identifiers of all units without loading the entities.
+     *
+     * @return list of unit IDs
+     */
+    @Query("select u.id from Unit u")
+    List<Long> findAllIds();
+
+    /**
+     * Finds the searchable attributes of all units, ordered by ID, without loading the entities.
+     *
+     * @return list of unit attributes
+     */
+    @Query("select new com.example.bookingsystem.dto.UnitAttributes(u.id, u.numberOfRooms, u.type, u.floor, u.totalCost) "
+            + "from Unit u order by u.id")
+    List<UnitAttributes> findAllAttributes();
+}
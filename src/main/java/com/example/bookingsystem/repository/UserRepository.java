@@ -1,13 +1,44 @@
 package com.example.bookingsystem.repository;
 
+import com.example.bookingsystem.dto.UserDto;
 import com.example.bookingsystem.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for {@link User} entities.
  * Provides basic CRUD operations.
  */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Finds the next page of users ordered by ID, starting after the given ID (keyset pagination).
+     *
+     * @param afterId  the last ID of the previous page, or {@code 0} for the first page
+     * @param pageable the page size; the page number must be {@code 0}
+     * @return list of {@link UserDto} with IDs greater than {@code afterId}
+     */
+    @Query("select new com.example.bookingsystem.dto.UserDto(u.id, u.name, u.email) "
+            + "from User u where u.id > :afterId order by u.id")
+    List<UserDto> findDtosByIdGreaterThan(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Streams all users ordered by ID through a server-side cursor.
+     * Must be consumed and closed inside a transaction.
+     *
+     * @return stream of {@link UserDto}
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.bookingsystem.dto.UserDto(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserDto> streamAllDtos();
+}
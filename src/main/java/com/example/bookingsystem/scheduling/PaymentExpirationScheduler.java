@@ -0,0 +1,167 @@
+package com.example.bookingsystem.scheduling;
+
+import com.example.bookingsystem.dto.PaymentDeadline;
+import com.example.bookingsystem.repository.PaymentRepository;
+import com.example.bookingsystem.service.PaymentExpirationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.LongStream;
+
+/**
+ * Fires payment expirations at their deadline instead of waiting for the periodic sweep.
+ * <p>
+ * Pending expirations are kept in a {@link TimingWheel} that is loaded from the INITIATED {@code payments} once the
+ * application is ready and fed by the payment service as expirations are created and resolved. The wheel is
+ * advanced every {@value #TICK_MILLIS} ms and each due payment is expired in its own transaction on the
+ * {@link PaymentStage}, so an expiration fires well within a second of its deadline without a burst of due payments
+ * exhausting the connection pool.
+ * {@link PaymentExpirationService#processExpiredPayments()} remains as the safety net for anything missed here,
+ * e.g. expirations created by another instance.
+ */
+@Slf4j
+@Component
+public class PaymentExpirationScheduler {
+
+    /**
+     * Resolution of the timing wheel and interval between its advances.
+     */
+    static final long TICK_MILLIS = 200;
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentExpirationService expirationService;
+    private final PaymentStage paymentStage;
+    private final Clock clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TimingWheel wheel;
+
+    public PaymentExpirationScheduler(PaymentRepository paymentRepository,
+                                      PaymentExpirationService expirationService,
+                                      PaymentStage paymentStage, Clock clock) {
+        this.paymentRepository = paymentRepository;
+        this.expirationService = expirationService;
+        this.paymentStage = paymentStage;
+        this.clock = clock;
+        this.wheel = new TimingWheel(TICK_MILLIS, clock.millis());
+    }
+
+    /**
+     * Loads all pending expirations from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.info("Loading pending payment expirations...");
+        List<PaymentDeadline> deadlines = paymentRepository.findAllDeadlines();
+        lock.lock();
+        try {
+            deadlines.forEach(deadline -> wheel.schedule(deadline.paymentId(), toMillis(deadline.expirationDateTime())));
+        } finally {
+            lock.unlock();
+        }
+        log.info("Scheduled {} pending payment expiration(s)", deadlines.size());
+    }
+
+    /**
+     * Schedules the expiration of the payment. When called inside a transaction the expiration is scheduled only
+     * once the transaction commits.
+     *
+     * @param paymentId          the identifier of the payment
+     * @param expirationDateTime the moment the payment expires
+     */
+    public void schedule(Long paymentId, LocalDateTime expirationDateTime) {
+        long deadline = toMillis(expirationDateTime);
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                wheel.schedule(paymentId, deadline);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Cancels the scheduled expiration of a payment that has been processed. When called inside a transaction
+     * the expiration is cancelled only once the transaction commits.
+     *
+     * @param paymentId the identifier of the payment
+     */
+    public void cancel(Long paymentId) {
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                wheel.cancel(paymentId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of scheduled expirations.
+     *
+     * @return the number of pending timers
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel and dispatches the expirations that have become due.
+     */
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void tick() {
+        LongStream.Builder due = LongStream.builder();
+        lock.lock();
+        try {
+            wheel.advance(clock.millis(), due::add);
+        } finally {
+            lock.unlock();
+        }
+        due.build().forEach(paymentId -> {
+            if (!paymentStage.submit(PaymentStage.TASK_EXPIRATION, () -> expire(paymentId))) {
+                log.warn("Expiration of payment ID: {} left to the periodic sweep", paymentId);
+            }
+        });
+    }
+
+    private void expire(long paymentId) {
+        try {
+            expirationService.expirePayment(paymentId);
+        } catch (RuntimeException exception) {
+            log.error("Failed to expire payment ID: {}, leaving it to the periodic sweep", paymentId, exception);
+        }
+    }
+
+    private long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
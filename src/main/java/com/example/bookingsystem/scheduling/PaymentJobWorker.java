@@ -0,0 +1,261 @@
+package com.example.bookingsystem.scheduling;
+
+import com.example.bookingsystem.dto.ClaimedPaymentJob;
+import com.example.bookingsystem.gateway.GatewayResponse;
+import com.example.bookingsystem.gateway.PaymentGateway;
+import com.example.bookingsystem.metrics.BookingMetrics;
+import com.example.bookingsystem.repository.PaymentJobRepository;
+import com.example.bookingsystem.service.PaymentService;
+import com.example.bookingsystem.service.PaymentServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the delayed payment processing jobs stored in {@code payment_jobs}.
+ * <p>
+ * Every second the worker claims the jobs that are due, up to {@code payment.gateway.max-in-flight} charges at a
+ * time, and charges each payment through the {@link PaymentGateway}: the amount is authorized and then captured,
+ * each call limited to {@code payment.gateway.timeout-ms}. No connection or worker is held while the gateway answers.
+ * The gateway references of an approved authorization and capture are stored on the job as soon as they arrive, by
+ * a task of the {@link PaymentStage} like every other write of the worker, so a reclaimed job resumes the charge where it stopped and a captured payment is never charged twice. A payment is
+ * not captured once its deadline is closer than the gateway timeout. The outcome is then applied on the
+ * {@link PaymentStage}: a captured payment is processed in its own transaction, which also deletes the job; a
+ * declined payment loses its job and is left to expire. A captured payment that can no longer be completed, because
+ * it expired meanwhile or its processing failed {@value #MAX_ATTEMPTS} times, is refunded, and its job is only
+ * deleted once the refund is approved. A failed job, or one claimed by a crashed instance, becomes claimable again
+ * once its lease of {@code payment.jobs.lease-seconds} runs out; by default the lease spreads the attempts over the
+ * time left before the payment deadline. Uncaptured jobs are dropped after {@value #MAX_ATTEMPTS} attempts and their
+ * payments are left to expire.
+ */
+@Slf4j
+@Component
+public class PaymentJobWorker {
+
+    /**
+     * Number of claims after which a failing job is abandoned.
+     */
+    static final int MAX_ATTEMPTS = 5;
+
+    private final PaymentJobRepository jobRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final BookingMetrics bookingMetrics;
+    private final PaymentStage paymentStage;
+    private final Executor stageExecutor;
+    private final Clock clock;
+    private final long leaseSeconds;
+    private final long gatewayTimeoutMillis;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PaymentJobWorker(@Value("${payment.jobs.lease-seconds:0}") long leaseSeconds,
+                            @Value("${payment.jobs.delay-seconds:60}") long delaySeconds,
+                            @Value("${payment.gateway.timeout-ms:5000}") long gatewayTimeoutMillis,
+                            @Value("${payment.gateway.max-in-flight:64}") int maxInFlight,
+                            PaymentJobRepository jobRepository, PaymentService paymentService,
+                            PaymentGateway paymentGateway, BookingMetrics bookingMetrics, PaymentStage paymentStage,
+                            Clock clock) {
+        this.leaseSeconds = leaseSeconds > 0 ? leaseSeconds : defaultLeaseSeconds(delaySeconds, gatewayTimeoutMillis);
+        this.gatewayTimeoutMillis = gatewayTimeoutMillis;
+        this.maxInFlight = maxInFlight;
+        this.jobRepository = jobRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.bookingMetrics = bookingMetrics;
+        this.paymentStage = paymentStage;
+        this.stageExecutor = paymentStage.executor(PaymentStage.TASK_PROCESSING);
+        this.clock = clock;
+    }
+
+    /**
+     * Spreads the attempts of a job over the time between its due time and the payment deadline, so a failed attempt
+     * is retried while the payment can still be completed, without cutting a lease shorter than both gateway calls.
+     *
+     * @param delaySeconds         the delay between the creation of a payment and its job becoming due
+     * @param gatewayTimeoutMillis the timeout of one gateway call
+     * @return the lease in seconds
+     */
+    static long defaultLeaseSeconds(long delaySeconds, long gatewayTimeoutMillis) {
+        long window = TimeUnit.MINUTES.toSeconds(PaymentServiceImpl.EXPIRATION_PAYMENT_MINUTES) - delaySeconds;
+        long charge = TimeUnit.MILLISECONDS.toSeconds(2 * gatewayTimeoutMillis) + 1;
+        return Math.max(charge, window / MAX_ATTEMPTS);
+    }
+
+    /**
+     * Claims the due jobs that fit into the free charge slots and starts charging them. Nothing is claimed while
+     * the payment stage has no idle worker, so a backlog stays in the table rather than in memory.
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void poll() {
+        int free = maxInFlight - inFlight.get();
+        if (free <= 0 || paymentStage.idleWorkers() == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<ClaimedPaymentJob> jobs = jobRepository.claimDue(now, now.plusSeconds(leaseSeconds), free);
+        if (!jobs.isEmpty()) {
+            log.info("Claimed {} payment processing job(s)", jobs.size());
+        }
+        jobs.forEach(this::charge);
+    }
+
+    private void charge(ClaimedPaymentJob job) {
+        inFlight.incrementAndGet();
+        bookingMetrics.paymentTaskScheduled();
+        authorizeAndCapture(job).whenComplete((capture, failure) -> {
+            inFlight.decrementAndGet();
+            Runnable outcome;
+            if (failure != null) {
+                outcome = () -> retryLater(job, job.capture(), unwrap(failure));
+            } else if (capture != null) {
+                outcome = () -> process(job, capture);
+            } else {
+                outcome = () -> discard(job);
+            }
+            if (!paymentStage.submit(PaymentStage.TASK_PROCESSING, () -> bookingMetrics.recordPaymentTask(outcome))) {
+                bookingMetrics.paymentTaskAbandoned();
+                log.warn("Payment ID: {} will be retried after its lease expires", job.paymentId());
+            }
+        });
+    }
+
+    /**
+     * Charges the payment of the job.
+     *
+     * @return the capture reference, or {@code null} if the payment was declined or is too close to its deadline
+     */
+    private CompletableFuture<String> authorizeAndCapture(ClaimedPaymentJob job) {
+        if (job.capture() != null) {
+            log.info("Payment ID: {} was already captured as {}, processing it", job.paymentId(), job.capture());
+            return CompletableFuture.completedFuture(job.capture());
+        }
+        return authorize(job).thenCompose(authorization -> {
+            if (!authorization.approved()) {
+                log.warn("Gateway declined payment ID: {}: {}", job.paymentId(), authorization.message());
+                return CompletableFuture.completedFuture(null);
+            }
+            // A capture answered after the deadline would take money for a booking that is already cancelled
+            if (LocalDateTime.now(clock).plus(Duration.ofMillis(gatewayTimeoutMillis)).isAfter(job.expiresAt())) {
+                log.warn("Payment ID: {} expires at {}, too soon to capture it", job.paymentId(), job.expiresAt());
+                return CompletableFuture.completedFuture(null);
+            }
+            return call("capture", () -> paymentGateway.capture(authorization.reference(), job.amount()))
+                    .thenCompose(capture -> {
+                        if (!capture.approved()) {
+                            log.warn("Gateway declined capture of payment ID: {}: {}", job.paymentId(), capture.message());
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        // Stored before the outcome is applied, so a retry of the processing skips the gateway and
+                        // the capture is refunded even if the payment expires meanwhile
+                        return CompletableFuture.supplyAsync(() -> {
+                            jobRepository.recordCapture(job.paymentId(), capture.reference(), LocalDateTime.now(clock));
+                            return capture.reference();
+                        }, stageExecutor);
+                    });
+        });
+    }
+
+    private CompletableFuture<GatewayResponse> authorize(ClaimedPaymentJob job) {
+        if (job.authorization() != null) {
+            return CompletableFuture.completedFuture(GatewayResponse.approved(job.authorization()));
+        }
+        return call("authorize", () -> paymentGateway.authorize(job.paymentId(), job.amount()))
+                .thenCompose(authorization -> {
+                    if (!authorization.approved()) {
+                        return CompletableFuture.completedFuture(authorization);
+                    }
+                    return CompletableFuture.supplyAsync(() -> {
+                        jobRepository.recordAuthorization(job.jobId(), authorization.reference());
+                        return authorization;
+                    }, stageExecutor);
+                });
+    }
+
+    private CompletableFuture<GatewayResponse> call(String operation, Supplier<CompletableFuture<GatewayResponse>> request) {
+        long start = System.nanoTime();
+        return request.get()
+                      .orTimeout(gatewayTimeoutMillis, TimeUnit.MILLISECONDS)
+                      .whenComplete((response, failure) ->
+                              bookingMetrics.gatewayCall(operation, outcome(response, failure), System.nanoTime() - start));
+    }
+
+    private void process(ClaimedPaymentJob job, String capture) {
+        boolean completed;
+        try {
+            completed = paymentService.processPayment(job.paymentId());
+        } catch (RuntimeException exception) {
+            retryLater(job, capture, exception);
+            return;
+        }
+        if (!completed) {
+            log.warn("Payment ID: {} was captured as {} but can no longer be completed, refunding it",
+                     job.paymentId(), capture);
+            refund(job, capture);
+        }
+    }
+
+    /**
+     * Gives a captured amount back. The job, the only record of the capture, is deleted once the refund is approved;
+     * otherwise the refund is retried when the job is claimed again.
+     */
+    private void refund(ClaimedPaymentJob job, String capture) {
+        call("refund", () -> paymentGateway.refund(capture, job.amount())).whenComplete((refund, failure) -> {
+            if (failure != null || !refund.approved()) {
+                log.error("Refund of payment ID: {} failed, retrying after the lease expires: {}", job.paymentId(),
+                          failure != null ? unwrap(failure).getMessage() : refund.message());
+                return;
+            }
+            log.info("Refunded capture {} of payment ID: {} as {}", capture, job.paymentId(), refund.reference());
+            if (!paymentStage.submit(PaymentStage.TASK_PROCESSING, () -> jobRepository.deleteByPaymentId(job.paymentId()))) {
+                log.warn("Job of refunded payment ID: {} will be retried after its lease expires", job.paymentId());
+            }
+        });
+    }
+
+    private void discard(ClaimedPaymentJob job) {
+        jobRepository.deleteById(job.jobId());
+        log.info("Dropped processing job of declined payment ID: {}, leaving it to expire", job.paymentId());
+    }
+
+    private void retryLater(ClaimedPaymentJob job, String capture, Throwable failure) {
+        // A saturated stage may have kept a capture from being recorded, so the job is never given up for it
+        if (job.attempts() < MAX_ATTEMPTS || failure instanceof RejectedExecutionException) {
+            log.warn("Processing of payment ID: {} failed on attempt {}, retrying after the lease expires",
+                     job.paymentId(), job.attempts(), failure);
+        } else if (capture != null) {
+            log.error("Abandoning processing of captured payment ID: {} after {} attempts, refunding it",
+                      job.paymentId(), job.attempts(), failure);
+            refund(job, capture);
+        } else {
+            log.error("Abandoning processing of payment ID: {} after {} attempts",
+                      job.paymentId(), job.attempts(), failure);
+            jobRepository.deleteById(job.jobId());
+        }
+    }
+
+    private static String outcome(GatewayResponse response, Throwable failure) {
+        if (failure != null) {
+            return unwrap(failure) instanceof TimeoutException ? "timeout" : "error";
+        }
+        return response.approved() ? "approved" : "declined";
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.bookingsystem.scheduling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded execution stage for the database work of payments: processing of claimed payment jobs and expirations
+ * fired by the timing wheel.
+ * <p>
+ * Tasks run on at most {@code payment.stage.concurrency} virtual threads, by default half of the Hikari pool, so a
+ * surge of due payments can never take all connections away from request handling. Up to
+ * {@code payment.stage.queue-capacity} further tasks wait in a queue; beyond that a task is rejected and counted in
+ * {@code payment.stage.rejected}. Rejected work is not lost: a job becomes claimable again once its lease runs out
+ * and an expiration is picked up by the periodic sweep.
+ */
+@Slf4j
+@Component
+public class PaymentStage {
+
+    /**
+     * Task kind of a claimed payment processing job.
+     */
+    public static final String TASK_PROCESSING = "processing";
+
+    /**
+     * Task kind of a payment expiration.
+     */
+    public static final String TASK_EXPIRATION = "expiration";
+
+    private final int concurrency;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final MeterRegistry registry;
+
+    public PaymentStage(@Value("${payment.stage.concurrency:0}") int concurrency,
+                        @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+                        @Value("${payment.stage.queue-capacity:1000}") int queueCapacity,
+                        MeterRegistry registry) {
+        this.concurrency = concurrency > 0 ? Math.min(concurrency, connectionPoolSize) : Math.max(1, connectionPoolSize / 2);
+        this.registry = registry;
+        this.executor = new ThreadPoolExecutor(this.concurrency, this.concurrency, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofVirtual().name("payment-stage-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("payment.stage.active", executor, ThreadPoolExecutor::getActiveCount)
+             .description("Payment tasks currently holding a worker")
+             .register(registry);
+        Gauge.builder("payment.stage.queued", executor, e -> e.getQueue().size())
+             .description("Payment tasks waiting for a worker")
+             .register(registry);
+        log.info("Payment stage limited to {} concurrent task(s) and {} queued task(s)", this.concurrency, queueCapacity);
+    }
+
+    /**
+     * Submits a task to the stage.
+     *
+     * @param task   the kind of task, one of the {@code TASK_*} constants
+     * @param action the work to run
+     * @return {@code true} if the task was accepted, {@code false} if the queue is full
+     */
+    public boolean submit(String task, Runnable action) {
+        pending.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    action.run();
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException exception) {
+            pending.decrementAndGet();
+            Counter.builder("payment.stage.rejected")
+                   .description("Payment tasks rejected because the stage queue was full")
+                   .tag("task", task)
+                   .register(registry)
+                   .increment();
+            log.warn("Payment stage is saturated, rejected {} task", task);
+            return false;
+        }
+    }
+
+    /**
+     * Returns an {@link Executor} submitting to the stage, for chaining database work on asynchronous results.
+     * A task the stage rejects makes {@link Executor#execute} throw a {@link RejectedExecutionException}, which
+     * completes the dependent future exceptionally.
+     *
+     * @param task the kind of task, one of the {@code TASK_*} constants
+     * @return the executor
+     */
+    public Executor executor(String task) {
+        return action -> {
+            if (!submit(task, action)) {
+                throw new RejectedExecutionException("Payment stage rejected " + task + " task");
+            }
+        };
+    }
+
+    /**
+     * Returns the number of workers that could start a task immediately, i.e. without it being queued.
+     *
+     * @return the number of idle workers
+     */
+    public int idleWorkers() {
+        return Math.max(0, concurrency - pending.get());
+    }
+
+    /**
+     * Returns the maximum number of tasks running at the same time.
+     *
+     * @return the concurrency limit
+     */
+    public int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Stops accepting tasks and lets the running and queued ones finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.bookingsystem.scheduling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of identifiers keyed by a deadline in epoch milliseconds.
+ * <p>
+ * Deadlines are rounded up to whole ticks. Level {@code L} has 64 slots of {@code 64^L} ticks each; a timer sits on
+ * the lowest level whose slot range still separates it from the current tick and cascades one level down whenever
+ * the wheel enters that slot, so scheduling, cancellation and firing are O(1) and advancing costs one step per
+ * elapsed tick. Six levels span {@code 64^6} ticks; later deadlines park on the top level until they come into
+ * range. The wheel is not thread-safe; callers are responsible for synchronization.
+ */
+public final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final int OVERDUE = -1;
+
+    private final long tickMillis;
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final Map<Long, Timer> timers = new HashMap<>();
+    private Timer overdue;
+    private long currentTick;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis the resolution of the wheel in milliseconds
+     * @param nowMillis  the current time in epoch milliseconds
+     */
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules the identifier to fire at the deadline, replacing any timer already scheduled for it.
+     * A deadline that has already passed fires on the next {@link #advance(long, LongConsumer)}.
+     *
+     * @param id             the identifier to fire
+     * @param deadlineMillis the deadline in epoch milliseconds
+     */
+    public void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        Timer timer = new Timer(id, Math.ceilDiv(deadlineMillis, tickMillis));
+        timers.put(id, timer);
+        place(timer);
+    }
+
+    /**
+     * Cancels the timer of the identifier.
+     *
+     * @param id the identifier
+     * @return {@code true} if a timer was pending
+     */
+    public boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and passes every identifier whose deadline has been reached to the
+     * action, each exactly once. Timers fire no later than one tick after their deadline.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @param expired   the consumer of expired identifiers
+     */
+    public void advance(long nowMillis, LongConsumer expired) {
+        fire(detachOverdue(), expired);
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        if (timers.isEmpty()) {
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            int level = 1;
+            while (level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                level++;
+            }
+            for (level--; level > 0; level--) {
+                Timer timer = detach(level, slotOf(currentTick, level));
+                while (timer != null) {
+                    Timer next = timer.next;
+                    place(timer);
+                    timer = next;
+                }
+            }
+            fire(detach(0, slotOf(currentTick, 0)), expired);
+            fire(detachOverdue(), expired);
+        }
+    }
+
+    /**
+     * Returns the number of pending timers.
+     *
+     * @return the size of the wheel
+     */
+    public int size() {
+        return timers.size();
+    }
+
+    private void fire(Timer timer, LongConsumer expired) {
+        while (timer != null) {
+            Timer next = timer.next;
+            timers.remove(timer.id);
+            expired.accept(timer.id);
+            timer = next;
+        }
+    }
+
+    private void place(Timer timer) {
+        timer.prev = null;
+        if (timer.tick <= currentTick) {
+            timer.level = OVERDUE;
+            timer.next = overdue;
+            if (overdue != null) {
+                overdue.prev = timer;
+            }
+            overdue = timer;
+            return;
+        }
+        int level = Math.min((63 - Long.numberOfLeadingZeros(timer.tick ^ currentTick)) / SLOT_BITS, LEVELS - 1);
+        int slot = slotOf(timer.tick, level);
+        timer.level = level;
+        timer.slot = slot;
+        timer.next = slots[level][slot];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        slots[level][slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else if (timer.level == OVERDUE) {
+            overdue = timer.next;
+        } else {
+            slots[timer.level][timer.slot] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+    }
+
+    private Timer detach(int level, int slot) {
+        Timer head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    private Timer detachOverdue() {
+        Timer head = overdue;
+        overdue = null;
+        return head;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    private static final class Timer {
+        private final long id;
+        private final long tick;
+        private int level;
+        private int slot;
+        private Timer prev;
+        private Timer next;
+
+        private Timer(long id, long tick) {
+            this.id = id;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.bookingsystem.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service pushing booking status changes to clients as Server-Sent Events.
+ */
+public interface BookingEventStreamService {
+
+    /**
+     * Opens a stream of the status changes of a single booking.
+     *
+     * @param bookingId the identifier of the booking
+     * @return the emitter of the new subscription
+     * @throws com.example.bookingsystem.exception.ResourceNotFoundException if the booking does not exist
+     */
+    SseEmitter subscribeToBooking(Long bookingId);
+
+    /**
+     * Opens a stream of the status changes of all bookings of a user.
+     *
+     * @param userId the identifier of the user
+     * @return the emitter of the new subscription
+     * @throws com.example.bookingsystem.exception.ResourceNotFoundException if the user does not exist
+     */
+    SseEmitter subscribeToUser(Long userId);
+
+    /**
+     * Returns the number of open subscriptions.
+     *
+     * @return the number of connected emitters
+     */
+    int subscriberCount();
+}
@@ -0,0 +1,175 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.exception.ResourceNotFoundException;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * In-process fan-out of {@link BookingStatusChangedEvent}s to Server-Sent Event subscribers.
+ * <p>
+ * Subscriptions are held as {@link SseEmitter}s on asynchronous requests, so an idle connection occupies no request
+ * thread; only its emitter is kept in the per-booking and per-user registries. Each committed status change is
+ * written to the matching subscribers on a virtual thread, and a periodic heartbeat comment lets dead connections
+ * be detected and dropped. Events are delivered only to subscribers connected to this instance.
+ */
+@Slf4j
+@Service
+public class BookingEventStreamServiceImpl implements BookingEventStreamService {
+
+    /**
+     * Name of the SSE event carrying a status change.
+     */
+    static final String EVENT_NAME = "booking-status";
+
+    private static final long HEARTBEAT_MILLIS = 15_000;
+
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final Executor virtualThreadExecutor;
+    private final long timeoutMillis;
+
+    private final Map<Long, Set<SseEmitter>> bookingSubscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<SseEmitter>> userSubscribers = new ConcurrentHashMap<>();
+
+    public BookingEventStreamServiceImpl(@Value("${booking.events.timeout-minutes:30}") long timeoutMinutes,
+                                         BookingRepository bookingRepository, UserRepository userRepository,
+                                         Executor virtualThreadExecutor) {
+        this.timeoutMillis = Duration.ofMinutes(timeoutMinutes).toMillis();
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+    }
+
+    @Override
+    public SseEmitter subscribeToBooking(Long bookingId) {
+        if (!bookingRepository.existsById(bookingId)) {
+            log.error("Booking not found for ID: {}", bookingId);
+            throw new ResourceNotFoundException("Booking not found: ID = " + bookingId);
+        }
+        log.debug("Subscribing to status changes of booking ID: {}", bookingId);
+        return register(bookingSubscribers, bookingId);
+    }
+
+    @Override
+    public SseEmitter subscribeToUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            log.error("User not found for ID: {}", userId);
+            throw new ResourceNotFoundException("User not found: ID = " + userId);
+        }
+        log.debug("Subscribing to booking status changes of user ID: {}", userId);
+        return register(userSubscribers, userId);
+    }
+
+    @Override
+    public int subscriberCount() {
+        return count(bookingSubscribers) + count(userSubscribers);
+    }
+
+    /**
+     * Pushes the status change to the subscribers of the booking and of its user once the change is committed.
+     *
+     * @param event the booking status change
+     */
+    @EventListener
+    public void onBookingStatusChanged(@NotNull BookingStatusChangedEvent event) {
+        afterCommit(() -> virtualThreadExecutor.execute(() -> {
+            send(bookingSubscribers, event.bookingId(), event);
+            send(userSubscribers, event.userId(), event);
+        }));
+    }
+
+    /**
+     * Writes a comment to every subscriber so that closed connections are noticed and removed.
+     */
+    @Scheduled(fixedRate = HEARTBEAT_MILLIS)
+    public void heartbeat() {
+        if (bookingSubscribers.isEmpty() && userSubscribers.isEmpty()) {
+            return;
+        }
+        virtualThreadExecutor.execute(() -> {
+            heartbeat(bookingSubscribers);
+            heartbeat(userSubscribers);
+        });
+    }
+
+    private SseEmitter register(Map<Long, Set<SseEmitter>> subscribers, Long key) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.compute(key, (k, emitters) -> {
+            Set<SseEmitter> registered = emitters != null ? emitters : ConcurrentHashMap.newKeySet();
+            registered.add(emitter);
+            return registered;
+        });
+        Runnable unregister = () -> unregister(subscribers, key, emitter);
+        emitter.onCompletion(unregister);
+        emitter.onTimeout(unregister);
+        emitter.onError(error -> unregister.run());
+        return emitter;
+    }
+
+    private static void unregister(Map<Long, Set<SseEmitter>> subscribers, Long key, SseEmitter emitter) {
+        subscribers.computeIfPresent(key, (k, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static void send(Map<Long, Set<SseEmitter>> subscribers, Long key, BookingStatusChangedEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(key);
+        if (emitters == null) {
+            return;
+        }
+        emitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(event, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException exception) {
+                log.debug("Dropping subscriber of key {} after failed send", key, exception);
+                unregister(subscribers, key, emitter);
+            }
+        });
+    }
+
+    private static void heartbeat(Map<Long, Set<SseEmitter>> subscribers) {
+        subscribers.forEach((key, emitters) -> emitters.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException exception) {
+                unregister(subscribers, key, emitter);
+            }
+        }));
+    }
+
+    private static int count(Map<Long, Set<SseEmitter>> subscribers) {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
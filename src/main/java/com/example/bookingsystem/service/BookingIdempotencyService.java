@@ -0,0 +1,21 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.BookingDto;
+
+/**
+ * Service making booking requests safe to retry through client supplied idempotency keys.
+ */
+public interface BookingIdempotencyService {
+
+    /**
+     * Books a unit once per idempotency key. A repeated request with the same key returns the booking created by
+     * the first one instead of booking again; concurrent duplicates wait for the first execution.
+     *
+     * @param idempotencyKey the key supplied by the client
+     * @param dto            booking details
+     * @return the booking created for the key
+     * @throws com.example.bookingsystem.exception.IdempotencyKeyMismatchException if the key was used with
+     *                                                                            different booking details
+     */
+    BookingDto bookUnit(String idempotencyKey, BookingDto dto);
+}
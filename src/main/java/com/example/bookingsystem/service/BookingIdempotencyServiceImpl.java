@@ -0,0 +1,201 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.exception.IdempotencyKeyMismatchException;
+import com.example.bookingsystem.exception.ResourceNotFoundException;
+import com.example.bookingsystem.mapper.BookingMapper;
+import com.example.bookingsystem.model.IdempotencyKey;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deduplicates booking requests by their {@code Idempotency-Key}.
+ * <p>
+ * Completed keys are answered from a bounded in-memory LRU map without touching the database. Concurrent requests
+ * with the same key on this instance share the first in-flight execution. Otherwise the key is claimed in
+ * {@code idempotency_keys} in the same transaction as the booking, so a duplicate arriving on another instance
+ * blocks on the key until the first request commits and then returns its booking. A failed request leaves no
+ * trace and may be retried. Keys are kept for {@code booking.idempotency.retention-hours}.
+ */
+@Slf4j
+@Service
+public class BookingIdempotencyServiceImpl implements BookingIdempotencyService {
+
+    private final BookingService bookingService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final Clock clock;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionHours;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, CompletedRequest> completed;
+    private final Map<String, InFlightRequest> inFlight = new ConcurrentHashMap<>();
+
+    public BookingIdempotencyServiceImpl(@Value("${booking.idempotency.cache-size:10000}") int cacheSize,
+                                         @Value("${booking.idempotency.retention-hours:24}") long retentionHours,
+                                         BookingService bookingService, IdempotencyKeyRepository idempotencyKeyRepository,
+                                         BookingRepository bookingRepository, BookingMapper bookingMapper, Clock clock,
+                                         PlatformTransactionManager transactionManager) {
+        this.retentionHours = retentionHours;
+        this.bookingService = bookingService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingMapper = bookingMapper;
+        this.clock = clock;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.completed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletedRequest> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public BookingDto bookUnit(String idempotencyKey, BookingDto dto) {
+        String fingerprint = fingerprint(dto);
+
+        CompletedRequest cached = cached(idempotencyKey);
+        if (cached != null) {
+            log.info("Replaying booking ID: {} for idempotency key: {}", cached.booking().getId(), idempotencyKey);
+            return verified(idempotencyKey, fingerprint, cached.fingerprint(), cached.booking());
+        }
+
+        InFlightRequest request = new InFlightRequest(fingerprint, new CompletableFuture<>());
+        InFlightRequest running = inFlight.putIfAbsent(idempotencyKey, request);
+        if (running != null) {
+            log.info("Waiting for in-flight request with idempotency key: {}", idempotencyKey);
+            verified(idempotencyKey, fingerprint, running.fingerprint(), null);
+            return await(running.result());
+        }
+
+        try {
+            CompletedRequest result = execute(idempotencyKey, fingerprint, dto);
+            cache(idempotencyKey, result);
+            request.result().complete(result.booking());
+            return verified(idempotencyKey, fingerprint, result.fingerprint(), result.booking());
+        } catch (RuntimeException exception) {
+            request.result().completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(idempotencyKey, request);
+        }
+    }
+
+    /**
+     * Deletes expired keys from the database and the in-memory map.
+     */
+    @Scheduled(fixedRate = 3_600_000)
+    public void purgeExpiredKeys() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteCreatedBefore(cutoff));
+        lock.lock();
+        try {
+            completed.values().removeIf(request -> request.createdAt().isBefore(cutoff));
+        } finally {
+            lock.unlock();
+        }
+        log.info("Purged {} idempotency key(s) created before {}", deleted == null ? 0 : deleted, cutoff);
+    }
+
+    /**
+     * Claims the key and books the unit in one transaction, or loads the outcome of the request that claimed it.
+     */
+    private CompletedRequest execute(String idempotencyKey, String fingerprint, BookingDto dto) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        BookingDto booking = transactionTemplate.execute(status -> {
+            if (idempotencyKeyRepository.claim(idempotencyKey, fingerprint, now) == 0) {
+                return null;
+            }
+            BookingDto created = bookingService.bookUnit(dto);
+            idempotencyKeyRepository.attachBooking(idempotencyKey, created.getId());
+            log.debug("Stored booking ID: {} for idempotency key: {}", created.getId(), idempotencyKey);
+            return created;
+        });
+        if (booking != null) {
+            return new CompletedRequest(fingerprint, booking, now);
+        }
+
+        IdempotencyKey stored = idempotencyKeyRepository.findById(idempotencyKey)
+                                                        .orElseThrow(() -> new IllegalStateException(
+                                                                "Idempotency key vanished: " + idempotencyKey));
+        if (!stored.getRequestFingerprint().equals(fingerprint)) {
+            return new CompletedRequest(stored.getRequestFingerprint(), null, stored.getCreatedAt());
+        }
+        BookingDto original = bookingRepository.findById(stored.getBookingId())
+                                               .map(bookingMapper::toDto)
+                                               .orElseThrow(() -> new ResourceNotFoundException(
+                                                       "Booking not found: ID = " + stored.getBookingId()));
+        log.info("Found booking ID: {} stored for idempotency key: {}", original.getId(), idempotencyKey);
+        return new CompletedRequest(stored.getRequestFingerprint(), original, stored.getCreatedAt());
+    }
+
+    private CompletedRequest cached(String idempotencyKey) {
+        lock.lock();
+        try {
+            return completed.get(idempotencyKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cache(String idempotencyKey, CompletedRequest request) {
+        if (request.booking() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            completed.put(idempotencyKey, request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static BookingDto verified(String idempotencyKey, String fingerprint, String expected, BookingDto booking) {
+        if (!fingerprint.equals(expected)) {
+            log.warn("Idempotency key: {} reused with different booking details", idempotencyKey);
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency key was already used with different booking details: " + idempotencyKey);
+        }
+        return booking;
+    }
+
+    private static BookingDto await(CompletableFuture<BookingDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+    }
+
+    private static @NotNull String fingerprint(@NotNull BookingDto dto) {
+        return dto.getUnitId() + ":" + dto.getUserId() + ":" + dto.getStartDate() + ":" + dto.getEndDate();
+    }
+
+    private record CompletedRequest(String fingerprint, BookingDto booking, LocalDateTime createdAt) {
+    }
+
+    private record InFlightRequest(String fingerprint, CompletableFuture<BookingDto> result) {
+    }
+}
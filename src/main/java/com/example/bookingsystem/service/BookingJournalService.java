@@ -0,0 +1,37 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.BookingJournalEntry;
+import com.example.bookingsystem.dto.BookingJournalPosition;
+import com.example.bookingsystem.dto.BookingPeriod;
+
+import java.util.List;
+
+/**
+ * Service maintaining the append-only journal of booking lifecycle events and its snapshots.
+ */
+public interface BookingJournalService {
+
+    /**
+     * Retrieves the journal events after the given position in journal order. Events of transactions that may
+     * still be running are held back until those end, so a later page never holds an event preceding this one.
+     *
+     * @param after the position of the last event already consumed, {@link BookingJournalPosition#START} at first
+     * @param size  the maximum number of events to return
+     * @return list of BookingJournalEntry objects
+     */
+    List<BookingJournalEntry> getFeed(BookingJournalPosition after, int size);
+
+    /**
+     * Rebuilds the set of active (PENDING and CONFIRMED) bookings from the latest snapshot and the journal events
+     * recorded after it.
+     *
+     * @return the periods of all active bookings
+     */
+    List<BookingPeriod> loadActivePeriods();
+
+    /**
+     * Records a new snapshot of the active bookings if the journal advanced since the latest one, and deletes the
+     * snapshots older than the latest one.
+     */
+    void takeSnapshot();
+}
@@ -0,0 +1,227 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.BookingJournalEntry;
+import com.example.bookingsystem.dto.BookingJournalPosition;
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.model.BookingEvent;
+import com.example.bookingsystem.model.BookingSnapshot;
+import com.example.bookingsystem.model.enums.BookingEventType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.repository.BookingEventRepository;
+import com.example.bookingsystem.repository.BookingSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Journal of booking lifecycle events, with snapshots of the active bookings for fast replay.
+ * <p>
+ * Every {@link BookingStatusChangedEvent} is appended to {@code booking_events} in the transaction that changed the
+ * status: the events of a transaction are buffered and written in one batch just before it commits, so the journal
+ * holds exactly the committed transitions. Appends run concurrently, so an event can commit after one with a higher
+ * identifier; feed pages and snapshots therefore only cover the transactions below the oldest one still running,
+ * ordered by transaction and identifier, which is a position no later commit can precede.
+ * <p>
+ * Every {@code booking.journal.snapshot-interval-ms} one instance folds the events recorded since the latest
+ * snapshot into a new one, so in-memory read models are rebuilt from one snapshot and a short tail of events
+ * instead of a scan of the bookings table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookingJournalServiceImpl implements BookingJournalService {
+
+    /**
+     * Encoded size of one active booking in a snapshot payload: booking ID, unit ID, start and end epoch day.
+     */
+    private static final int PERIOD_BYTES = Long.BYTES * 2 + Integer.BYTES * 2;
+
+    private final BookingEventRepository bookingEventRepository;
+    private final BookingSnapshotRepository bookingSnapshotRepository;
+    private final Clock clock;
+
+    /**
+     * Buffers the status change for the journal append of the current transaction, or appends it immediately when
+     * no transaction is active.
+     *
+     * @param event the booking status change
+     */
+    @EventListener
+    public void onBookingStatusChanged(@NotNull BookingStatusChangedEvent event) {
+        BookingEvent entry = BookingEvent.builder()
+                                         .bookingId(event.bookingId())
+                                         .unitId(event.unitId())
+                                         .userId(event.userId())
+                                         .startDate(event.startDate())
+                                         .endDate(event.endDate())
+                                         .type(BookingEventType.of(event.previousStatus(), event.status()))
+                                         .status(event.status())
+                                         .occurredAt(LocalDateTime.now(clock))
+                                         .build();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bookingEventRepository.appendAll(List.of(entry));
+            return;
+        }
+        pendingAppend().events.add(entry);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingJournalEntry> getFeed(@NotNull BookingJournalPosition after, int size) {
+        log.info("Fetching up to {} journal events after position: {}", size, after);
+        return bookingEventRepository.findEntriesAfter(after.txId(), after.eventId(),
+                bookingEventRepository.stableHorizon(), PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingPeriod> loadActivePeriods() {
+        // Read models are kept current by the listeners from here on, so every committed event is taken
+        ActiveBookings active = replay(bookingSnapshotRepository.findFirstByOrderByLastTxIdDescLastEventIdDesc(),
+                Long.MAX_VALUE);
+        return List.copyOf(active.periods.values());
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(fixedDelayString = "${booking.journal.snapshot-interval-ms:600000}",
+            initialDelayString = "${booking.journal.snapshot-interval-ms:600000}")
+    public void takeSnapshot() {
+        if (!bookingEventRepository.tryLockSnapshot()) {
+            log.debug("Booking snapshot is being taken by another instance");
+            return;
+        }
+        Optional<BookingSnapshot> latest = bookingSnapshotRepository.findFirstByOrderByLastTxIdDescLastEventIdDesc();
+        // A snapshot is a position replay resumes from, so it only folds events no late commit can precede
+        ActiveBookings active = replay(latest, bookingEventRepository.stableHorizon());
+        if (latest.isPresent() && position(latest.get()).equals(active.position)) {
+            log.debug("No journal events since snapshot at position: {}", active.position);
+            return;
+        }
+
+        bookingSnapshotRepository.save(BookingSnapshot.builder()
+                                                      .lastTxId(active.position.txId())
+                                                      .lastEventId(active.position.eventId())
+                                                      .bookingCount(active.periods.size())
+                                                      .payload(encode(active.periods.values()))
+                                                      .takenAt(LocalDateTime.now(clock))
+                                                      .build());
+        // The previous snapshot is kept as a fallback; everything older is no longer needed
+        latest.ifPresent(previous -> bookingSnapshotRepository.deleteOlderThan(
+                previous.getLastTxId(), previous.getLastEventId()));
+        log.info("Took booking snapshot at position: {} with {} active booking(s)",
+                active.position, active.periods.size());
+    }
+
+    /**
+     * Applies the journal events recorded after the snapshot by transactions below the horizon to the active bookings
+     * it holds. Must be called inside a transaction.
+     */
+    private ActiveBookings replay(@NotNull Optional<BookingSnapshot> snapshot, long horizon) {
+        ActiveBookings active = new ActiveBookings();
+        snapshot.ifPresent(s -> {
+            decode(s.getPayload(), s.getBookingCount()).forEach(period -> active.periods.put(period.id(), period));
+            active.position = position(s);
+        });
+
+        BookingJournalPosition from = active.position;
+        try (Stream<BookingJournalEntry> events = bookingEventRepository.streamEntriesAfter(from.txId(),
+                from.eventId(), horizon)) {
+            events.forEach(active::apply);
+        }
+        log.info("Replayed booking journal from position: {} to {}, {} active booking(s)",
+                from, active.position, active.periods.size());
+        return active;
+    }
+
+    private static BookingJournalPosition position(@NotNull BookingSnapshot snapshot) {
+        return new BookingJournalPosition(snapshot.getLastTxId(), snapshot.getLastEventId());
+    }
+
+    private static byte[] encode(@NotNull Collection<BookingPeriod> periods) {
+        ByteBuffer buffer = ByteBuffer.allocate(periods.size() * PERIOD_BYTES);
+        for (BookingPeriod period : periods) {
+            buffer.putLong(period.id())
+                  .putLong(period.unitId())
+                  .putInt(Math.toIntExact(period.startDate().toEpochDay()))
+                  .putInt(Math.toIntExact(period.endDate().toEpochDay()));
+        }
+        return buffer.array();
+    }
+
+    private static List<BookingPeriod> decode(byte[] payload, int count) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        List<BookingPeriod> periods = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            periods.add(new BookingPeriod(buffer.getLong(), buffer.getLong(),
+                    LocalDate.ofEpochDay(buffer.getInt()), LocalDate.ofEpochDay(buffer.getInt())));
+        }
+        return periods;
+    }
+
+    /**
+     * Returns the append buffer of the current transaction, registering it on first use. Looking it up among the
+     * transaction's synchronizations rather than a bound resource gives a suspended outer transaction its own buffer.
+     */
+    private PendingAppend pendingAppend() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingAppend pending) {
+                return pending;
+            }
+        }
+        PendingAppend pending = new PendingAppend();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    /**
+     * Journal events of one transaction, appended right before it commits and discarded if it rolls back.
+     */
+    private final class PendingAppend implements TransactionSynchronization {
+        private final List<BookingEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            bookingEventRepository.appendAll(events);
+            log.debug("Appended {} event(s) to booking journal", events.size());
+        }
+    }
+
+    /**
+     * Active bookings at a journal position.
+     */
+    private static final class ActiveBookings {
+        private final Map<Long, BookingPeriod> periods = new LinkedHashMap<>();
+        private BookingJournalPosition position = BookingJournalPosition.START;
+
+        private void apply(@NotNull BookingJournalEntry event) {
+            if (event.status() == BookingStatus.CANCELLED) {
+                periods.remove(event.bookingId());
+            } else {
+                periods.put(event.bookingId(),
+                        new BookingPeriod(event.bookingId(), event.unitId(), event.startDate(), event.endDate()));
+            }
+            position = event.position();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.bookingsystem.service;
 
+import com.example.bookingsystem.dto.BookingBatchItemResult;
 import com.example.bookingsystem.dto.BookingDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing bookings.
@@ -10,11 +12,20 @@ import java.util.List;
 public interface BookingService {
 
     /**
-     * Retrieves all bookings.
+     * Retrieves a page of bookings ordered by ID, starting after the given ID.
      *
-     * @return list of all {@link BookingDto}
+     * @param afterId the last ID of the previous page, or {@code null} for the first page
+     * @param size    the maximum number of bookings to return
+     * @return list of {@link BookingDto}
      */
-    List<BookingDto> getAll();
+    List<BookingDto> getAll(Long afterId, int size);
+
+    /**
+     * Passes every booking, ordered by ID, to the given action without holding them all in memory.
+     *
+     * @param action the consumer invoked for each {@link BookingDto}
+     */
+    void streamAll(Consumer<BookingDto> action);
 
     /**
      * Creates a new booking for a unit.
@@ -23,4 +34,14 @@ public interface BookingService {
      * @return created {@link BookingDto}
      */
     BookingDto bookUnit(BookingDto dto);
+
+    /**
+     * Creates bookings for a batch of requests in a single transaction.
+     * Each request is validated and conflict-checked independently, against existing bookings as well as
+     * against earlier requests of the same batch; rejected requests do not affect the others.
+     *
+     * @param dtos booking details in submission order
+     * @return one {@link BookingBatchItemResult} per request, in submission order
+     */
+    List<BookingBatchItemResult> bookUnits(List<BookingDto> dtos);
 }
@@ -1,9 +1,15 @@
 package com.example.bookingsystem.service;
 
+import com.example.bookingsystem.dto.BookingBatchItemResult;
 import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
 import com.example.bookingsystem.exception.ResourceNotFoundException;
 import com.example.bookingsystem.exception.UnitNotAvailableException;
+import com.example.bookingsystem.index.BookingIntervalIndex;
+import com.example.bookingsystem.index.IntervalTree;
 import com.example.bookingsystem.mapper.BookingMapper;
+import com.example.bookingsystem.metrics.BookingMetrics;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.User;
@@ -11,38 +17,85 @@ import com.example.bookingsystem.model.enums.BookingStatus;
 import com.example.bookingsystem.repository.BookingRepository;
 import com.example.bookingsystem.repository.UnitRepository;
 import com.example.bookingsystem.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class BookingServiceImpl implements BookingService {
 
+    /**
+     * SQLSTATE raised by PostgreSQL when an exclusion constraint is violated.
+     */
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    private final ConflictCheckMode conflictCheckMode;
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final UnitRepository unitRepository;
     private final BookingMapper bookingMapper;
     private final PaymentService paymentService;
-    private final UnitService unitService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookingMetrics bookingMetrics;
+
+    public BookingServiceImpl(@Value("${booking.conflict-check:APPLICATION}") ConflictCheckMode conflictCheckMode,
+                              BookingRepository bookingRepository, UserRepository userRepository,
+                              UnitRepository unitRepository, BookingMapper bookingMapper, PaymentService paymentService,
+                              BookingIntervalIndex bookingIntervalIndex,
+                              ApplicationEventPublisher eventPublisher, BookingMetrics bookingMetrics) {
+        this.conflictCheckMode = conflictCheckMode;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.unitRepository = unitRepository;
+        this.bookingMapper = bookingMapper;
+        this.paymentService = paymentService;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.eventPublisher = eventPublisher;
+        this.bookingMetrics = bookingMetrics;
+    }
 
     @Override
-    public List<BookingDto> getAll() {
-        log.info("Fetching all bookings...");
-        List<BookingDto> bookings = bookingRepository.findAll()
-                                                     .stream()
-                                                     .map(bookingMapper::toDto)
-                                                     .toList();
+    public List<BookingDto> getAll(Long afterId, int size) {
+        log.info("Fetching up to {} bookings after ID: {}", size, afterId);
+        List<BookingDto> bookings = bookingRepository.findDtosByIdGreaterThan(
+                afterId == null ? 0L : afterId, PageRequest.of(0, size));
         log.info("Found {} bookings", bookings.size());
         return bookings;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<BookingDto> action) {
+        log.info("Streaming all bookings...");
+        try (Stream<BookingDto> bookings = bookingRepository.streamAllDtos()) {
+            bookings.forEach(action);
+        }
+    }
+
     @Transactional
+    @Timed(value = "booking.book", description = "Single booking requests", histogram = true)
     public BookingDto bookUnit(@NotNull BookingDto dto) {
         log.info("Attempting to book unit with ID: {} for user ID: {}", dto.getUnitId(), dto.getUserId());
 
@@ -58,33 +111,226 @@ public class BookingServiceImpl implements BookingService {
                                       return new ResourceNotFoundException("User not found: ID = " + dto.getUserId());
                                   });
 
-        boolean isUnavailable = bookingRepository
-                .findTopByUnitAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                        unit,
-                        List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED),
-                        dto.getStartDate(),
-                        dto.getEndDate()
-                ).isPresent();
-
-        if (isUnavailable) {
-            log.warn("Unit ID {} is not available between {} and {}", dto.getUnitId(), dto.getStartDate(), dto.getEndDate());
-            throw new UnitNotAvailableException("Selected unit is not available for the chosen date range");
+        if (bookingIntervalIndex.overlaps(unit.getId(), dto.getStartDate(), dto.getEndDate())) {
+            throw unitNotAvailable(dto, BookingMetrics.CONFLICT_INDEX);
+        }
+
+        if (conflictCheckMode != ConflictCheckMode.CONSTRAINT) {
+            boolean isUnavailable = bookingRepository.existsActiveOverlapping(
+                    unit.getId(), dto.getStartDate(), dto.getEndDate());
+
+            if (isUnavailable) {
+                throw unitNotAvailable(dto, BookingMetrics.CONFLICT_DATABASE);
+            }
         }
 
         log.info("Unit available. Proceeding with booking...");
 
         Booking booking = bookingMapper.toEntity(dto, user, unit);
         booking.setStatus(BookingStatus.PENDING);
-        booking = bookingRepository.save(booking);
+        booking = insert(booking, dto);
 
         log.info("Booking saved with ID: {}", booking.getId());
 
+        BookingPeriod period = new BookingPeriod(booking.getId(), unit.getId(), booking.getStartDate(), booking.getEndDate());
+        if (!bookingIntervalIndex.reserve(period)) {
+            if (conflictCheckMode != ConflictCheckMode.CONSTRAINT) {
+                log.warn("Concurrent booking detected for unit ID {} while saving booking ID {}", unit.getId(), booking.getId());
+                throw unitNotAvailable(dto, BookingMetrics.CONFLICT_RESERVATION);
+            }
+            log.warn("Interval index disagrees with the exclusion constraint for booking ID {}", booking.getId());
+        }
+        eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, null));
+
         paymentService.initiatePayment(booking, unit);
         log.info("Payment initiated for booking ID: {}", booking.getId());
 
-        unitService.evictBookingCacheByOverlappingDateRange(dto.getStartDate(), dto.getEndDate());
-        log.debug("Cache evicted for unit availability in range {} - {}", dto.getStartDate(), dto.getEndDate());
-
         return bookingMapper.toDto(booking);
     }
+
+    @Override
+    @Transactional
+    @Timed(value = "booking.book.batch", description = "Batch booking requests", histogram = true)
+    public List<BookingBatchItemResult> bookUnits(@NotNull List<BookingDto> dtos) {
+        log.info("Attempting to book {} unit(s) in batch", dtos.size());
+        BookingBatchItemResult[] results = new BookingBatchItemResult[dtos.size()];
+
+        Set<Long> unitIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            BookingDto dto = dtos.get(i);
+            if (!isValid(dto)) {
+                results[i] = rejected(i, BookingBatchItemResult.Status.INVALID,
+                        "Unit, user, start date and end date are required and start date must not be after end date");
+                continue;
+            }
+            unitIds.add(dto.getUnitId());
+            userIds.add(dto.getUserId());
+        }
+
+        Map<Long, Unit> units = unitRepository.findAllById(unitIds).stream()
+                                              .collect(Collectors.toMap(Unit::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                                              .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Integer> candidates = new ArrayList<>();
+        LocalDate envelopeStart = null;
+        LocalDate envelopeEnd = null;
+        for (int i = 0; i < dtos.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            BookingDto dto = dtos.get(i);
+            if (!units.containsKey(dto.getUnitId())) {
+                results[i] = rejected(i, BookingBatchItemResult.Status.NOT_FOUND, "Unit not found: ID = " + dto.getUnitId());
+            } else if (!users.containsKey(dto.getUserId())) {
+                results[i] = rejected(i, BookingBatchItemResult.Status.NOT_FOUND, "User not found: ID = " + dto.getUserId());
+            } else {
+                candidates.add(i);
+                envelopeStart = envelopeStart == null || dto.getStartDate().isBefore(envelopeStart) ? dto.getStartDate() : envelopeStart;
+                envelopeEnd = envelopeEnd == null || dto.getEndDate().isAfter(envelopeEnd) ? dto.getEndDate() : envelopeEnd;
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            log.info("No bookable requests in batch of {}", dtos.size());
+            return Arrays.asList(results);
+        }
+
+        Map<Long, IntervalTree> occupied = new HashMap<>();
+        bookingRepository.findActivePeriodsByUnitIdInOverlapping(
+                units.keySet(), envelopeStart, envelopeEnd
+        ).forEach(period -> occupied.computeIfAbsent(period.unitId(), id -> new IntervalTree())
+                                    .insert(period.id(), period.startDate().toEpochDay(), period.endDate().toEpochDay()));
+
+        List<Integer> accepted = new ArrayList<>();
+        List<Booking> bookings = new ArrayList<>();
+        for (int i : candidates) {
+            BookingDto dto = dtos.get(i);
+            long start = dto.getStartDate().toEpochDay();
+            long end = dto.getEndDate().toEpochDay();
+            IntervalTree tree = occupied.computeIfAbsent(dto.getUnitId(), id -> new IntervalTree());
+            if (tree.overlaps(start, end)) {
+                bookingMetrics.bookingConflict(BookingMetrics.CONFLICT_DATABASE);
+                results[i] = conflict(i);
+                continue;
+            }
+            if (bookingIntervalIndex.overlaps(dto.getUnitId(), dto.getStartDate(), dto.getEndDate())) {
+                bookingMetrics.bookingConflict(BookingMetrics.CONFLICT_INDEX);
+                results[i] = conflict(i);
+                continue;
+            }
+            // Negative identifiers keep batch items apart from persisted bookings in the same tree
+            tree.insert(-1L - i, start, end);
+
+            User user = users.get(dto.getUserId());
+            Unit unit = units.get(dto.getUnitId());
+            Booking booking = bookingMapper.toEntity(dto, user, unit);
+            booking.setUser(user);
+            booking.setUnit(unit);
+            booking.setStatus(BookingStatus.PENDING);
+            accepted.add(i);
+            bookings.add(booking);
+        }
+
+        if (!bookings.isEmpty()) {
+            bookingRepository.insertAll(bookings);
+            log.info("Inserted booking(s) of {} accepted batch item(s)", bookings.size());
+
+            List<Booking> reserved = new ArrayList<>();
+            List<Long> lost = new ArrayList<>();
+            for (int k = 0; k < bookings.size(); k++) {
+                Booking booking = bookings.get(k);
+                int i = accepted.get(k);
+                if (booking.getId() == null) {
+                    // Skipped by the exclusion constraint: a concurrent booking of the unit committed first
+                    log.warn("Booking of unit ID {} from {} to {} rejected by booking exclusion constraint",
+                            booking.getUnit().getId(), booking.getStartDate(), booking.getEndDate());
+                    bookingMetrics.bookingConflict(BookingMetrics.CONFLICT_DATABASE);
+                    results[i] = conflict(i);
+                    continue;
+                }
+                BookingPeriod period = new BookingPeriod(booking.getId(), booking.getUnit().getId(),
+                        booking.getStartDate(), booking.getEndDate());
+                if (bookingIntervalIndex.reserve(period)) {
+                    reserved.add(booking);
+                    results[i] = BookingBatchItemResult.builder()
+                                                       .index(i)
+                                                       .status(BookingBatchItemResult.Status.SUCCESS)
+                                                       .booking(bookingMapper.toDto(booking))
+                                                       .build();
+                } else {
+                    log.warn("Concurrent booking detected for unit ID {} while saving booking ID {}",
+                            booking.getUnit().getId(), booking.getId());
+                    bookingMetrics.bookingConflict(BookingMetrics.CONFLICT_RESERVATION);
+                    lost.add(booking.getId());
+                    results[i] = conflict(i);
+                }
+            }
+            if (!lost.isEmpty()) {
+                bookingRepository.deleteAllByIdInBatch(lost);
+            }
+
+            reserved.forEach(booking -> eventPublisher.publishEvent(BookingStatusChangedEvent.of(booking, null)));
+            paymentService.initiatePayments(reserved);
+            log.info("Payments initiated for {} booking(s)", reserved.size());
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private static boolean isValid(BookingDto dto) {
+        return dto != null
+                && dto.getUnitId() != null
+                && dto.getUserId() != null
+                && dto.getStartDate() != null
+                && dto.getEndDate() != null
+                && !dto.getStartDate().isAfter(dto.getEndDate());
+    }
+
+    private static BookingBatchItemResult conflict(int index) {
+        return rejected(index, BookingBatchItemResult.Status.CONFLICT,
+                "Selected unit is not available for the chosen date range");
+    }
+
+    private static BookingBatchItemResult rejected(int index, BookingBatchItemResult.Status status, String message) {
+        return BookingBatchItemResult.builder()
+                                     .index(index)
+                                     .status(status)
+                                     .message(message)
+                                     .build();
+    }
+
+    /**
+     * Inserts the booking. The exclusion constraint guards the table in every mode, so a violation is reported as an
+     * unavailable unit whichever check let the booking through. In {@link ConflictCheckMode#CONSTRAINT} mode the
+     * insert is flushed explicitly; otherwise the identity insert is executed on save already.
+     */
+    private Booking insert(Booking booking, BookingDto dto) {
+        try {
+            return conflictCheckMode == ConflictCheckMode.CONSTRAINT
+                    ? bookingRepository.saveAndFlush(booking)
+                    : bookingRepository.save(booking);
+        } catch (DataIntegrityViolationException exception) {
+            if (isExclusionViolation(exception)) {
+                throw unitNotAvailable(dto, BookingMetrics.CONFLICT_DATABASE);
+            }
+            throw exception;
+        }
+    }
+
+    private static boolean isExclusionViolation(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private @NotNull UnitNotAvailableException unitNotAvailable(@NotNull BookingDto dto, String source) {
+        log.warn("Unit ID {} is not available between {} and {}", dto.getUnitId(), dto.getStartDate(), dto.getEndDate());
+        bookingMetrics.bookingConflict(source);
+        return new UnitNotAvailableException("Selected unit is not available for the chosen date range");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.example.bookingsystem.service;
+
+/**
+ * Strategy used by {@link BookingService} to prevent overlapping bookings of the same unit.
+ */
+public enum ConflictCheckMode {
+    /**
+     * Checks the in-memory interval index and queries the database for overlaps before inserting.
+     */
+    APPLICATION,
+    /**
+     * Inserts directly and relies on the {@code bookings} exclusion constraint to reject overlaps.
+     */
+    CONSTRAINT
+}
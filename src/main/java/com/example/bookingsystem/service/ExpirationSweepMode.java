@@ -0,0 +1,17 @@
+package com.example.bookingsystem.service;
+
+/**
+ * Strategy used by {@link PaymentExpirationService} to process expired payments during the periodic sweep.
+ */
+public enum ExpirationSweepMode {
+    /**
+     * Loads and locks every expired record of a shard as an entity and expires them one by one with the guarded
+     * single-payment statement, in one transaction.
+     */
+    ENTITY,
+    /**
+     * Expires records with set-based statements in fixed-size batches, each in its own transaction. Rows locked
+     * by another node are skipped, so several nodes can drain a backlog in parallel.
+     */
+    CHUNKED
+}
@@ -1,67 +1,157 @@
 package com.example.bookingsystem.service;
 
-import com.example.bookingsystem.model.Booking;
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
 import com.example.bookingsystem.model.Payment;
-import com.example.bookingsystem.model.PaymentExpiration;
 import com.example.bookingsystem.model.enums.BookingStatus;
-import com.example.bookingsystem.model.enums.PaymentStatus;
-import com.example.bookingsystem.repository.BookingRepository;
-import com.example.bookingsystem.repository.PaymentExpirationRepository;
 import com.example.bookingsystem.repository.PaymentRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Expires payments whose deadline has passed, cancelling their bookings.
+ * <p>
+ * The periodic sweep runs on every instance but the work is partitioned: payments are split into
+ * {@code payment.expiration.shards} shards by payment id, and a shard is swept only by the instance holding
+ * its transaction-scoped Postgres advisory lock. Instances visit the shards starting at a random offset and skip a
+ * shard whose lock is taken, so concurrent sweeps spread over the shards instead of contending on the same rows.
+ * The locks live only as long as a batch transaction, so when an instance dies its shards are picked up by the next
+ * sweep of any other instance, and a replica finding nothing to do costs one lock attempt per shard.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class PaymentExpirationService {
 
 
+    // Expirations are fired on time by PaymentExpirationScheduler; the sweep only catches what it missed
     private static final long FIXED_RATE = 15 * 60 * 1000L;    // every 15 minutes
 
-    private final PaymentExpirationRepository expirationRepository;
-    private final BookingRepository bookingRepository;
+    private final ExpirationSweepMode sweepMode;
+    private final int batchSize;
+    private final int shards;
     private final PaymentRepository paymentRepository;
     private final Clock clock;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public PaymentExpirationService(@Value("${payment.expiration.sweep-mode:CHUNKED}") ExpirationSweepMode sweepMode,
+                                    @Value("${payment.expiration.batch-size:500}") int batchSize,
+                                    @Value("${payment.expiration.shards:16}") int shards,
+                                    PaymentRepository paymentRepository,
+                                    Clock clock, ApplicationEventPublisher eventPublisher,
+                                    PlatformTransactionManager transactionManager) {
+        this.sweepMode = sweepMode;
+        this.batchSize = batchSize;
+        this.shards = shards;
+        this.paymentRepository = paymentRepository;
+        this.clock = clock;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     @Scheduled(fixedRate = FIXED_RATE)
-    @Transactional
+    @Timed(value = "payment.expiration.sweep", description = "Expired payment sweeps", histogram = true)
     public void processExpiredPayments() {
         LocalDateTime now = LocalDateTime.now(clock);
         log.info("Running payment expiration task at {}", now);
 
-        List<PaymentExpiration> expiredList = expirationRepository.findAllByExpirationDateTimeBefore(now);
-        log.debug("Found {} expired payment(s)", expiredList.size());
-
-        for (PaymentExpiration expiration : expiredList) {
-            Payment payment = expiration.getPayment();
-            Booking booking = payment.getBooking();
-
-            log.info("Processing expired payment with ID: {}, booking ID: {}",
-                    payment.getId(), booking.getId());
+        int offset = ThreadLocalRandom.current().nextInt(shards);
+        int total = 0;
+        for (int i = 0; i < shards; i++) {
+            int shard = (offset + i) % shards;
+            total += sweepMode == ExpirationSweepMode.CHUNKED ? expireInBatches(now, shard) : expireShard(now, shard);
+        }
+        log.info("Expired {} payment(s)", total);
 
-            // Update booking status
-            booking.setStatus(BookingStatus.CANCELLED);
-            bookingRepository.save(booking);
-            log.debug("Cancelled booking ID: {}", booking.getId());
+        log.info("Payment expiration task completed");
+    }
 
-            // Update payment status
-            payment.setStatus(PaymentStatus.FAILED);
-            paymentRepository.save(payment);
-            log.debug("Marked payment ID: {} as FAILED", payment.getId());
+    /**
+     * Expires a single payment if its deadline has passed and it is still awaiting processing.
+     *
+     * @param paymentId the identifier of the payment
+     */
+    @Transactional
+    public void expirePayment(Long paymentId) {
+        // Every instance's timing wheel fires the same deadline; the first one to lock the record expires it
+        paymentRepository.expirePayment(paymentId, LocalDateTime.now(clock))
+                            .ifPresentOrElse(expired -> {
+                                log.info("Expired payment ID: {}, cancelled booking ID: {}",
+                                         paymentId, expired.bookingId());
+                                eventPublisher.publishEvent(
+                                        BookingStatusChangedEvent.of(expired, BookingStatus.CANCELLED));
+                            }, () -> log.debug("Payment ID: {} is no longer due to expire", paymentId));
+    }
 
-            // Remove expiration record
-            expirationRepository.delete(expiration);
-            log.debug("Deleted expiration record for payment ID: {}", payment.getId());
-        }
+    /**
+     * Drains the expired payments of a shard in batches of {@code batchSize}, each expired by one statement in its
+     * own transaction under the shard lock, until a batch comes back short or the lock is taken by another instance.
+     *
+     * @return the number of expired payments
+     */
+    private int expireInBatches(LocalDateTime now, int shard) {
+        int total = 0;
+        List<PaymentTransition> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                if (!paymentRepository.tryLockShard(shard)) {
+                    log.debug("Expiration shard {} is being swept by another instance", shard);
+                    return null;
+                }
+                List<PaymentTransition> expired = paymentRepository.expireDue(now, batchSize, shard, shards);
+                expired.forEach(payment -> eventPublisher.publishEvent(
+                        BookingStatusChangedEvent.of(payment, BookingStatus.CANCELLED)));
+                return expired;
+            });
+            if (batch == null) {
+                break;
+            }
+            total += batch.size();
+            log.debug("Expired batch of {} payment(s) in shard {}", batch.size(), shard);
+        } while (batch.size() == batchSize);
+        return total;
+    }
 
-        log.info("Payment expiration task completed");
+    /**
+     * Expires the expired payments of a shard entity by entity in one transaction under the shard lock. Each payment
+     * goes through the same guarded statement as a single expiration, so one completed in the meantime is left alone
+     * and the processing job of an expired one is deleted with it.
+     *
+     * @return the number of expired payments
+     */
+    private int expireShard(LocalDateTime now, int shard) {
+        Integer expired = transactionTemplate.execute(status -> {
+            if (!paymentRepository.tryLockShard(shard)) {
+                log.debug("Expiration shard {} is being swept by another instance", shard);
+                return 0;
+            }
+            List<Payment> dueList = paymentRepository.findAllDueInShard(now, shard, shards);
+            log.debug("Found {} expired payment(s) in shard {}", dueList.size(), shard);
+            int count = 0;
+            for (Payment payment : dueList) {
+                Optional<PaymentTransition> transition = paymentRepository.expirePayment(payment.getId(), now);
+                transition.ifPresent(expiredPayment -> {
+                    log.info("Expired payment ID: {}, cancelled booking ID: {}",
+                             expiredPayment.paymentId(), expiredPayment.bookingId());
+                    eventPublisher.publishEvent(BookingStatusChangedEvent.of(expiredPayment, BookingStatus.CANCELLED));
+                });
+                count += transition.isPresent() ? 1 : 0;
+            }
+            return count;
+        });
+        return expired == null ? 0 : expired;
     }
 }
@@ -5,6 +5,7 @@ import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Unit;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing payments related to bookings.
@@ -21,17 +22,38 @@ public interface PaymentService {
     void initiatePayment(Booking booking, Unit unit);
 
     /**
-     * Processes the payment with the given ID.
-     * Used to simulate payment completion or failure.
+     * Initiates payments for several bookings at once.
+     * The payments, which carry their own expiration time, and their processing jobs are written with one JDBC
+     * batch each; the amount is taken from the total cost of each booking's unit.
+     *
+     * @param bookings the persisted bookings for which payments should be initiated
+     */
+    void initiatePayments(List<Booking> bookings);
+
+    /**
+     * Completes the payment with the given ID and confirms its booking.
+     * Nothing changes if the payment is no longer INITIATED, e.g. because it expired concurrently.
      *
      * @param paymentId the ID of the payment to be processed
+     * @return {@code true} if the payment is completed, {@code false} if it failed and the captured amount has to
+     * be given back
+     * @throws com.example.bookingsystem.exception.ResourceNotFoundException if the payment does not exist
      */
-    void processPayment(Long paymentId);
+    boolean processPayment(Long paymentId);
 
     /**
-     * Retrieves all payment records as DTOs.
+     * Retrieves a page of payment records ordered by ID, starting after the given ID.
      *
+     * @param afterId the last ID of the previous page, or {@code null} for the first page
+     * @param size    the maximum number of payments to return
      * @return list of {@link PaymentDto}
      */
-    List<PaymentDto> getAll();
+    List<PaymentDto> getAll(Long afterId, int size);
+
+    /**
+     * Passes every payment record, ordered by ID, to the given action without holding them all in memory.
+     *
+     * @param action the consumer invoked for each {@link PaymentDto}
+     */
+    void streamAll(Consumer<PaymentDto> action);
 }
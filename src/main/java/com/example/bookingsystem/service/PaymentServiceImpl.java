@@ -1,118 +1,151 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.PaymentDto;
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
 import com.example.bookingsystem.exception.ResourceNotFoundException;
-import com.example.bookingsystem.mapper.PaymentMapper;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Payment;
-import com.example.bookingsystem.model.PaymentExpiration;
+import com.example.bookingsystem.model.PaymentJob;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.enums.BookingStatus;
 import com.example.bookingsystem.model.enums.PaymentStatus;
-import com.example.bookingsystem.repository.BookingRepository;
-import com.example.bookingsystem.repository.PaymentExpirationRepository;
+import com.example.bookingsystem.repository.PaymentJobRepository;
 import com.example.bookingsystem.repository.PaymentRepository;
+import com.example.bookingsystem.scheduling.PaymentExpirationScheduler;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
-    protected static final long EXPIRATION_PAYMENT_MINUTES = 2;
-    private final double paymentSuccessProbability;
-
-    private static final long PAYMENT_PROCESSING_DELAY_MINUTES = 2;
+    public static final long EXPIRATION_PAYMENT_MINUTES = 2;
+    // Time until the payment is charged through the gateway, shorter than the expiration
+    private final long processingDelaySeconds;
 
     private final PaymentRepository paymentRepository;
-    private final BookingRepository bookingRepository;
-    private final PaymentExpirationRepository paymentExpirationRepository;
-    private final PaymentMapper paymentMapper;
-    private final Executor virtualThreadExecutor;
+    private final PaymentJobRepository paymentJobRepository;
     private final Clock clock;
-
-    public PaymentServiceImpl(@Value("${payment.success.probability}") double paymentSuccessProbability,
-                              PaymentRepository paymentRepository, BookingRepository bookingRepository,
-                              PaymentExpirationRepository paymentExpirationRepository, PaymentMapper paymentMapper,
-                              Executor virtualThreadExecutor, Clock clock) {
-        this.paymentSuccessProbability = paymentSuccessProbability;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentExpirationScheduler expirationScheduler;
+
+    public PaymentServiceImpl(@Value("${payment.jobs.delay-seconds:60}") long processingDelaySeconds,
+                              PaymentRepository paymentRepository,
+                              PaymentJobRepository paymentJobRepository, Clock clock,
+                              ApplicationEventPublisher eventPublisher, PaymentExpirationScheduler expirationScheduler) {
+        this.processingDelaySeconds = processingDelaySeconds;
         this.paymentRepository = paymentRepository;
-        this.bookingRepository = bookingRepository;
-        this.paymentExpirationRepository = paymentExpirationRepository;
-        this.paymentMapper = paymentMapper;
-        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.paymentJobRepository = paymentJobRepository;
         this.clock = clock;
+        this.eventPublisher = eventPublisher;
+        this.expirationScheduler = expirationScheduler;
     }
 
     @Override
     @Transactional
+    @Timed(value = "payment.initiate", description = "Payment initiation for a single booking", histogram = true)
     public void initiatePayment(Booking booking, Unit unit) {
         log.info("Initiating payment for booking ID: {}", booking.getId());
 
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime expirationTime = now.plusMinutes(EXPIRATION_PAYMENT_MINUTES);
         Payment payment = new Payment();
         payment.setBooking(booking);
         payment.setAmount(unit.getTotalCost());
         payment.setStatus(PaymentStatus.INITIATED);
+        payment.setExpiresAt(expirationTime);
         paymentRepository.save(payment);
-        log.debug("Saved payment with ID: {} and status: {}", payment.getId(), payment.getStatus());
-
-        LocalDateTime expirationTime = LocalDateTime.now(clock).plusMinutes(PAYMENT_PROCESSING_DELAY_MINUTES);
-        PaymentExpiration expiration = PaymentExpiration.builder()
-                                                        .payment(payment)
-                                                        .expirationDateTime(expirationTime)
-                                                        .build();
-        paymentExpirationRepository.save(expiration);
-        log.debug("Saved expiration for payment ID: {} at {}", payment.getId(), expirationTime);
-
-        if (Math.random() < paymentSuccessProbability) {
-            log.info("Payment ID: {} will be processed asynchronously after {} minutes", payment.getId(), PAYMENT_PROCESSING_DELAY_MINUTES);
-            CompletableFuture.runAsync(
-                    () -> processPayment(payment.getId()),
-                    CompletableFuture.delayedExecutor(PAYMENT_PROCESSING_DELAY_MINUTES, TimeUnit.MINUTES, virtualThreadExecutor)
-            );
-        } else {
-            log.warn("Simulated payment failure for payment ID: {}", payment.getId());
-        }
+        log.debug("Saved payment with ID: {} and status: {}, expiring at {}",
+                  payment.getId(), payment.getStatus(), expirationTime);
+        expirationScheduler.schedule(payment.getId(), expirationTime);
+
+        paymentJobRepository.save(PaymentJob.builder()
+                                            .payment(payment)
+                                            .dueAt(now.plusSeconds(processingDelaySeconds))
+                                            .build());
+        log.debug("Enqueued processing job for payment ID: {}", payment.getId());
+    }
+
+    @Override
+    @Transactional
+    public void initiatePayments(List<Booking> bookings) {
+        log.info("Initiating {} payment(s)", bookings.size());
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime expirationTime = now.plusMinutes(EXPIRATION_PAYMENT_MINUTES);
+        List<Payment> payments = bookings.stream()
+                                         .map(booking -> Payment.builder()
+                                                                .booking(booking)
+                                                                .amount(booking.getUnit().getTotalCost())
+                                                                .status(PaymentStatus.INITIATED)
+                                                                .expiresAt(expirationTime)
+                                                                .build())
+                                         .toList();
+        paymentRepository.insertAll(payments);
+        log.debug("Saved {} payment(s) with expiration at {}", payments.size(), expirationTime);
+
+        payments.forEach(payment -> expirationScheduler.schedule(payment.getId(), expirationTime));
+
+        List<PaymentJob> jobs = payments.stream()
+                                        .map(payment -> PaymentJob.builder()
+                                                                  .payment(payment)
+                                                                  .dueAt(now.plusSeconds(processingDelaySeconds))
+                                                                  .build())
+                                        .toList();
+        paymentJobRepository.insertAll(jobs);
+        log.debug("Enqueued {} processing job(s)", jobs.size());
     }
 
+    @Override
     @Transactional
-    public void processPayment(Long paymentId) {
+    public boolean processPayment(Long paymentId) {
         log.info("Processing payment ID: {}", paymentId);
 
+        Optional<PaymentTransition> transition = paymentRepository.complete(paymentId);
+        if (transition.isPresent()) {
+            PaymentTransition completed = transition.get();
+            log.info("Payment ID: {} marked as COMPLETED, booking ID: {} marked as CONFIRMED",
+                     paymentId, completed.bookingId());
+            expirationScheduler.cancel(paymentId);
+            eventPublisher.publishEvent(BookingStatusChangedEvent.of(completed, BookingStatus.CONFIRMED));
+            return true;
+        }
+
         Payment payment = paymentRepository.findById(paymentId)
                                            .orElseThrow(() -> {
                                                log.error("Payment not found for ID: {}", paymentId);
                                                return new ResourceNotFoundException("Payment not found: ID = " + paymentId);
                                            });
+        // Lost the race against the expiration, or processed twice
+        log.warn("Payment ID: {} is no longer awaiting processing, left {}", paymentId, payment.getStatus());
+        return payment.getStatus() == PaymentStatus.COMPLETED;
+    }
 
-        payment.setStatus(PaymentStatus.COMPLETED);
-        paymentRepository.save(payment);
-        log.info("Payment ID: {} marked as COMPLETED", paymentId);
-
-        paymentExpirationRepository.deleteByPayment(payment);
-        log.debug("Deleted expiration record for payment ID: {}", paymentId);
-
-        Booking booking = payment.getBooking();
-        booking.setStatus(BookingStatus.CONFIRMED);
-        bookingRepository.save(booking);
-        log.info("Booking ID: {} marked as CONFIRMED", booking.getId());
+    @Override
+    public List<PaymentDto> getAll(Long afterId, int size) {
+        log.info("Fetching up to {} payments after ID: {}", size, afterId);
+        return paymentRepository.findDtosByIdGreaterThan(afterId == null ? 0L : afterId, PageRequest.of(0, size));
     }
 
     @Override
-    public List<PaymentDto> getAll() {
-        log.info("Fetching all payments");
-        return paymentRepository.findAll()
-                                .stream()
-                                .map(paymentMapper::toDto)
-                                .toList();
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PaymentDto> action) {
+        log.info("Streaming all payments");
+        try (Stream<PaymentDto> payments = paymentRepository.streamAllDtos()) {
+            payments.forEach(action);
+        }
     }
 }
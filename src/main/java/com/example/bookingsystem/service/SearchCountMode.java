@@ -0,0 +1,20 @@
+package com.example.bookingsystem.service;
+
+/**
+ * How a scrolling unit search reports the total number of matches.
+ */
+public enum SearchCountMode {
+    /**
+     * No total is computed; the slice only tells whether more results follow.
+     */
+    NONE,
+    /**
+     * The total is counted with the full search, including the availability filter.
+     */
+    EXACT,
+    /**
+     * The units matching the attribute filters are counted and scaled by the share of units available in the
+     * date range, which comes from the availability count cache instead of the availability subquery.
+     */
+    ESTIMATE
+}
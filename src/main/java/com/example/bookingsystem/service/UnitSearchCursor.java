@@ -0,0 +1,124 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.exception.InvalidCursorException;
+import com.example.bookingsystem.model.Unit;
+import com.example.bookingsystem.specification.UnitSpecification;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Opaque seek cursor of a scrolling unit search: the sort key value and ID of the last unit of a slice.
+ * <p>
+ * The cursor also records the sort property and direction it was produced for, so it cannot be replayed against
+ * a different order. It is encoded as URL-safe Base64 and is not meant to be interpreted by clients.
+ *
+ * @param sortBy    the sort property
+ * @param ascending the sort direction
+ * @param value     the sort key value of the last unit
+ * @param id        the ID of the last unit
+ */
+record UnitSearchCursor(String sortBy, boolean ascending, Comparable<?> value, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Sort properties usable for seek pagination: non-null columns, with a parser for their cursor values.
+     */
+    private static final Map<String, SortKey> SORT_KEYS = Map.of(
+            "id", new SortKey(UnitDto::getId, Long::valueOf),
+            "numberOfRooms", new SortKey(UnitDto::getNumberOfRooms, Integer::valueOf),
+            "floor", new SortKey(UnitDto::getFloor, Integer::valueOf),
+            "baseCost", new SortKey(UnitDto::getBaseCost, BigDecimal::new),
+            "totalCost", new SortKey(UnitDto::getTotalCost, BigDecimal::new));
+
+    private record SortKey(Function<UnitDto, Comparable<?>> extractor, Function<String, Comparable<?>> parser) {
+    }
+
+    /**
+     * Builds the seek order for the sort property: the property itself, then the ID to break ties.
+     *
+     * @param sortBy    the sort property
+     * @param ascending the sort direction
+     * @return the sort
+     * @throws InvalidCursorException if the property cannot be used for seek pagination
+     */
+    static @NotNull Sort sort(String sortBy, boolean ascending) {
+        sortKey(sortBy);
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+    }
+
+    /**
+     * Creates the cursor positioned after the given unit.
+     *
+     * @param sortBy    the sort property
+     * @param ascending the sort direction
+     * @param last      the last unit of a slice
+     * @return a new cursor
+     */
+    static @NotNull UnitSearchCursor after(String sortBy, boolean ascending, @NotNull UnitDto last) {
+        return new UnitSearchCursor(sortBy, ascending, sortKey(sortBy).extractor().apply(last), last.getId());
+    }
+
+    /**
+     * Decodes a cursor produced for the same sort property and direction.
+     *
+     * @param encoded   the opaque cursor
+     * @param sortBy    the requested sort property
+     * @param ascending the requested sort direction
+     * @return the decoded cursor
+     * @throws InvalidCursorException if the cursor is malformed or was produced for another order
+     */
+    static @NotNull UnitSearchCursor decode(@NotNull String encoded, String sortBy, boolean ascending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (parts.length != 4 || !parts[0].equals(sortBy) || !parts[1].equals(ascending ? "a" : "d")) {
+            throw new InvalidCursorException("Cursor does not belong to sort " + sortBy + (ascending ? " asc" : " desc"));
+        }
+        try {
+            return new UnitSearchCursor(sortBy, ascending, sortKey(sortBy).parser().apply(parts[2]),
+                    Long.valueOf(parts[3]));
+        } catch (NumberFormatException exception) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+
+    /**
+     * Encodes the cursor for the client.
+     *
+     * @return the opaque cursor
+     */
+    @NotNull String encode() {
+        String raw = sortBy + SEPARATOR + (ascending ? "a" : "d") + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Restricts a search to the units after this cursor in the seek order.
+     *
+     * @return the seek predicate
+     */
+    @NotNull Specification<Unit> toSpecification() {
+        return UnitSpecification.isAfter(sortBy, value, id, ascending);
+    }
+
+    private static SortKey sortKey(String sortBy) {
+        SortKey key = SORT_KEYS.get(sortBy);
+        if (key == null) {
+            throw new InvalidCursorException("Unsupported sort property for cursor pagination: " + sortBy);
+        }
+        return key;
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
 import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.dto.UnitSlice;
 import org.springframework.data.domain.Page;
 
 import java.time.LocalDate;
@@ -42,10 +44,29 @@ public interface UnitService {
                               int page, int size, String sortBy, String sortDir);
 
     /**
-     * Evicts the booking cache for units overlapping with the specified date range.
+     * Searches units like {@link #searchUnits} but paginates by an opaque seek cursor over the sort key and ID,
+     * so deep slices cost the same as the first one and no count is issued unless requested.
      *
-     * @param changedStart the start date of the changed period
-     * @param changedEnd   the end date of the changed period
+     * @param criteria  the search criteria
+     * @param cursor    the cursor returned with the previous slice, or {@code null} for the first slice
+     * @param size      the size of the slice
+     * @param sortBy    the property to sort by: id, numberOfRooms, floor, baseCost or totalCost
+     * @param sortDir   the direction of sort, e.g., "asc" or "desc"
+     * @param countMode whether and how to compute the total number of matches
+     * @return the slice with the cursor of the next one
+     * @throws com.example.bookingsystem.exception.InvalidCursorException if the cursor is malformed, belongs to
+     *                                                                    another order or the sort property is
+     *                                                                    not supported
      */
-    void evictBookingCacheByOverlappingDateRange(LocalDate changedStart, LocalDate changedEnd);
+    UnitSlice scrollUnits(UnitSearchCriteria criteria, String cursor, int size,
+                          String sortBy, String sortDir, SearchCountMode countMode);
+
+    /**
+     * Counts the units matching the search criteria per accommodation type, number of rooms and floor, so all
+     * facets of a search are computed at once instead of with a search per value.
+     *
+     * @param criteria the search criteria, applied as in {@link #searchUnits}
+     * @return the facet counts
+     */
+    UnitFacets getFacets(UnitSearchCriteria criteria);
 }
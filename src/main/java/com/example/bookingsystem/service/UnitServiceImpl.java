@@ -1,16 +1,24 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
 import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.dto.UnitSlice;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.index.AvailabilityCountCache;
+import com.example.bookingsystem.index.OccupancyBitmapEngine;
+import com.example.bookingsystem.index.UnitCatalog;
+import com.example.bookingsystem.index.UnitSearchCache;
 import com.example.bookingsystem.mapper.UnitMapper;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.repository.UnitRepository;
 import com.example.bookingsystem.specification.UnitSpecification;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.jetbrains.annotations.Contract;
-import org.jetbrains.annotations.NotNull;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -18,33 +26,51 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UnitServiceImpl implements UnitService {
 
+    /**
+     * Largest unit ID list handed to the database instead of the availability subquery.
+     */
+    private static final int MAX_UNIT_ID_FILTER_SIZE = 10_000;
+
     private final UnitRepository unitRepository;
     private final UnitMapper unitMapper;
-
-    private final ConcurrentMap<String, Long> cache = new ConcurrentHashMap<>();
+    private final OccupancyBitmapEngine occupancyEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AvailabilityCountCache availabilityCache;
+    private final UnitSearchCache searchCache;
+    private final UnitCatalog unitCatalog;
 
     @Override
+    @Timed(value = "unit.availability.count", description = "Available unit count lookups", histogram = true)
     public long getAvailableUnitsCount(LocalDate startDate, LocalDate endDate) {
-        String key = generateKey(startDate, endDate);
         log.debug("Checking available units for date range: {} to {}", startDate, endDate);
 
-        long count = cache.computeIfAbsent(key, k -> {
-            log.info("Cache miss for key '{}', querying database...", k);
+        long count = availabilityCache.computeIfAbsent(startDate, endDate, () -> {
+            if (occupancyEngine.covers(startDate, endDate)) {
+                long result = occupancyEngine.countAvailable(startDate, endDate);
+                log.info("Cache miss for {} - {}, counted {} available units from occupancy bitmaps", startDate, endDate, result);
+                return result;
+            }
+            log.info("Cache miss for {} - {}, querying database...", startDate, endDate);
             Specification<Unit> spec = Specification.where(UnitSpecification.isAvailableWithinDates(startDate, endDate));
             long result = unitRepository.count(spec);
-            log.info("Found {} available units for key '{}'", result, k);
+            log.info("Found {} available units for {} - {}", result, startDate, endDate);
             return result;
         });
 
-        log.debug("Returning cached count {} for key '{}'", count, key);
+        log.debug("Returning count {} for {} - {}", count, startDate, endDate);
         return count;
     }
 
@@ -54,48 +80,178 @@ public class UnitServiceImpl implements UnitService {
         Unit entity = unitMapper.toEntity(dto);
         Unit saved = unitRepository.save(entity);
         log.info("Unit saved with ID: {}", saved.getId());
-        return unitMapper.toDto(saved);
+        UnitDto result = unitMapper.toDto(saved);
+        eventPublisher.publishEvent(new UnitCreatedEvent(result));
+        return result;
     }
 
     @Override
+    @Timed(value = "unit.search", description = "Unit searches", histogram = true)
     public Page<UnitDto> searchUnits(UnitSearchCriteria criteria,
                                      int page, int size, String sortBy, String sortDir) {
         log.info("Searching units with criteria: {}, page: {}, size: {}, sortBy: {}, sortDir: {}",
                 criteria, page, size, sortBy, sortDir);
 
-        Specification<Unit> spec = Specification
-                .where(UnitSpecification.hasNumberOfRooms(criteria.getNumberOfRooms()))
-                .and(UnitSpecification.hasType(criteria.getType()))
-                .and(UnitSpecification.hasFloor(criteria.getFloor()))
-                .and(UnitSpecification.hasMaxCost(criteria.getMaxCost()))
-                .and(UnitSpecification.isAvailableWithinDates(criteria.getStartDate(), criteria.getEndDate()));
+        UnitSearchCache.Key key = UnitSearchCache.Key.of(criteria, page, size, sortBy, sortDir);
+        Page<UnitDto> result = searchCache.computeIfAbsent(key, () -> {
+            boolean ascending = sortDir.equalsIgnoreCase("asc");
+            Sort sort = ascending ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+            Pageable pageable = PageRequest.of(page, size, sort);
 
-        Sort sort = sortDir.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+            Optional<long[]> catalogIds = catalogSearch(criteria, sortBy, ascending);
+            if (catalogIds.isPresent()) {
+                log.debug("Using unit catalog for search, {} unit(s) matched", catalogIds.get().length);
+                return fetchPage(catalogIds.get(), pageable);
+            }
 
-        Page<UnitDto> result = unitRepository.findAll(spec, pageable).map(unitMapper::toDto);
+            Specification<Unit> spec = attributeFilters(criteria)
+                    .and(availableWithinDates(criteria.getStartDate(), criteria.getEndDate()));
+            return unitRepository.findDtos(spec, pageable);
+        });
         log.debug("Found {} units matching search criteria", result.getTotalElements());
         return result;
     }
 
     @Override
-    public void evictBookingCacheByOverlappingDateRange(LocalDate changedStart, LocalDate changedEnd) {
-        log.info("Evicting cache entries overlapping with range: {} to {}", changedStart, changedEnd);
-        int before = cache.size();
-        cache.keySet().removeIf(key -> overlaps(key, changedStart, changedEnd));
-        int after = cache.size();
-        log.debug("Cache size before: {}, after eviction: {}", before, after);
+    @Timed(value = "unit.search.scroll", description = "Scrolling unit searches", histogram = true)
+    public UnitSlice scrollUnits(UnitSearchCriteria criteria, String cursor, int size,
+                                 String sortBy, String sortDir, SearchCountMode countMode) {
+        log.info("Scrolling units with criteria: {}, cursor: {}, size: {}, sortBy: {}, sortDir: {}, count: {}",
+                criteria, cursor, size, sortBy, sortDir, countMode);
+
+        boolean ascending = sortDir.equalsIgnoreCase("asc");
+        Sort sort = UnitSearchCursor.sort(sortBy, ascending);
+        Specification<Unit> filters = attributeFilters(criteria)
+                .and(availableWithinDates(criteria.getStartDate(), criteria.getEndDate()));
+        Specification<Unit> spec = cursor == null
+                ? filters
+                : filters.and(UnitSearchCursor.decode(cursor, sortBy, ascending).toSpecification());
+
+        // One extra row tells whether another slice follows without counting
+        List<UnitDto> units = unitRepository.findDtoSlice(spec, sort, size + 1);
+        boolean hasNext = units.size() > size;
+        List<UnitDto> content = hasNext ? units.subList(0, size) : units;
+        String nextCursor = hasNext ? UnitSearchCursor.after(sortBy, ascending, content.get(size - 1)).encode() : null;
+
+        boolean dated = criteria.getStartDate() != null && criteria.getEndDate() != null;
+        Long totalCount = switch (countMode) {
+            case NONE -> null;
+            case EXACT -> unitRepository.count(filters);
+            case ESTIMATE -> estimateCount(criteria, dated);
+        };
+        log.debug("Scrolled {} units, hasNext: {}, total: {}", content.size(), hasNext, totalCount);
+        return new UnitSlice(List.copyOf(content), hasNext, nextCursor, totalCount,
+                countMode == SearchCountMode.ESTIMATE && dated);
+    }
+
+    @Override
+    @Timed(value = "unit.search.facets", description = "Unit search facet counts", histogram = true)
+    public UnitFacets getFacets(UnitSearchCriteria criteria) {
+        log.info("Counting unit facets with criteria: {}", criteria);
+
+        if (availabilityInMemory(criteria)) {
+            Optional<UnitFacets> facets = unitCatalog.facets(criteria, availableUnits(criteria));
+            if (facets.isPresent()) {
+                log.debug("Counted facets of {} units from the unit catalog", facets.get().total());
+                return facets.get();
+            }
+        }
+        Specification<Unit> spec = attributeFilters(criteria)
+                .and(availableWithinDates(criteria.getStartDate(), criteria.getEndDate()));
+        UnitFacets facets = unitRepository.countFacets(spec);
+        log.debug("Counted facets of {} units from the database", facets.total());
+        return facets;
     }
 
-    @Contract(pure = true)
-    private @NotNull String generateKey(LocalDate startDate, LocalDate endDate) {
-        return startDate + "_" + endDate;
+    /**
+     * Estimates the matches of a search without the availability subquery: the units matching the attribute
+     * filters, scaled by the share of all units that are available in the date range.
+     */
+    private long estimateCount(UnitSearchCriteria criteria, boolean dated) {
+        long matching = unitRepository.count(attributeFilters(criteria));
+        if (!dated || matching == 0) {
+            return matching;
+        }
+        long total = unitRepository.count();
+        if (total == 0) {
+            return 0;
+        }
+        long available = getAvailableUnitsCount(criteria.getStartDate(), criteria.getEndDate());
+        return Math.round((double) matching * available / total);
+    }
+
+    /**
+     * Matches and sorts the units in the in-memory catalog, taking availability from the occupancy bitmaps.
+     * Empty if either cannot answer the search, in which case it runs in the database.
+     */
+    private Optional<long[]> catalogSearch(UnitSearchCriteria criteria, String sortBy, boolean ascending) {
+        if (!availabilityInMemory(criteria)) {
+            return Optional.empty();
+        }
+        return unitCatalog.matchingIds(criteria, availableUnits(criteria), sortBy, ascending);
+    }
+
+    /**
+     * Whether the availability part of a search can be answered without the database: the search has no date
+     * range, or the occupancy bitmaps cover it.
+     */
+    private boolean availabilityInMemory(UnitSearchCriteria criteria) {
+        return criteria.getStartDate() == null || criteria.getEndDate() == null
+                || occupancyEngine.covers(criteria.getStartDate(), criteria.getEndDate());
+    }
+
+    /**
+     * The bitmap of the units available in the date range of a search, or {@code null} if it has none.
+     */
+    private long[] availableUnits(UnitSearchCriteria criteria) {
+        if (criteria.getStartDate() == null || criteria.getEndDate() == null) {
+            return null;
+        }
+        return occupancyEngine.availableUnits(criteria.getStartDate(), criteria.getEndDate());
+    }
+
+    /**
+     * Fetches the rows of the requested page of an already matched and sorted ID list.
+     */
+    private Page<UnitDto> fetchPage(long[] ids, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.length);
+        int to = Math.min(from + pageable.getPageSize(), ids.length);
+        List<Long> pageIds = Arrays.stream(ids, from, to).boxed().toList();
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.length);
+        }
+        Map<Long, UnitDto> rows = unitRepository.findDtoSlice(UnitSpecification.hasIdIn(pageIds), Sort.unsorted(),
+                                                        pageIds.size())
+                                                .stream()
+                                                .collect(Collectors.toMap(UnitDto::getId, Function.identity()));
+        List<UnitDto> content = pageIds.stream().map(rows::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(content, pageable, ids.length);
+    }
+
+    private static Specification<Unit> attributeFilters(UnitSearchCriteria criteria) {
+        return Specification
+                .where(UnitSpecification.hasNumberOfRooms(criteria.getNumberOfRooms()))
+                .and(UnitSpecification.hasType(criteria.getType()))
+                .and(UnitSpecification.hasFloor(criteria.getFloor()))
+                .and(UnitSpecification.hasMaxCost(criteria.getMaxCost()));
     }
 
-    private boolean overlaps(@NotNull String key, LocalDate changedStart, LocalDate changedEnd) {
-        String[] parts = key.split("_");
-        LocalDate keyStart = LocalDate.parse(parts[0]);
-        LocalDate keyEnd = LocalDate.parse(parts[1]);
-        return !keyStart.isAfter(changedEnd) && !changedStart.isAfter(keyEnd);
+    /**
+     * Resolves the availability filter from the occupancy bitmaps when they cover the range, turning the
+     * correlated booking subquery into a plain unit ID predicate.
+     */
+    private Specification<Unit> availableWithinDates(LocalDate startDate, LocalDate endDate) {
+        if (occupancyEngine.covers(startDate, endDate)) {
+            Optional<OccupancyBitmapEngine.UnitIdFilter> filter =
+                    occupancyEngine.availabilityFilter(startDate, endDate, MAX_UNIT_ID_FILTER_SIZE);
+            if (filter.isPresent()) {
+                log.debug("Using occupancy bitmaps for availability filter: include={}, ids={}",
+                        filter.get().include(), filter.get().ids().size());
+                return filter.get().include()
+                        ? UnitSpecification.hasIdIn(filter.get().ids())
+                        : UnitSpecification.hasIdNotIn(filter.get().ids());
+            }
+        }
+        return UnitSpecification.isAvailableWithinDates(startDate, endDate);
     }
 }
@@ -3,6 +3,7 @@ package com.example.bookingsystem.service;
 import com.example.bookingsystem.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing users.
@@ -10,9 +11,18 @@ import java.util.List;
 public interface UserService {
 
     /**
-     * Retrieves all users.
+     * Retrieves a page of users ordered by ID, starting after the given ID.
      *
-     * @return list of all users as {@link UserDto}
+     * @param afterId the last ID of the previous page, or {@code null} for the first page
+     * @param size    the maximum number of users to return
+     * @return list of users as {@link UserDto}
      */
-    List<UserDto> getAll();
+    List<UserDto> getAll(Long afterId, int size);
+
+    /**
+     * Passes every user, ordered by ID, to the given action without holding them all in memory.
+     *
+     * @param action the consumer invoked for each {@link UserDto}
+     */
+    void streamAll(Consumer<UserDto> action);
 }
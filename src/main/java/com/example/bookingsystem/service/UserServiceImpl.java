@@ -1,13 +1,16 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.UserDto;
-import com.example.bookingsystem.mapper.UserMapper;
 import com.example.bookingsystem.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -15,15 +18,21 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final UserMapper userMapper;
 
     @Override
-    public List<UserDto> getAll() {
-        log.info("Fetching all users from the database");
-        List<UserDto> users = userRepository.findAll().stream()
-                                            .map(userMapper::toDto)
-                                            .toList();
+    public List<UserDto> getAll(Long afterId, int size) {
+        log.info("Fetching up to {} users after ID: {} from the database", size, afterId);
+        List<UserDto> users = userRepository.findDtosByIdGreaterThan(afterId == null ? 0L : afterId, PageRequest.of(0, size));
         log.debug("Found {} users", users.size());
         return users;
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserDto> action) {
+        log.info("Streaming all users from the database");
+        try (Stream<UserDto> users = userRepository.streamAllDtos()) {
+            users.forEach(action);
+        }
+    }
 }
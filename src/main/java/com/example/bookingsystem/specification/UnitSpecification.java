@@ -1,9 +1,12 @@
 package com.example.bookingsystem.specification;
 
+import com.example.bookingsystem.config.PostgresFunctionContributor;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.enums.AccommodationType;
 import com.example.bookingsystem.model.enums.BookingStatus;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Subquery;
 import org.jetbrains.annotations.Contract;
@@ -12,6 +15,7 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 
 public class UnitSpecification {
 
@@ -71,17 +75,60 @@ public class UnitSpecification {
             subquery.where(
                     criteriaBuilder.equal(booking.get("unit").get("id"), root.get("id")),
                     criteriaBuilder.notEqual(booking.get("status"), BookingStatus.CANCELLED),
-                    criteriaBuilder.or(
-                            criteriaBuilder.between(booking.get("startDate"), startDate, endDate),
-                            criteriaBuilder.between(booking.get("endDate"), startDate, endDate),
-                            criteriaBuilder.and(
-                                    criteriaBuilder.lessThanOrEqualTo(booking.get("startDate"), startDate),
-                                    criteriaBuilder.greaterThanOrEqualTo(booking.get("endDate"), endDate)
-                            )
-                    )
+                    criteriaBuilder.isTrue(criteriaBuilder.function(
+                            PostgresFunctionContributor.DATE_RANGE_OVERLAPS, Boolean.class,
+                            booking.get("period"), criteriaBuilder.literal(startDate), criteriaBuilder.literal(endDate)))
             );
 
             return criteriaBuilder.equal(subquery, 0L);
         };
     }
-}
\ No newline at end of file
+
+    @Contract(pure = true)
+    public static @NotNull Specification<Unit> hasIdIn(@NotNull Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> {
+            if (ids.isEmpty()) {
+                return criteriaBuilder.disjunction();
+            }
+            return root.get("id").in(ids);
+        };
+    }
+
+    @Contract(pure = true)
+    public static @NotNull Specification<Unit> hasIdNotIn(@NotNull Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> {
+            if (ids.isEmpty()) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.not(root.get("id").in(ids));
+        };
+    }
+
+    /**
+     * Matches the units strictly after a seek position in the order of {@code property}, then ID.
+     *
+     * @param property  the sort property, a non-null column
+     * @param value     the sort key value at the seek position
+     * @param id        the ID at the seek position, breaking ties between equal sort keys
+     * @param ascending the sort direction, applied to both the property and the ID
+     * @return the seek predicate
+     */
+    @Contract(pure = true)
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static @NotNull Specification<Unit> isAfter(@NotNull String property, @NotNull Comparable<?> value,
+                                                       @NotNull Long id, boolean ascending) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<Long> idPath = root.get("id");
+            Predicate afterId = ascending ? criteriaBuilder.greaterThan(idPath, id) : criteriaBuilder.lessThan(idPath, id);
+            if ("id".equals(property)) {
+                return afterId;
+            }
+            Expression<Comparable> key = root.get(property);
+            Comparable keyValue = value;
+            Predicate afterKey = ascending
+                    ? criteriaBuilder.greaterThan(key, keyValue)
+                    : criteriaBuilder.lessThan(key, keyValue);
+            return criteriaBuilder.or(afterKey, criteriaBuilder.and(criteriaBuilder.equal(key, keyValue), afterId));
+        };
+    }
+}
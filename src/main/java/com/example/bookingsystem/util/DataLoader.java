@@ -3,11 +3,9 @@ package com.example.bookingsystem.util;
 import com.example.bookingsystem.dto.UnitDto;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Payment;
-import com.example.bookingsystem.model.PaymentExpiration;
 import com.example.bookingsystem.model.enums.AccommodationType;
 import com.example.bookingsystem.model.enums.PaymentStatus;
 import com.example.bookingsystem.repository.BookingRepository;
-import com.example.bookingsystem.repository.PaymentExpirationRepository;
 import com.example.bookingsystem.repository.PaymentRepository;
 import com.example.bookingsystem.service.UnitService;
 import jakarta.annotation.PostConstruct;
@@ -31,7 +29,6 @@ public class DataLoader {
     private final UnitService unitService;
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
-    private final PaymentExpirationRepository paymentExpirationRepository;
     private final Clock clock;
 
     /**
@@ -65,8 +62,9 @@ public class DataLoader {
 
             switch (booking.getStatus()) {
                 case PENDING -> {
-                    Payment payment = paymentRepository.save(createPayment(booking, PaymentStatus.INITIATED));
-                    paymentExpirationRepository.save(PaymentExpiration.builder().payment(payment).expirationDateTime(expirationTime).build());
+                    Payment payment = createPayment(booking, PaymentStatus.INITIATED);
+                    payment.setExpiresAt(expirationTime);
+                    paymentRepository.save(payment);
                 }
                 case CONFIRMED -> paymentRepository.save(createPayment(booking, PaymentStatus.COMPLETED));
                 case CANCELLED -> paymentRepository.save(createPayment(booking, PaymentStatus.FAILED));
@@ -0,0 +1,50 @@
+package com.example.bookingsystem.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Builds {@link StreamingResponseBody} instances that write newline-delimited JSON (NDJSON),
+ * serializing each element as soon as it is produced.
+ */
+public final class NdjsonStreamingBody {
+
+    private NdjsonStreamingBody() {
+    }
+
+    /**
+     * Creates a response body that writes every element passed to the sink by {@code producer} as one JSON line.
+     *
+     * @param objectMapper the mapper used to serialize elements
+     * @param producer     pushes the elements to the given sink, typically a service {@code streamAll} method
+     * @param <T>          the element type
+     * @return the streaming response body
+     */
+    @Contract(pure = true)
+    public static <T> @NotNull StreamingResponseBody of(@NotNull ObjectMapper objectMapper,
+                                                        @NotNull Consumer<Consumer<T>> producer) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                producer.accept(element -> {
+                    try {
+                        writer.writeValue(generator, element);
+                        generator.writeRaw('\n');
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.bookingsystem.controller;
 
+import com.example.bookingsystem.dto.BookingBatchItemResult;
 import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.exception.IdempotencyKeyMismatchException;
+import com.example.bookingsystem.service.BookingEventStreamService;
+import com.example.bookingsystem.service.BookingIdempotencyService;
 import com.example.bookingsystem.service.BookingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -10,13 +14,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -28,6 +43,12 @@ class BookingControllerTest {
     @MockBean
     private BookingService bookingService;
 
+    @MockBean
+    private BookingIdempotencyService bookingIdempotencyService;
+
+    @MockBean
+    private BookingEventStreamService bookingEventStreamService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -51,7 +72,7 @@ class BookingControllerTest {
 
         List<BookingDto> bookings = List.of(booking1, booking2);
 
-        BDDMockito.given(bookingService.getAll()).willReturn(bookings);
+        BDDMockito.given(bookingService.getAll(null, 100)).willReturn(bookings);
 
         mockMvc.perform(get("/api/bookings")
                        .accept(MediaType.APPLICATION_JSON))
@@ -60,7 +81,57 @@ class BookingControllerTest {
                .andExpect(jsonPath("$[0].id").value(booking1.getId()))
                .andExpect(jsonPath("$[0].unitId").value(booking1.getUnitId()))
                .andExpect(jsonPath("$[1].id").value(booking2.getId()))
-               .andExpect(jsonPath("$[1].userId").value(booking2.getUserId()));
+               .andExpect(jsonPath("$[1].userId").value(booking2.getUserId()))
+               .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getAll_fullPage_shouldReturnNextCursorAndClampSize() throws Exception {
+        List<BookingDto> bookings = List.of(BookingDto.builder().id(41L).build(), BookingDto.builder().id(42L).build());
+
+        BDDMockito.given(bookingService.getAll(40L, 2)).willReturn(bookings);
+        BDDMockito.given(bookingService.getAll(null, 1000)).willReturn(List.of());
+
+        mockMvc.perform(get("/api/bookings")
+                       .param("cursor", "40")
+                       .param("size", "2")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(2))
+               .andExpect(header().string("X-Next-Cursor", "42"));
+
+        mockMvc.perform(get("/api/bookings")
+                       .param("size", "50000")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk());
+        BDDMockito.then(bookingService).should().getAll(null, 1000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAll_shouldWriteNewlineDelimitedJson() throws Exception {
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<BookingDto> action = invocation.getArgument(0);
+            action.accept(BookingDto.builder().id(1L).unitId(101L).build());
+            action.accept(BookingDto.builder().id(2L).unitId(102L).build());
+            return null;
+        }).given(bookingService).streamAll(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/bookings").param("stream", "true"))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], BookingDto.class).getId()).isEqualTo(1L);
+        assertThat(objectMapper.readValue(lines[1], BookingDto.class).getUnitId()).isEqualTo(102L);
     }
 
     @Test
@@ -90,4 +161,114 @@ class BookingControllerTest {
                .andExpect(jsonPath("$.unitId").value(responseDto.getUnitId()))
                .andExpect(jsonPath("$.userId").value(responseDto.getUserId()));
     }
+
+    @Test
+    void bookUnit_withIdempotencyKey_shouldDelegateToIdempotencyService() throws Exception {
+        BookingDto requestDto = BookingDto.builder()
+                                          .unitId(101L)
+                                          .userId(201L)
+                                          .startDate(LocalDate.of(2025, 8, 10))
+                                          .endDate(LocalDate.of(2025, 8, 15))
+                                          .build();
+        BookingDto responseDto = BookingDto.builder().id(1L).unitId(101L).userId(201L).build();
+
+        BDDMockito.given(bookingIdempotencyService.bookUnit("key-1", requestDto)).willReturn(responseDto);
+
+        mockMvc.perform(post("/api/bookings")
+                       .header(BookingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(requestDto)))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.id").value(1));
+
+        BDDMockito.then(bookingService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void bookUnit_withReusedIdempotencyKey_shouldReturnUnprocessableEntity() throws Exception {
+        BookingDto requestDto = BookingDto.builder().unitId(101L).userId(201L).build();
+
+        BDDMockito.given(bookingIdempotencyService.bookUnit("key-1", requestDto))
+                  .willThrow(new IdempotencyKeyMismatchException("Idempotency key was already used"));
+
+        mockMvc.perform(post("/api/bookings")
+                       .header(BookingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(requestDto)))
+               .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void bookUnits_overMaxBatchSize_shouldReturnBadRequest() throws Exception {
+        BookingDto requestDto = BookingDto.builder().unitId(101L).userId(201L).build();
+        List<BookingDto> batch = Collections.nCopies(BookingController.MAX_BATCH_SIZE + 1, requestDto);
+
+        mockMvc.perform(post("/api/bookings/batch")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(batch)))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.error").value("Batch too large"));
+
+        BDDMockito.then(bookingService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void bookUnits_shouldReturnPerItemResults() throws Exception {
+        BookingDto first = BookingDto.builder()
+                                     .unitId(101L)
+                                     .userId(201L)
+                                     .startDate(LocalDate.of(2025, 8, 10))
+                                     .endDate(LocalDate.of(2025, 8, 15))
+                                     .build();
+        BookingDto second = BookingDto.builder()
+                                      .unitId(101L)
+                                      .userId(202L)
+                                      .startDate(LocalDate.of(2025, 8, 12))
+                                      .endDate(LocalDate.of(2025, 8, 14))
+                                      .build();
+
+        List<BookingBatchItemResult> results = List.of(
+                BookingBatchItemResult.builder()
+                                      .index(0)
+                                      .status(BookingBatchItemResult.Status.SUCCESS)
+                                      .booking(BookingDto.builder().id(1L).unitId(101L).userId(201L).build())
+                                      .build(),
+                BookingBatchItemResult.builder()
+                                      .index(1)
+                                      .status(BookingBatchItemResult.Status.CONFLICT)
+                                      .message("Selected unit is not available for the chosen date range")
+                                      .build());
+
+        BDDMockito.given(bookingService.bookUnits(List.of(first, second))).willReturn(results);
+
+        mockMvc.perform(post("/api/bookings/batch")
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(List.of(first, second))))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(2))
+               .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+               .andExpect(jsonPath("$[0].booking.id").value(1))
+               .andExpect(jsonPath("$[1].index").value(1))
+               .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+    }
+
+    @Test
+    void events_shouldStreamServerSentEvents() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        BDDMockito.given(bookingEventStreamService.subscribeToBooking(7L)).willReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/bookings/7/events").accept(MediaType.TEXT_EVENT_STREAM))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+        emitter.send(SseEmitter.event().name("booking-status").data("CONFIRMED"));
+        emitter.complete();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+        assertThat(body).contains("event:booking-status", "data:CONFIRMED");
+    }
 }
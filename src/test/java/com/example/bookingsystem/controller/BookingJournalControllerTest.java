@@ -0,0 +1,80 @@
+package com.example.bookingsystem.controller;
+
+import com.example.bookingsystem.dto.BookingJournalEntry;
+import com.example.bookingsystem.dto.BookingJournalPosition;
+import com.example.bookingsystem.model.enums.BookingEventType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.service.BookingJournalService;
+import org.junit.jupiter.api.Test;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookingJournalController.class)
+class BookingJournalControllerTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 7, 1);
+    private static final LocalDate END = LocalDate.of(2025, 7, 3);
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 15, 10, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookingJournalService bookingJournalService;
+
+    @Test
+    void getFeed_shouldReturnEventsWithoutCursorOnLastPage() throws Exception {
+        BookingJournalEntry requested = new BookingJournalEntry(1L, 500L, 10L, 2L, 3L, START, END,
+                BookingEventType.REQUESTED, BookingStatus.PENDING, NOW);
+        BookingJournalEntry confirmed = new BookingJournalEntry(2L, 501L, 10L, 2L, 3L, START, END,
+                BookingEventType.CONFIRMED, BookingStatus.CONFIRMED, NOW.plusMinutes(1));
+
+        BDDMockito.given(bookingJournalService.getFeed(BookingJournalPosition.START, 100)).willReturn(List.of(requested, confirmed));
+
+        mockMvc.perform(get("/api/booking-events")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.length()").value(2))
+               .andExpect(jsonPath("$[0].type").value("REQUESTED"))
+               .andExpect(jsonPath("$[1].bookingId").value(10))
+               .andExpect(jsonPath("$[1].status").value("CONFIRMED"))
+               .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void getFeed_withCursor_shouldReturnNextCursorWhenPageIsFull() throws Exception {
+        BookingJournalEntry expired = new BookingJournalEntry(8L, 502L, 11L, 2L, 3L, START, END,
+                BookingEventType.EXPIRED, BookingStatus.CANCELLED, NOW);
+
+        BDDMockito.given(bookingJournalService.getFeed(new BookingJournalPosition(501L, 7L), 1)).willReturn(List.of(expired));
+
+        mockMvc.perform(get("/api/booking-events")
+                       .param("cursor", "501-7")
+                       .param("size", "1")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].id").value(8))
+               .andExpect(header().string("X-Next-Cursor", "502-8"));
+    }
+
+    @Test
+    void getFeed_withMalformedCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/booking-events")
+                       .param("cursor", "7")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isBadRequest());
+    }
+}
@@ -16,6 +16,7 @@ import java.math.BigDecimal;
 import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -45,7 +46,7 @@ class PaymentControllerTest {
 
         List<PaymentDto> payments = List.of(payment1, payment2);
 
-        BDDMockito.given(paymentService.getAll()).willReturn(payments);
+        BDDMockito.given(paymentService.getAll(null, 100)).willReturn(payments);
 
         mockMvc.perform(get("/api/payments")
                        .accept(MediaType.APPLICATION_JSON))
@@ -56,4 +57,19 @@ class PaymentControllerTest {
                .andExpect(jsonPath("$[1].id").value(payment2.getId()))
                .andExpect(jsonPath("$[1].amount").value(payment2.getAmount().doubleValue()));
     }
+
+    @Test
+    void getAll_withCursor_shouldReturnNextCursorWhenPageIsFull() throws Exception {
+        PaymentDto payment = PaymentDto.builder().id(8L).status(PaymentStatus.INITIATED).build();
+
+        BDDMockito.given(paymentService.getAll(7L, 1)).willReturn(List.of(payment));
+
+        mockMvc.perform(get("/api/payments")
+                       .param("cursor", "7")
+                       .param("size", "1")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[0].id").value(8))
+               .andExpect(header().string("X-Next-Cursor", "8"));
+    }
 }
@@ -2,8 +2,12 @@ package com.example.bookingsystem.controller;
 
 import com.example.bookingsystem.dto.AvailabilityRequest;
 import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
 import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.dto.UnitSlice;
+import com.example.bookingsystem.exception.InvalidCursorException;
 import com.example.bookingsystem.model.enums.AccommodationType;
+import com.example.bookingsystem.service.SearchCountMode;
 import com.example.bookingsystem.service.UnitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -19,10 +23,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -92,6 +99,67 @@ class UnitControllerTest {
                .andExpect(jsonPath("$.content[1].id").value(2L));
     }
 
+    @Test
+    void scrollUnits_shouldReturnSliceWithNextCursor() throws Exception {
+        UnitSlice slice = new UnitSlice(List.of(UnitDto.builder().id(1L).build(), UnitDto.builder().id(2L).build()),
+                true, "next", 40L, true);
+
+        BDDMockito.given(unitService.scrollUnits(any(UnitSearchCriteria.class), isNull(), eq(2), eq("floor"), eq("desc"),
+                          eq(SearchCountMode.ESTIMATE)))
+                  .willReturn(slice);
+
+        mockMvc.perform(get("/api/units/search/scroll")
+                       .param("size", "2")
+                       .param("sortBy", "floor")
+                       .param("sortDir", "desc")
+                       .param("count", "ESTIMATE")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.content.length()").value(2))
+               .andExpect(jsonPath("$.hasNext").value(true))
+               .andExpect(jsonPath("$.nextCursor").value("next"))
+               .andExpect(jsonPath("$.totalCount").value(40))
+               .andExpect(jsonPath("$.totalEstimated").value(true));
+    }
+
+    @Test
+    void scrollUnits_withInvalidCursor_shouldReturnBadRequest() throws Exception {
+        BDDMockito.given(unitService.scrollUnits(any(UnitSearchCriteria.class), eq("bogus"), anyInt(), anyString(),
+                          anyString(), any(SearchCountMode.class)))
+                  .willThrow(new InvalidCursorException("Malformed cursor"));
+
+        mockMvc.perform(get("/api/units/search/scroll")
+                       .param("cursor", "bogus")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.message").value("Malformed cursor"));
+    }
+
+    @Test
+    void getFacets_shouldReturnCountsPerValue() throws Exception {
+        UnitFacets facets = new UnitFacets(5, Map.of(AccommodationType.FLAT, 3L, AccommodationType.HOME, 2L),
+                Map.of(2, 5L), Map.of(1, 4L, 3, 1L));
+
+        BDDMockito.given(unitService.getFacets(UnitSearchCriteria.builder()
+                                                                 .numberOfRooms(2)
+                                                                 .startDate(LocalDate.of(2025, 6, 1))
+                                                                 .endDate(LocalDate.of(2025, 6, 5))
+                                                                 .build()))
+                  .willReturn(facets);
+
+        mockMvc.perform(get("/api/units/facets")
+                       .param("numberOfRooms", "2")
+                       .param("startDate", "2025-06-01")
+                       .param("endDate", "2025-06-05")
+                       .param("page", "3")
+                       .accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.total").value(5))
+               .andExpect(jsonPath("$.types.FLAT").value(3))
+               .andExpect(jsonPath("$.numberOfRooms['2']").value(5))
+               .andExpect(jsonPath("$.floors['1']").value(4));
+    }
+
     @Test
     void getAvailableUnitsCount_shouldReturnCount() throws Exception {
         AvailabilityRequest request = new AvailabilityRequest(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 15));
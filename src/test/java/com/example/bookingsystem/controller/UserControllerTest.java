@@ -1,6 +1,7 @@
 package com.example.bookingsystem.controller;
 
 import com.example.bookingsystem.dto.UserDto;
+import com.example.bookingsystem.service.BookingEventStreamService;
 import com.example.bookingsystem.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -34,12 +35,15 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private BookingEventStreamService bookingEventStreamService;
+
     @Test
     void getAllUsers_shouldReturnListOfUsers() throws Exception {
         UserDto user1 = new UserDto(1L, "John", "john.doe@example.com");
         UserDto user2 = new UserDto(2L, "Jane", "jane.smith@example.com");
 
-        BDDMockito.given(userService.getAll()).willReturn(List.of(user1, user2));
+        BDDMockito.given(userService.getAll(null, 100)).willReturn(List.of(user1, user2));
 
         mockMvc.perform(get("/api/users")
                        .accept(MediaType.APPLICATION_JSON))
@@ -55,7 +59,7 @@ class UserControllerTest {
 
     @Test
     void getAllUsers_whenNoUsers_shouldReturnEmptyList() throws Exception {
-        BDDMockito.given(userService.getAll()).willReturn(List.of());
+        BDDMockito.given(userService.getAll(null, 100)).willReturn(List.of());
 
         mockMvc.perform(get("/api/users")
                        .accept(MediaType.APPLICATION_JSON))
@@ -65,7 +69,7 @@ class UserControllerTest {
 
     @Test
     void getAllUsers_internalError_returnError() throws Exception {
-        BDDMockito.given(userService.getAll()).willThrow(IllegalArgumentException.class);
+        BDDMockito.given(userService.getAll(null, 100)).willThrow(IllegalArgumentException.class);
 
         String response = mockMvc.perform(get("/api/users")
                                          .accept(MediaType.APPLICATION_JSON))
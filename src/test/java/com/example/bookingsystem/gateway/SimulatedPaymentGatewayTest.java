@@ -0,0 +1,143 @@
+package com.example.bookingsystem.gateway;
+
+import com.example.bookingsystem.exception.PaymentGatewayException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SimulatedPaymentGatewayTest {
+
+    private static SimulatedPaymentGateway gateway(double declineRate, double errorRate, double timeoutRate, int maxRps) {
+        return new SimulatedPaymentGateway(0, 0, declineRate, errorRate, timeoutRate, maxRps, 100, Runnable::run);
+    }
+
+    @Test
+    void testAuthorizeAndCapture_approvedWithReferences() throws Exception {
+        SimulatedPaymentGateway gateway = gateway(0, 0, 0, 100);
+
+        GatewayResponse authorization = gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+        GatewayResponse capture = gateway.capture(authorization.reference(), BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        assertThat(authorization.approved()).isTrue();
+        assertThat(authorization.reference()).startsWith("sim-auth-");
+        assertThat(capture.approved()).isTrue();
+    }
+
+    @Test
+    void testAuthorizeAndCapture_repeatedRequestsGetTheRecordedAnswer() throws Exception {
+        SimulatedPaymentGateway gateway = gateway(0, 0, 0, 100);
+
+        GatewayResponse authorization = gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+        GatewayResponse capture = gateway.capture(authorization.reference(), BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        assertThat(gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS)).isEqualTo(authorization);
+        assertThat(gateway.capture(authorization.reference(), BigDecimal.TEN).get(1, TimeUnit.SECONDS))
+                .isEqualTo(capture);
+        assertThat(gateway.authorize(2L, BigDecimal.TEN).get(1, TimeUnit.SECONDS).reference())
+                .isNotEqualTo(authorization.reference());
+    }
+
+    @Test
+    void testCapture_declinedForUnknownAuthorization() throws Exception {
+        GatewayResponse response = gateway(0, 0, 0, 100).capture("sim-auth-unknown", BigDecimal.TEN)
+                                                        .get(1, TimeUnit.SECONDS);
+
+        assertThat(response.approved()).isFalse();
+        assertThat(response.message()).isEqualTo("Unknown authorization");
+    }
+
+    @Test
+    void testRefund_repeatedRequestsGetTheRecordedAnswer() throws Exception {
+        SimulatedPaymentGateway gateway = gateway(0, 0, 0, 100);
+        GatewayResponse authorization = gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+        GatewayResponse capture = gateway.capture(authorization.reference(), BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        GatewayResponse refund = gateway.refund(capture.reference(), BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        assertThat(refund.approved()).isTrue();
+        assertThat(refund.reference()).startsWith("sim-refund-");
+        assertThat(gateway.refund(capture.reference(), BigDecimal.TEN).get(1, TimeUnit.SECONDS)).isEqualTo(refund);
+    }
+
+    @Test
+    void testRefund_declinedForUnknownCapture() throws Exception {
+        GatewayResponse response = gateway(0, 0, 0, 100).refund("sim-capture-unknown", BigDecimal.TEN)
+                                                        .get(1, TimeUnit.SECONDS);
+
+        assertThat(response.approved()).isFalse();
+        assertThat(response.message()).isEqualTo("Unknown capture");
+    }
+
+    @Test
+    void testAuthorize_forgetsLeastRecentlyUsedAnswersBeyondCapacity() throws Exception {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(0, 0, 0, 0, 0, 100, 2, Runnable::run);
+        GatewayResponse first = gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+        GatewayResponse second = gateway.authorize(2L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+        gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        gateway.authorize(3L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        assertThat(gateway.authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS)).isEqualTo(first);
+        assertThat(gateway.authorize(2L, BigDecimal.TEN).get(1, TimeUnit.SECONDS).reference())
+                .isNotEqualTo(second.reference());
+    }
+
+    @Test
+    void testAuthorize_declinedAtDeclineRate() throws Exception {
+        GatewayResponse response = gateway(1, 0, 0, 100).authorize(1L, BigDecimal.TEN).get(1, TimeUnit.SECONDS);
+
+        assertThat(response.approved()).isFalse();
+        assertThat(response.message()).isEqualTo("Card declined");
+    }
+
+    @Test
+    void testAuthorize_failsAtErrorRate() {
+        CompletableFuture<GatewayResponse> response = gateway(0, 1, 0, 100).authorize(1L, BigDecimal.TEN);
+
+        assertThatThrownBy(() -> response.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(PaymentGatewayException.class);
+    }
+
+    @Test
+    void testAuthorize_neverAnswersAtTimeoutRate() {
+        CompletableFuture<GatewayResponse> response = gateway(0, 0, 1, 100).authorize(1L, BigDecimal.TEN);
+
+        assertThat(response).isNotDone();
+    }
+
+    @Test
+    void testAuthorize_throttledBeyondThroughputCap() throws Exception {
+        SimulatedPaymentGateway gateway = gateway(0, 0, 0, 2);
+        CompletableFuture<GatewayResponse> first = gateway.authorize(1L, BigDecimal.TEN);
+        CompletableFuture<GatewayResponse> second = gateway.authorize(2L, BigDecimal.TEN);
+        CompletableFuture<GatewayResponse> third = gateway.authorize(3L, BigDecimal.TEN);
+
+        assertThat(first.get(1, TimeUnit.SECONDS).approved()).isTrue();
+        assertThat(second.get(1, TimeUnit.SECONDS).approved()).isTrue();
+        assertThat(third).isCompletedExceptionally();
+    }
+
+    @Test
+    void testLatency_followsConfiguredPercentiles() {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(200, 1500, 0, 0, 0, 100, 100, Runnable::run);
+        Random random = new Random(42);
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = gateway.latencyMillis(random.nextGaussian());
+        }
+        Arrays.sort(samples);
+
+        assertThat((double) samples[samples.length / 2]).isCloseTo(200, within(10.0));
+        assertThat((double) samples[samples.length * 99 / 100]).isCloseTo(1500, within(100.0));
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.service.BookingJournalService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class AvailabilityCountCacheTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2025, 6, 1);
+    private static final LocalDate JUNE_10 = LocalDate.of(2025, 6, 10);
+    private static final LocalDate JULY_1 = LocalDate.of(2025, 7, 1);
+    private static final LocalDate JULY_10 = LocalDate.of(2025, 7, 10);
+
+    @Mock
+    private BookingJournalService bookingJournalService;
+
+    private BookingIntervalIndex index;
+    private AvailabilityCountCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(bookingJournalService.loadActivePeriods())
+                .thenReturn(List.of(new BookingPeriod(1L, 7L, JUNE_1.plusDays(1), JUNE_1.plusDays(2))));
+        index = new BookingIntervalIndex(bookingJournalService);
+        index.rebuild();
+        cache = new AvailabilityCountCache(index);
+
+        assertThat(count(JUNE_1, JUNE_10, 10)).isEqualTo(10);
+        assertThat(count(JULY_1, JULY_10, 20)).isEqualTo(20);
+        loads.set(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testNewBooking_decrementsOnlyOverlappingRangesWhereUnitWasFree() {
+        book(2L, 8L, JUNE_10, JULY_1);
+        book(3L, 7L, JUNE_10, JUNE_10);
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(9);
+        assertThat(count(JULY_1, JULY_10, -1)).isEqualTo(19);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void testCancellation_incrementsOnlyWhereUnitBecomesFree() {
+        book(2L, 7L, JUNE_10, JULY_1);
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(10);
+        assertThat(count(JULY_1, JULY_10, -1)).isEqualTo(19);
+
+        cancel(2L, 7L, JUNE_10, JULY_1);
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(10);
+        assertThat(count(JULY_1, JULY_10, -1)).isEqualTo(20);
+    }
+
+    @Test
+    void testConfirmation_leavesCountsUnchanged() {
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                1L, 7L, 1L, JUNE_1.plusDays(1), JUNE_1.plusDays(2), BookingStatus.PENDING, BookingStatus.CONFIRMED));
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(10);
+    }
+
+    @Test
+    void testUnitCreated_incrementsEveryRange() {
+        cache.onUnitCreated(new UnitCreatedEvent(UnitDto.builder().id(100L).build()));
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(11);
+        assertThat(count(JULY_1, JULY_10, -1)).isEqualTo(21);
+    }
+
+    @Test
+    void testChangeInsideTransaction_isAppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                2L, 8L, 1L, JUNE_10, JUNE_10, null, BookingStatus.PENDING));
+        index.reserve(new BookingPeriod(2L, 8L, JUNE_10, JUNE_10));
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(10);
+        assertThat(count(JUNE_1, JUNE_1, 30)).isEqualTo(30);
+        assertThat(cache.size()).isEqualTo(2);
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(9);
+        assertThat(count(JUNE_1, JUNE_1, 31)).isEqualTo(31);
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testChangeInsideTransaction_isDiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                2L, 8L, 1L, JUNE_10, JUNE_10, null, BookingStatus.PENDING));
+
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(10);
+    }
+
+    @Test
+    void testBookingNextToUncommittedReservation_evictsRangeInsteadOfAdjusting() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.reserve(new BookingPeriod(4L, 9L, JULY_1, JULY_1));
+        List<TransactionSynchronization> otherTransaction = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        book(5L, 9L, JULY_10, JULY_10);
+        otherTransaction.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(count(JULY_1, JULY_10, 19)).isEqualTo(19);
+        assertThat(count(JUNE_1, JUNE_10, -1)).isEqualTo(10);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConcurrentlyCommittedBookingsOfOneUnit_evictRangeInsteadOfAdjusting() {
+        List<TransactionSynchronization> first = bookInTransaction(4L, 9L, JULY_1, JULY_1);
+        List<TransactionSynchronization> second = bookInTransaction(5L, 9L, JULY_10, JULY_10);
+
+        // Both reservations settle in the index before either change reaches the cache
+        first.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        second.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        first.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        second.get(1).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(count(JULY_1, JULY_10, 19)).isEqualTo(19);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testIndexNotReady_evictsOverlappingRanges() {
+        when(bookingJournalService.loadActivePeriods()).thenReturn(List.of());
+        BookingIntervalIndex notReady = new BookingIntervalIndex(bookingJournalService);
+        cache = new AvailabilityCountCache(notReady);
+        count(JUNE_1, JUNE_10, 10);
+        count(JULY_1, JULY_10, 20);
+
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                2L, 8L, 1L, JUNE_10, JUNE_10, null, BookingStatus.PENDING));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(count(JUNE_1, JUNE_10, 9)).isEqualTo(9);
+        assertThat(count(JULY_1, JULY_10, -1)).isEqualTo(20);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(3);
+    }
+
+    private long count(LocalDate startDate, LocalDate endDate, long loaded) {
+        return cache.computeIfAbsent(startDate, endDate, () -> {
+            loads.incrementAndGet();
+            return loaded;
+        });
+    }
+
+    private void book(Long bookingId, Long unitId, LocalDate startDate, LocalDate endDate) {
+        assertThat(index.reserve(new BookingPeriod(bookingId, unitId, startDate, endDate))).isTrue();
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                bookingId, unitId, 1L, startDate, endDate, null, BookingStatus.PENDING));
+    }
+
+    private List<TransactionSynchronization> bookInTransaction(Long bookingId, Long unitId, LocalDate startDate,
+                                                               LocalDate endDate) {
+        TransactionSynchronizationManager.initSynchronization();
+        book(bookingId, unitId, startDate, endDate);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private void cancel(Long bookingId, Long unitId, LocalDate startDate, LocalDate endDate) {
+        BookingStatusChangedEvent event = new BookingStatusChangedEvent(
+                bookingId, unitId, 1L, startDate, endDate, BookingStatus.PENDING, BookingStatus.CANCELLED);
+        index.onBookingStatusChanged(event);
+        cache.onBookingStatusChanged(event);
+    }
+
+    private void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.service.BookingJournalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIndexLoaderTest {
+
+    @Mock
+    private BookingJournalService bookingJournalService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private OccupancyBitmapEngine occupancyBitmapEngine;
+
+    private BookingIndexLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        loader = new BookingIndexLoader(bookingJournalService, bookingIntervalIndex, occupancyBitmapEngine);
+    }
+
+    @Test
+    void testLoad_replaysJournalOnceForIndexAndEngine() {
+        List<BookingPeriod> periods = List.of(
+                new BookingPeriod(10L, 1L, LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3)));
+        when(bookingJournalService.loadActivePeriods()).thenReturn(periods);
+
+        loader.load();
+
+        verify(bookingJournalService, times(1)).loadActivePeriods();
+        InOrder order = inOrder(bookingIntervalIndex, occupancyBitmapEngine, bookingJournalService);
+        order.verify(bookingIntervalIndex).beginRebuild();
+        order.verify(occupancyBitmapEngine).beginRebuild();
+        order.verify(bookingJournalService).loadActivePeriods();
+        order.verify(bookingIntervalIndex).rebuild(periods);
+        order.verify(occupancyBitmapEngine).rebuild(periods);
+    }
+
+    @Test
+    void testLoad_failedReplayAbortsBothRebuilds() {
+        IllegalStateException failure = new IllegalStateException("Connection refused");
+        when(bookingJournalService.loadActivePeriods()).thenThrow(failure);
+
+        assertThatThrownBy(() -> loader.load()).isSameAs(failure);
+
+        verify(bookingIntervalIndex).abortRebuild();
+        verify(occupancyBitmapEngine).abortRebuild();
+        verify(bookingIntervalIndex, never()).rebuild(anyList());
+        verify(occupancyBitmapEngine, never()).rebuild(anyList());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.service.BookingJournalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+
+    private static final LocalDate JUNE_10 = LocalDate.of(2025, 6, 10);
+    private static final LocalDate JUNE_15 = LocalDate.of(2025, 6, 15);
+
+    @Mock
+    private BookingJournalService bookingJournalService;
+
+    private BookingIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(bookingJournalService.loadActivePeriods())
+                .thenReturn(List.of(new BookingPeriod(1L, 7L, JUNE_10, JUNE_15)));
+        index = new BookingIntervalIndex(bookingJournalService);
+        index.rebuild();
+    }
+
+    @Test
+    void testOverlaps_detectsPartialAndContainedOverlaps() {
+        assertThat(index.overlaps(7L, JUNE_10.minusDays(3), JUNE_10)).isTrue();
+        assertThat(index.overlaps(7L, JUNE_15, JUNE_15.plusDays(3))).isTrue();
+        assertThat(index.overlaps(7L, JUNE_10.plusDays(1), JUNE_15.minusDays(1))).isTrue();
+        assertThat(index.overlaps(7L, JUNE_10.minusDays(1), JUNE_15.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void testOverlaps_ignoresAdjacentRangesAndOtherUnits() {
+        assertThat(index.overlaps(7L, JUNE_10.minusDays(5), JUNE_10.minusDays(1))).isFalse();
+        assertThat(index.overlaps(7L, JUNE_15.plusDays(1), JUNE_15.plusDays(5))).isFalse();
+        assertThat(index.overlaps(8L, JUNE_10, JUNE_15)).isFalse();
+    }
+
+    @Test
+    void testReserve_rejectsOverlapAndAcceptsFreeRange() {
+        assertThat(index.reserve(new BookingPeriod(2L, 7L, JUNE_15, JUNE_15.plusDays(2)))).isFalse();
+        assertThat(index.reserve(new BookingPeriod(3L, 7L, JUNE_15.plusDays(1), JUNE_15.plusDays(2)))).isTrue();
+        assertThat(index.overlaps(7L, JUNE_15.plusDays(2), JUNE_15.plusDays(4))).isTrue();
+    }
+
+    @Test
+    void testCancellationEvent_releasesRange() {
+        index.onBookingStatusChanged(new BookingStatusChangedEvent(
+                1L, 7L, 1L, JUNE_10, JUNE_15, BookingStatus.PENDING, BookingStatus.CANCELLED));
+
+        assertThat(index.overlaps(7L, JUNE_10, JUNE_15)).isFalse();
+    }
+
+    @Test
+    void testRebuild_mergesReservationsAndCancellationsFromDuringTheLoad() {
+        index.beginRebuild();
+        assertThat(index.reserve(new BookingPeriod(2L, 8L, JUNE_10, JUNE_15))).isTrue();
+        index.onBookingStatusChanged(new BookingStatusChangedEvent(
+                1L, 7L, 1L, JUNE_10, JUNE_15, BookingStatus.PENDING, BookingStatus.CANCELLED));
+        assertThat(index.isReady()).isFalse();
+
+        index.rebuild(List.of(new BookingPeriod(1L, 7L, JUNE_10, JUNE_15)));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.overlaps(8L, JUNE_10, JUNE_15)).isTrue();
+        assertThat(index.overlaps(7L, JUNE_10, JUNE_15)).isFalse();
+    }
+
+    @Test
+    void testRebuild_keepsTransactionalReservationsThatCommitOrAreStillOpen() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.beginRebuild();
+            index.reserve(new BookingPeriod(2L, 8L, JUNE_10, JUNE_15));
+            index.reserve(new BookingPeriod(3L, 9L, JUNE_10, JUNE_15));
+            index.reserve(new BookingPeriod(4L, 10L, JUNE_10, JUNE_15));
+            List<TransactionSynchronization> transactions = TransactionSynchronizationManager.getSynchronizations();
+            transactions.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            transactions.get(2).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+            index.rebuild(List.of());
+            assertThat(index.overlaps(8L, JUNE_10, JUNE_15)).isTrue();
+            assertThat(index.overlaps(9L, JUNE_10, JUNE_15)).isTrue();
+            assertThat(index.overlaps(10L, JUNE_10, JUNE_15)).isFalse();
+
+            transactions.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertThat(index.overlaps(9L, JUNE_10, JUNE_15)).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testManyBookings_overlapLookupMatchesBruteForce() {
+        for (long i = 0; i < 1_000; i++) {
+            LocalDate start = JUNE_15.plusDays(1 + i * 3);
+            assertThat(index.reserve(new BookingPeriod(100 + i, 7L, start, start.plusDays(1)))).isTrue();
+        }
+        for (long i = 0; i < 1_000; i += 2) {
+            index.remove(100 + i);
+        }
+
+        for (long day = 0; day < 3_000; day++) {
+            LocalDate date = JUNE_15.plusDays(1 + day);
+            long slot = day / 3;
+            boolean expected = day % 3 != 2 && slot % 2 == 1;
+            assertThat(index.overlaps(7L, date, date)).as("day offset %d", day).isEqualTo(expected);
+        }
+    }
+}
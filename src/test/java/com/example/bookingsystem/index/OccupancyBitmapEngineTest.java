@@ -0,0 +1,171 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.UnitRepository;
+import com.example.bookingsystem.service.BookingJournalService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OccupancyBitmapEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 15);
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private UnitRepository unitRepository;
+    @Mock
+    private BookingJournalService bookingJournalService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    private OccupancyBitmapEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+        when(unitRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L, 70L));
+        when(bookingJournalService.loadActivePeriods()).thenReturn(List.of(
+                new BookingPeriod(10L, 1L, TODAY.plusDays(2), TODAY.plusDays(4)),
+                new BookingPeriod(11L, 70L, TODAY.plusDays(4), TODAY.plusDays(6))));
+        engine = new OccupancyBitmapEngine(bookingRepository, unitRepository, bookingJournalService,
+                bookingIntervalIndex, clock, 30, false);
+        engine.rebuild();
+    }
+
+    @Test
+    void testCovers_onlyRangesInsideHorizon() {
+        assertThat(engine.covers(TODAY, TODAY.plusDays(29))).isTrue();
+        assertThat(engine.covers(TODAY.minusDays(1), TODAY)).isFalse();
+        assertThat(engine.covers(TODAY, TODAY.plusDays(30))).isFalse();
+        assertThat(engine.covers(null, TODAY)).isFalse();
+    }
+
+    @Test
+    void testCountAvailable_excludesUnitsBookedOnAnyDay() {
+        assertThat(engine.countAvailable(TODAY, TODAY.plusDays(1))).isEqualTo(4);
+        assertThat(engine.countAvailable(TODAY.plusDays(3), TODAY.plusDays(3))).isEqualTo(3);
+        assertThat(engine.countAvailable(TODAY.plusDays(4), TODAY.plusDays(5))).isEqualTo(2);
+    }
+
+    @Test
+    void testAvailableUnits_setsBitOfEveryFreeUnit() {
+        long[] available = engine.availableUnits(TODAY.plusDays(4), TODAY.plusDays(5));
+
+        assertThat(available).hasSize(2);
+        assertThat(available[0]).isEqualTo(1L << 2 | 1L << 3);
+        assertThat(available[1]).isZero();
+    }
+
+    @Test
+    void testAvailabilityFilter_picksSmallerSide() {
+        OccupancyBitmapEngine.UnitIdFilter filter = engine.availabilityFilter(TODAY, TODAY.plusDays(10), 100).orElseThrow();
+        assertThat(filter.include()).isFalse();
+        assertThat(filter.ids()).containsExactly(1L, 70L);
+
+        assertThat(engine.availabilityFilter(TODAY, TODAY.plusDays(10), 1)).isEmpty();
+
+        engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                12L, 2L, 1L, TODAY.plusDays(8), TODAY.plusDays(9), null, BookingStatus.PENDING));
+        filter = engine.availabilityFilter(TODAY, TODAY.plusDays(10), 100).orElseThrow();
+        assertThat(filter.include()).isTrue();
+        assertThat(filter.ids()).containsExactly(3L);
+    }
+
+    @Test
+    void testEvents_updateBitmapsIncrementally() {
+        engine.onUnitCreated(new UnitCreatedEvent(UnitDto.builder().id(200L).build()));
+        assertThat(engine.countAvailable(TODAY, TODAY)).isEqualTo(5);
+
+        engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                12L, 200L, 1L, TODAY, TODAY.plusDays(1), null, BookingStatus.PENDING));
+        assertThat(engine.countAvailable(TODAY, TODAY)).isEqualTo(4);
+
+        when(bookingIntervalIndex.overlaps(eq(200L), any(), any())).thenReturn(false);
+        engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                12L, 200L, 1L, TODAY, TODAY.plusDays(1), BookingStatus.PENDING, BookingStatus.CANCELLED));
+        assertThat(engine.countAvailable(TODAY, TODAY)).isEqualTo(5);
+    }
+
+    @Test
+    void testRebuild_appliesEventsThatArriveWhileLoading() {
+        engine.beginRebuild();
+        engine.onUnitCreated(new UnitCreatedEvent(UnitDto.builder().id(200L).build()));
+        engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                12L, 200L, 1L, TODAY, TODAY.plusDays(1), null, BookingStatus.PENDING));
+        engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                13L, 2L, 1L, TODAY, TODAY, null, BookingStatus.PENDING));
+        when(bookingIntervalIndex.overlaps(eq(2L), any(), any())).thenReturn(false);
+        engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                13L, 2L, 1L, TODAY, TODAY, BookingStatus.PENDING, BookingStatus.CANCELLED));
+        assertThat(engine.covers(TODAY, TODAY)).isFalse();
+
+        engine.rebuild(List.of(new BookingPeriod(13L, 2L, TODAY, TODAY)));
+
+        assertThat(engine.covers(TODAY, TODAY)).isTrue();
+        assertThat(engine.availableUnits(TODAY, TODAY)[0]).isEqualTo(1L << 1 | 1L << 2 | 1L << 3);
+        assertThat(engine.availableUnits(TODAY, TODAY)[3]).isZero();
+        assertThat(engine.countAvailable(TODAY.plusDays(2), TODAY.plusDays(2))).isEqualTo(4);
+    }
+
+    @Test
+    void testRoll_rebuildsStaleHorizonWithoutLosingEvents() {
+        Clock movingClock = mock(Clock.class);
+        when(movingClock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(movingClock.instant()).thenReturn(Instant.parse("2025-06-15T10:00:00Z"));
+        engine = new OccupancyBitmapEngine(bookingRepository, unitRepository, bookingJournalService,
+                bookingIntervalIndex, movingClock, 30, false);
+        engine.rebuild();
+
+        when(movingClock.instant()).thenReturn(Instant.parse("2025-08-15T10:00:00Z"));
+        when(bookingJournalService.loadActivePeriods()).thenAnswer(invocation -> {
+            engine.onBookingStatusChanged(new BookingStatusChangedEvent(
+                    14L, 3L, 1L, LocalDate.of(2025, 8, 20), LocalDate.of(2025, 8, 21), null, BookingStatus.PENDING));
+            return List.of();
+        });
+        engine.roll();
+
+        assertThat(engine.covers(LocalDate.of(2025, 8, 15), LocalDate.of(2025, 9, 13))).isTrue();
+        assertThat(engine.countAvailable(LocalDate.of(2025, 8, 20), LocalDate.of(2025, 8, 20))).isEqualTo(3);
+    }
+
+    @Test
+    void testRoll_movesHorizonClearsLeavingDaysAndLoadsEnteringDays() {
+        Clock movingClock = mock(Clock.class);
+        when(movingClock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(movingClock.instant()).thenReturn(Instant.parse("2025-06-15T10:00:00Z"));
+        engine = new OccupancyBitmapEngine(bookingRepository, unitRepository, bookingJournalService,
+                bookingIntervalIndex, movingClock, 30, true);
+        engine.rebuild();
+
+        when(movingClock.instant()).thenReturn(Instant.parse("2025-06-18T10:00:00Z"));
+        when(bookingRepository.findActivePeriodsOverlapping(TODAY.plusDays(30), TODAY.plusDays(32)))
+                .thenReturn(List.of(new BookingPeriod(13L, 2L, TODAY.plusDays(31), TODAY.plusDays(40))));
+        engine.roll();
+
+        assertThat(engine.covers(TODAY.plusDays(2), TODAY.plusDays(3))).isFalse();
+        assertThat(engine.covers(TODAY.plusDays(3), TODAY.plusDays(32))).isTrue();
+        assertThat(engine.countAvailable(TODAY.plusDays(4), TODAY.plusDays(4))).isEqualTo(2);
+        assertThat(engine.countAvailable(TODAY.plusDays(31), TODAY.plusDays(32))).isEqualTo(3);
+    }
+}
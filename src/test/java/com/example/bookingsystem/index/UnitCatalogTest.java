@@ -0,0 +1,165 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.UnitAttributes;
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.model.enums.AccommodationType;
+import com.example.bookingsystem.repository.UnitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class UnitCatalogTest {
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    private UnitCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(unitRepository.findAllAttributes()).thenReturn(List.of(
+                new UnitAttributes(1L, 2, AccommodationType.FLAT, 3, new BigDecimal("120.00")),
+                new UnitAttributes(2L, 1, AccommodationType.HOME, 1, new BigDecimal("80.50")),
+                new UnitAttributes(4L, 2, AccommodationType.FLAT, -1, new BigDecimal("99.99")),
+                new UnitAttributes(7L, 3, AccommodationType.APARTMENT, 3, new BigDecimal("100.00"))));
+        catalog = new UnitCatalog(unitRepository, true);
+        catalog.rebuild();
+    }
+
+    @Test
+    void testMatchingIds_appliesEveryAttributeFilter() {
+        assertThat(ids(UnitSearchCriteria.builder().numberOfRooms(2).build(), null, "id", true))
+                .containsExactly(1L, 4L);
+        assertThat(ids(UnitSearchCriteria.builder().type("flat").floor(3).build(), null, "id", true))
+                .containsExactly(1L);
+        assertThat(ids(UnitSearchCriteria.builder().maxCost(new BigDecimal("100")).build(), null, "id", true))
+                .containsExactly(2L, 4L, 7L);
+        assertThat(ids(UnitSearchCriteria.builder().maxCost(new BigDecimal("99.989")).build(), null, "id", true))
+                .containsExactly(2L);
+        assertThat(ids(UnitSearchCriteria.builder().numberOfRooms(5).build(), null, "id", true)).isEmpty();
+    }
+
+    @Test
+    void testMatchingIds_sortsByColumnAndKeepsOnlyAllowedUnits() {
+        UnitSearchCriteria all = UnitSearchCriteria.builder().type("").build();
+
+        assertThat(ids(all, null, "totalCost", true)).containsExactly(2L, 4L, 7L, 1L);
+        assertThat(ids(all, null, "floor", true)).containsExactly(4L, 2L, 1L, 7L);
+        assertThat(ids(all, null, "id", false)).containsExactly(7L, 4L, 2L, 1L);
+        assertThat(ids(all, new long[]{1L << 2 | 1L << 7}, "numberOfRooms", false)).containsExactly(7L, 2L);
+    }
+
+    @Test
+    void testMatchingIds_emptyForUnsupportedSortOrBeforeBuild() {
+        assertThat(catalog.matchingIds(UnitSearchCriteria.builder().build(), null, "baseCost", true)).isEmpty();
+        assertThat(new UnitCatalog(unitRepository, true)
+                .matchingIds(UnitSearchCriteria.builder().build(), null, "id", true)).isEmpty();
+    }
+
+    @Test
+    void testFacets_countsMatchesPerValue() {
+        UnitFacets facets = catalog.facets(UnitSearchCriteria.builder().maxCost(new BigDecimal("100")).build(),
+                new long[]{1L << 2 | 1L << 4 | 1L << 7}).orElseThrow();
+
+        assertThat(facets.total()).isEqualTo(3);
+        assertThat(facets.types()).containsExactly(Map.entry(AccommodationType.HOME, 1L),
+                Map.entry(AccommodationType.FLAT, 1L), Map.entry(AccommodationType.APARTMENT, 1L));
+        assertThat(facets.numberOfRooms()).containsExactly(Map.entry(1, 1L), Map.entry(2, 1L), Map.entry(3, 1L));
+        assertThat(facets.floors()).containsExactly(Map.entry(-1, 1L), Map.entry(1, 1L), Map.entry(3, 1L));
+
+        assertThat(catalog.facets(UnitSearchCriteria.builder().type("FLAT").build(), null).orElseThrow().floors())
+                .containsExactly(Map.entry(-1, 1L), Map.entry(3, 1L));
+    }
+
+    @Test
+    void testOnUnitCreated_appendsUnitWithCostRoundedToCents() {
+        catalog.onUnitCreated(new UnitCreatedEvent(UnitDto.builder()
+                                                          .id(9L)
+                                                          .numberOfRooms(2)
+                                                          .type(AccommodationType.FLAT)
+                                                          .floor(5)
+                                                          .totalCost(new BigDecimal("99.995"))
+                                                          .build()));
+
+        assertThat(ids(UnitSearchCriteria.builder().numberOfRooms(2).build(), null, "id", true))
+                .containsExactly(1L, 4L, 9L);
+        assertThat(ids(UnitSearchCriteria.builder().maxCost(new BigDecimal("99.99")).build(), null, "id", true))
+                .containsExactly(2L, 4L);
+        assertThat(ids(UnitSearchCriteria.builder().maxCost(new BigDecimal("100")).build(), null, "totalCost", true))
+                .containsExactly(2L, 4L, 7L, 9L);
+    }
+
+    @Test
+    void testRebuild_appendsUnitsCreatedWhileLoading() {
+        when(unitRepository.findAllAttributes()).thenAnswer(invocation -> {
+            catalog.onUnitCreated(new UnitCreatedEvent(UnitDto.builder()
+                                                              .id(7L)
+                                                              .numberOfRooms(3)
+                                                              .type(AccommodationType.APARTMENT)
+                                                              .floor(3)
+                                                              .totalCost(new BigDecimal("100.00"))
+                                                              .build()));
+            catalog.onUnitCreated(new UnitCreatedEvent(UnitDto.builder()
+                                                              .id(9L)
+                                                              .numberOfRooms(2)
+                                                              .type(AccommodationType.FLAT)
+                                                              .floor(5)
+                                                              .totalCost(new BigDecimal("50.00"))
+                                                              .build()));
+            return List.of(
+                    new UnitAttributes(1L, 2, AccommodationType.FLAT, 3, new BigDecimal("120.00")),
+                    new UnitAttributes(7L, 3, AccommodationType.APARTMENT, 3, new BigDecimal("100.00")));
+        });
+
+        catalog.rebuild();
+
+        assertThat(ids(UnitSearchCriteria.builder().build(), null, "id", true)).containsExactly(1L, 7L, 9L);
+        assertThat(ids(UnitSearchCriteria.builder().numberOfRooms(2).build(), null, "totalCost", true))
+                .containsExactly(9L, 1L);
+    }
+
+    @Test
+    void testMatchingIds_scalarAndVectorKernelsAgree() {
+        List<UnitAttributes> units = LongStream.rangeClosed(1, 1000)
+                                               .mapToObj(id -> new UnitAttributes(id, (int) (id % 5) + 1,
+                                                       AccommodationType.values()[(int) (id % 3)], (int) (id % 11),
+                                                       BigDecimal.valueOf(id * 37 % 500, 1)))
+                                               .toList();
+        when(unitRepository.findAllAttributes()).thenReturn(units);
+        UnitCatalog scalar = new UnitCatalog(unitRepository, false);
+        scalar.rebuild();
+        catalog.rebuild();
+
+        UnitSearchCriteria criteria = UnitSearchCriteria.builder()
+                                                        .type("HOME")
+                                                        .maxCost(new BigDecimal("25.5"))
+                                                        .build();
+        long[] expected = units.stream()
+                               .filter(unit -> unit.type() == AccommodationType.HOME)
+                               .filter(unit -> unit.totalCost().compareTo(new BigDecimal("25.5")) <= 0)
+                               .mapToLong(UnitAttributes::id)
+                               .toArray();
+
+        assertThat(scalar.matchingIds(criteria, null, "id", true)).hasValueSatisfying(
+                ids -> assertThat(ids).containsExactly(expected));
+        assertThat(catalog.matchingIds(criteria, null, "id", true)).hasValueSatisfying(
+                ids -> assertThat(ids).containsExactly(expected));
+    }
+
+    private long[] ids(UnitSearchCriteria criteria, long[] allowedUnits, String sortBy, boolean ascending) {
+        return catalog.matchingIds(criteria, allowedUnits, sortBy, ascending).orElseThrow();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.bookingsystem.index;
+
+import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.model.enums.AccommodationType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnitSearchCacheTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2025, 6, 1);
+    private static final LocalDate JUNE_10 = LocalDate.of(2025, 6, 10);
+    private static final LocalDate JULY_1 = LocalDate.of(2025, 7, 1);
+    private static final LocalDate JULY_10 = LocalDate.of(2025, 7, 10);
+
+    private UnitSearchCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new UnitSearchCache(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testKey_normalizesEquivalentCriteria() {
+        UnitSearchCriteria first = UnitSearchCriteria.builder().type("flat").maxCost(new BigDecimal("100.00"))
+                                                     .startDate(JUNE_1).build();
+        UnitSearchCriteria second = UnitSearchCriteria.builder().type("Flat").maxCost(new BigDecimal("100")).build();
+
+        assertThat(UnitSearchCache.Key.of(first, 0, 10, "id", "asc"))
+                .isEqualTo(UnitSearchCache.Key.of(second, 0, 10, "id", "ASC"))
+                .isNotEqualTo(UnitSearchCache.Key.of(second, 0, 10, "id", "desc"));
+    }
+
+    @Test
+    void testComputeIfAbsent_evictsLeastRecentlyUsedBeyondCapacity() {
+        search(dated(JUNE_1, JUNE_10), 0);
+        search(dated(JUNE_1, JUNE_10), 1);
+        search(dated(JUNE_1, JUNE_10), 2);
+        search(dated(JUNE_1, JUNE_10), 0);
+        search(dated(JUNE_1, JUNE_10), 3);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.capacityEvictionCount()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(1);
+
+        loads.set(0);
+        search(dated(JUNE_1, JUNE_10), 0);
+        search(dated(JUNE_1, JUNE_10), 1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testBooking_invalidatesOnlyOverlappingDatedSearches() {
+        search(dated(JUNE_1, JUNE_10), 0);
+        search(dated(JULY_1, JULY_10), 0);
+        search(UnitSearchCriteria.builder().build(), 0);
+
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                1L, 7L, 1L, JUNE_10, JULY_1.minusDays(1), null, BookingStatus.PENDING));
+
+        loads.set(0);
+        search(dated(JUNE_1, JUNE_10), 0);
+        search(dated(JULY_1, JULY_10), 0);
+        search(UnitSearchCriteria.builder().build(), 0);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.invalidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testConfirmation_keepsCachedSearches() {
+        search(dated(JUNE_1, JUNE_10), 0);
+
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                1L, 7L, 1L, JUNE_1, JUNE_10, BookingStatus.PENDING, BookingStatus.CONFIRMED));
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnitCreated_invalidatesOnlySearchesItCouldMatch() {
+        search(UnitSearchCriteria.builder().numberOfRooms(2).build(), 0);
+        search(UnitSearchCriteria.builder().numberOfRooms(3).build(), 0);
+        search(UnitSearchCriteria.builder().maxCost(new BigDecimal("50")).build(), 0);
+
+        cache.onUnitCreated(new UnitCreatedEvent(UnitDto.builder().id(9L).numberOfRooms(2).floor(1)
+                                                        .type(AccommodationType.FLAT)
+                                                        .totalCost(new BigDecimal("115")).build()));
+
+        loads.set(0);
+        search(UnitSearchCriteria.builder().numberOfRooms(2).build(), 0);
+        search(UnitSearchCriteria.builder().numberOfRooms(3).build(), 0);
+        search(UnitSearchCriteria.builder().maxCost(new BigDecimal("50")).build(), 0);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testChangeInFlight_appliesOnCommitAndDoesNotCacheConcurrentLoads() {
+        search(dated(JUNE_1, JUNE_10), 0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.onBookingStatusChanged(new BookingStatusChangedEvent(
+                1L, 7L, 1L, JUNE_10, JUNE_10, null, BookingStatus.PENDING));
+        search(dated(JULY_1, JULY_10), 0);
+
+        assertThat(cache.size()).isEqualTo(1);
+
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private Page<UnitDto> search(UnitSearchCriteria criteria, int page) {
+        return cache.computeIfAbsent(UnitSearchCache.Key.of(criteria, page, 10, "id", "asc"), () -> {
+            loads.incrementAndGet();
+            return new PageImpl<>(List.of(UnitDto.builder().id(1L).build()));
+        });
+    }
+
+    private static UnitSearchCriteria dated(LocalDate startDate, LocalDate endDate) {
+        return UnitSearchCriteria.builder().startDate(startDate).endDate(endDate).build();
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
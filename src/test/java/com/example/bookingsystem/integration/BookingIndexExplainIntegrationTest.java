@@ -0,0 +1,192 @@
+package com.example.bookingsystem.integration;
+
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.UnitRepository;
+import com.example.bookingsystem.specification.UnitSpecification;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies on a table of one million bookings that the availability and conflict queries are answered through
+ * the booking indexes. The statements explained are the ones Hibernate generates for
+ * {@code UnitSpecification.isAvailableWithinDates} and the overlap queries of {@code BookingRepository}, captured by a
+ * {@link StatementInspector} while the repositories run them. All data is rolled back after each test.
+ */
+@SpringBootTest
+@Transactional
+class BookingIndexExplainIntegrationTest {
+
+    private static final int UNITS = 10_000;
+    private static final int BOOKINGS_PER_UNIT = 100;
+    private static final LocalDate FROM = LocalDate.of(2031, 3, 1);
+    private static final LocalDate TO = LocalDate.of(2031, 3, 3);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UnitRepository unitRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("""
+                INSERT INTO units (number_of_rooms, type, floor, base_cost, total_cost, description)
+                SELECT 1 + n % 4, 'FLAT', n % 10, 100.00, 115.00, 'explain-test'
+                FROM generate_series(1, ?) n
+                """, UNITS);
+        // Every unit gets non-overlapping three day bookings one week apart; every tenth one is cancelled
+        jdbcTemplate.update("""
+                INSERT INTO bookings (user_id, unit_id, start_date, end_date, status)
+                SELECT 1, u.id, DATE '2030-01-01' + s * 7 + u.id % 7, DATE '2030-01-01' + s * 7 + u.id % 7 + 2,
+                       CASE WHEN s % 10 = 0 THEN 'CANCELLED' ELSE 'CONFIRMED' END
+                FROM units u CROSS JOIN generate_series(0, ? - 1) s
+                WHERE u.description = 'explain-test'
+                """, BOOKINGS_PER_UNIT);
+        jdbcTemplate.execute("ANALYZE units");
+        jdbcTemplate.execute("ANALYZE bookings");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM bookings", Long.class))
+                .isGreaterThanOrEqualTo((long) UNITS * BOOKINGS_PER_UNIT);
+    }
+
+    @Test
+    void availabilityCount_probesBookingsThroughIndex() {
+        String sql = sqlCapture.capture(() -> unitRepository.count(UnitSpecification.isAvailableWithinDates(FROM, TO)));
+
+        String plan = explain(sql, "CANCELLED", 0L, FROM, TO);
+
+        assertThat(plan).doesNotContain("Seq Scan on bookings");
+    }
+
+    @Test
+    void conflictLookup_usesUnitPeriodIndex() {
+        Long unitId = jdbcTemplate.queryForObject(
+                "SELECT max(id) FROM units WHERE description = 'explain-test'", Long.class);
+        String sql = sqlCapture.capture(() -> bookingRepository.existsActiveOverlapping(unitId, FROM, TO));
+
+        String plan = explain(sql, unitId, FROM, TO);
+
+        assertThat(plan).doesNotContain("Seq Scan on bookings").contains("ex_bookings_unit_period");
+    }
+
+    @Test
+    void activePeriodsLookup_usesPartialPeriodIndex() {
+        String sql = sqlCapture.capture(() -> bookingRepository.findActivePeriodsOverlapping(FROM, TO));
+
+        String plan = explain(sql, FROM, TO);
+
+        assertThat(plan).doesNotContain("Seq Scan on bookings").contains("idx_bookings_active_period");
+    }
+
+    /**
+     * Explains a captured statement with its placeholders bound. Whether Hibernate binds or inlines a criteria value
+     * is up to its value handling, so the statement is prepared first and every parameter takes the first unused
+     * value of the type Postgres inferred for it.
+     */
+    private String explain(String sql, Object... values) {
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        jdbcTemplate.execute("PREPARE explain_target AS " + numbered);
+        try {
+            List<String> types = jdbcTemplate.queryForList("""
+                    SELECT p.type::text FROM pg_prepared_statements s,
+                           unnest(s.parameter_types) WITH ORDINALITY AS p(type, position)
+                    WHERE s.name = 'explain_target' ORDER BY p.position
+                    """, String.class);
+            List<Object> unused = new ArrayList<>(List.of(values));
+            List<String> arguments = new ArrayList<>();
+            for (String type : types) {
+                Object value = unused.stream()
+                                     .filter(candidate -> type.equals(sqlType(candidate)))
+                                     .findFirst()
+                                     .orElseThrow(() -> new AssertionError("No " + type + " value to bind in: " + sql));
+                unused.remove(value);
+                arguments.add("'" + value + "'");
+            }
+            String execute = arguments.isEmpty() ? "" : arguments.stream().collect(Collectors.joining(", ", "(", ")"));
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN EXECUTE explain_target" + execute,
+                    String.class));
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE explain_target");
+        }
+    }
+
+    private static String sqlType(Object value) {
+        if (value instanceof LocalDate) {
+            return "date";
+        }
+        if (value instanceof Long) {
+            return "bigint";
+        }
+        return "character varying";
+    }
+
+    /**
+     * Records the SQL Hibernate prepares while the current thread is {@linkplain #capture capturing}.
+     */
+    static class SqlCapture implements StatementInspector {
+
+        private final ThreadLocal<List<String>> statements = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = statements.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+
+        String capture(Runnable query) {
+            List<String> captured = new ArrayList<>();
+            statements.set(captured);
+            try {
+                query.run();
+            } finally {
+                statements.remove();
+            }
+            assertThat(captured).hasSize(1);
+            return captured.get(0);
+        }
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureCustomizer(SqlCapture sqlCapture) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlCapture);
+        }
+    }
+}
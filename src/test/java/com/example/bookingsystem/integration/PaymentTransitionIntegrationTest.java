@@ -0,0 +1,222 @@
+package com.example.bookingsystem.integration;
+
+import com.example.bookingsystem.dto.ClaimedPaymentJob;
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.repository.PaymentJobRepository;
+import com.example.bookingsystem.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races the guarded payment transitions against each other on the database: whichever of completion and expiration
+ * locks the payment first wins, and the other one must change nothing. Deadlines and due times lie in 2099, so the
+ * running application's timing wheel, sweep and job worker leave the test rows alone; statements that could touch
+ * other rows run in transactions that are rolled back.
+ */
+@SpringBootTest
+class PaymentTransitionIntegrationTest {
+
+    private static final LocalDateTime DEADLINE = LocalDateTime.of(2099, 1, 1, 0, 0);
+    private static final LocalDateTime AFTER_DEADLINE = DEADLINE.plusMinutes(1);
+    private static final int SHARDS = 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private PaymentJobRepository paymentJobRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService executor;
+    private Long unitId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        executor = Executors.newFixedThreadPool(2);
+        unitId = jdbcTemplate.queryForObject("""
+                INSERT INTO units (number_of_rooms, type, floor, base_cost, total_cost, description)
+                VALUES (1, 'FLAT', 1, 100.00, 115.00, 'transition-test') RETURNING id
+                """, Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        jdbcTemplate.update("DELETE FROM payment_jobs WHERE payment_id IN (SELECT p.id FROM payments p "
+                + "JOIN bookings b ON b.id = p.booking_id WHERE b.unit_id = ?)", unitId);
+        jdbcTemplate.update("DELETE FROM payments WHERE booking_id IN (SELECT id FROM bookings WHERE unit_id = ?)",
+                unitId);
+        jdbcTemplate.update("DELETE FROM bookings WHERE unit_id = ?", unitId);
+        jdbcTemplate.update("DELETE FROM units WHERE id = ?", unitId);
+    }
+
+    @Test
+    void complete_waitingForExpiration_changesNothingOnceItCommits() throws Exception {
+        Fixture fixture = pendingPayment(0);
+        CountDownLatch expired = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Optional<PaymentTransition>> expiration = executor.submit(() -> transactionTemplate.execute(status -> {
+            Optional<PaymentTransition> result = paymentRepository.expirePayment(fixture.paymentId(), AFTER_DEADLINE);
+            expired.countDown();
+            await(release);
+            return result;
+        }));
+        assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<PaymentTransition>> completion = executor.submit(() ->
+                transactionTemplate.execute(status -> paymentRepository.complete(fixture.paymentId())));
+
+        Thread.sleep(200);
+        assertThat(completion).as("completion waits for the expiration's row lock").isNotDone();
+        release.countDown();
+
+        assertThat(expiration.get(5, TimeUnit.SECONDS)).isPresent();
+        assertThat(completion.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(paymentStatus(fixture)).isEqualTo("FAILED");
+        assertThat(bookingStatus(fixture)).isEqualTo("CANCELLED");
+        assertThat(jobExists(fixture)).isFalse();
+    }
+
+    @Test
+    void expire_racingCompletion_changesNothing() throws Exception {
+        Fixture fixture = pendingPayment(10);
+        CountDownLatch completed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Optional<PaymentTransition>> completion = executor.submit(() -> transactionTemplate.execute(status -> {
+            Optional<PaymentTransition> result = paymentRepository.complete(fixture.paymentId());
+            completed.countDown();
+            await(release);
+            return result;
+        }));
+        assertThat(completed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // While the completion holds the payment, both expirations skip it
+        assertThat(transactionTemplate.execute(status ->
+                paymentRepository.expirePayment(fixture.paymentId(), AFTER_DEADLINE))).isEmpty();
+        assertThat(expireDueAndRollBack(fixture)).isEmpty();
+        release.countDown();
+        assertThat(completion.get(5, TimeUnit.SECONDS)).isPresent();
+
+        // Once it has committed, the payment no longer matches their guard
+        assertThat(transactionTemplate.execute(status ->
+                paymentRepository.expirePayment(fixture.paymentId(), AFTER_DEADLINE))).isEmpty();
+        assertThat(expireDueAndRollBack(fixture)).isEmpty();
+        assertThat(paymentStatus(fixture)).isEqualTo("COMPLETED");
+        assertThat(bookingStatus(fixture)).isEqualTo("CONFIRMED");
+        assertThat(jobExists(fixture)).isFalse();
+    }
+
+    @Test
+    void claimDue_skipsAndDeletesJobsOfSettledPayments() {
+        Fixture initiated = pendingPayment(20);
+        Fixture completed = pendingPayment(30);
+        jdbcTemplate.update("UPDATE payments SET status = 'COMPLETED' WHERE id = ?", completed.paymentId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ClaimedPaymentJob> claimed =
+                    paymentJobRepository.claimDue(AFTER_DEADLINE, AFTER_DEADLINE.plusSeconds(12), 1000);
+
+            assertThat(claimed).extracting(ClaimedPaymentJob::paymentId)
+                               .contains(initiated.paymentId())
+                               .doesNotContain(completed.paymentId());
+            assertThat(jobExists(initiated)).isTrue();
+            assertThat(jobExists(completed)).isFalse();
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void expire_keepsCapturedJobForItsRefund() {
+        Fixture fixture = pendingPayment(40);
+        jdbcTemplate.update("UPDATE payment_jobs SET capture_reference = 'capture' WHERE payment_id = ?",
+                fixture.paymentId());
+
+        assertThat(transactionTemplate.execute(status ->
+                paymentRepository.expirePayment(fixture.paymentId(), AFTER_DEADLINE))).isPresent();
+
+        assertThat(paymentStatus(fixture)).isEqualTo("FAILED");
+        assertThat(jobExists(fixture)).isTrue();
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(paymentJobRepository.claimDue(AFTER_DEADLINE, AFTER_DEADLINE.plusSeconds(12), 1000))
+                    .filteredOn(job -> job.paymentId().equals(fixture.paymentId()))
+                    .extracting(ClaimedPaymentJob::capture)
+                    .containsExactly("capture");
+            status.setRollbackOnly();
+        });
+    }
+
+    private Fixture pendingPayment(int dayOffset) {
+        LocalDate start = DEADLINE.toLocalDate().plusDays(dayOffset);
+        Long bookingId = jdbcTemplate.queryForObject("""
+                INSERT INTO bookings (user_id, unit_id, start_date, end_date, status)
+                VALUES (1, ?, ?, ?, 'PENDING') RETURNING id
+                """, Long.class, unitId, start, start.plusDays(2));
+        Long paymentId = jdbcTemplate.queryForObject("""
+                INSERT INTO payments (booking_id, amount, status, expires_at)
+                VALUES (?, 115.00, 'INITIATED', ?) RETURNING id
+                """, Long.class, bookingId, DEADLINE);
+        jdbcTemplate.update("INSERT INTO payment_jobs (payment_id, due_at) VALUES (?, ?)", paymentId,
+                DEADLINE.minusMinutes(1));
+        return new Fixture(bookingId, paymentId);
+    }
+
+    private List<PaymentTransition> expireDueAndRollBack(Fixture fixture) {
+        int shard = (int) (fixture.paymentId() % SHARDS);
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return paymentRepository.expireDue(AFTER_DEADLINE, 1000, shard, SHARDS).stream()
+                                    .filter(transition -> transition.paymentId().equals(fixture.paymentId()))
+                                    .toList();
+        });
+    }
+
+    private String paymentStatus(Fixture fixture) {
+        return jdbcTemplate.queryForObject("SELECT status FROM payments WHERE id = ?", String.class,
+                fixture.paymentId());
+    }
+
+    private String bookingStatus(Fixture fixture) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class,
+                fixture.bookingId());
+    }
+
+    private boolean jobExists(Fixture fixture) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM payment_jobs WHERE payment_id = ?)", Boolean.class,
+                fixture.paymentId()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Fixture(Long bookingId, Long paymentId) {
+    }
+}
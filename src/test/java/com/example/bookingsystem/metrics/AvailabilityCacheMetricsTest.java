@@ -0,0 +1,45 @@
+package com.example.bookingsystem.metrics;
+
+import com.example.bookingsystem.index.AvailabilityCountCache;
+import com.example.bookingsystem.index.BookingIntervalIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AvailabilityCacheMetricsTest {
+
+    private static final LocalDate JUNE_1 = LocalDate.of(2025, 6, 1);
+    private static final LocalDate JUNE_10 = LocalDate.of(2025, 6, 10);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AvailabilityCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AvailabilityCountCache(mock(BookingIntervalIndex.class));
+        new AvailabilityCacheMetrics(cache).bindTo(registry);
+    }
+
+    @Test
+    void testMeters_reflectCacheStatistics() {
+        cache.computeIfAbsent(JUNE_1, JUNE_10, () -> 5);
+        cache.computeIfAbsent(JUNE_1, JUNE_10, () -> 5);
+        cache.computeIfAbsent(JUNE_1, JUNE_10, () -> 5);
+        cache.computeIfAbsent(JUNE_10, JUNE_10, () -> 7);
+
+        assertThat(registry.get("availability.cache.size").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("availability.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("availability.cache.requests").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("availability.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+
+        cache.clear();
+
+        assertThat(registry.get("availability.cache.size").gauge().value()).isZero();
+        assertThat(registry.get("availability.cache.evictions").functionCounter().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.bookingsystem.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testConflictsAndPaymentTasks_areRecorded() {
+        BookingMetrics metrics = new BookingMetrics(registry);
+
+        metrics.bookingConflict(BookingMetrics.CONFLICT_INDEX);
+        metrics.bookingConflict(BookingMetrics.CONFLICT_INDEX);
+        metrics.bookingConflict(BookingMetrics.CONFLICT_DATABASE);
+        metrics.paymentTaskScheduled();
+        metrics.paymentTaskScheduled();
+        assertThat(registry.get("payment.tasks.outstanding").gauge().value()).isEqualTo(2);
+
+        metrics.recordPaymentTask(() -> { });
+
+        assertThat(registry.get("booking.conflicts").tag("source", "index").counter().count()).isEqualTo(2);
+        assertThat(registry.get("booking.conflicts").tag("source", "database").counter().count()).isEqualTo(1);
+        assertThat(registry.get("payment.tasks.outstanding").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("payment.process").timer().count()).isEqualTo(1);
+    }
+}
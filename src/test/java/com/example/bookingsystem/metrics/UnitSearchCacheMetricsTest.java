@@ -0,0 +1,42 @@
+package com.example.bookingsystem.metrics;
+
+import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.index.UnitSearchCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnitSearchCacheMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private UnitSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UnitSearchCache(1);
+        new UnitSearchCacheMetrics(cache).bindTo(registry);
+    }
+
+    @Test
+    void testMeters_reflectCacheStatistics() {
+        search(0);
+        search(0);
+        search(0);
+        search(1);
+
+        assertThat(registry.get("unit.search.cache.size").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("unit.search.cache.requests").tag("result", "hit").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("unit.search.cache.requests").tag("result", "miss").functionCounter().count()).isEqualTo(2);
+        assertThat(registry.get("unit.search.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(registry.get("unit.search.cache.evictions").tag("cause", "capacity").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("unit.search.cache.evictions").tag("cause", "invalidation").functionCounter().count()).isZero();
+    }
+
+    private void search(int page) {
+        cache.computeIfAbsent(UnitSearchCache.Key.of(UnitSearchCriteria.builder().build(), page, 10, "id", "asc"),
+                Page::empty);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.bookingsystem.scheduling;
+
+import com.example.bookingsystem.dto.PaymentDeadline;
+import com.example.bookingsystem.repository.PaymentRepository;
+import com.example.bookingsystem.service.PaymentExpirationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentExpirationSchedulerTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-15T10:00:00Z");
+
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private PaymentExpirationService expirationService;
+
+    private Clock clock;
+    private PaymentExpirationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = mock(Clock.class);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        PaymentStage paymentStage = mock(PaymentStage.class);
+        when(paymentStage.submit(anyString(), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+        scheduler = new PaymentExpirationScheduler(paymentRepository, expirationService, paymentStage, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testRebuild_firesLoadedExpirationsWithinOneTickOfDeadline() {
+        when(paymentRepository.findAllDeadlines()).thenReturn(List.of(
+                new PaymentDeadline(1L, at(NOW.plusSeconds(2))),
+                new PaymentDeadline(2L, at(NOW.plusSeconds(120)))));
+        scheduler.rebuild();
+
+        moveTo(NOW.plusSeconds(2).minusMillis(1));
+        verify(expirationService, never()).expirePayment(anyLong());
+
+        moveTo(NOW.plusSeconds(2).plusMillis(PaymentExpirationScheduler.TICK_MILLIS));
+        verify(expirationService).expirePayment(1L);
+        verify(expirationService, never()).expirePayment(2L);
+        assertThat(scheduler.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testScheduleAndCancel_insideTransaction_applyOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        scheduler.schedule(1L, at(NOW.plusSeconds(1)));
+        scheduler.schedule(2L, at(NOW.plusSeconds(1)));
+        assertThat(scheduler.size()).isZero();
+
+        commit();
+        assertThat(scheduler.size()).isEqualTo(2);
+
+        scheduler.cancel(2L);
+        moveTo(NOW.plusSeconds(1));
+        verify(expirationService).expirePayment(1L);
+        verify(expirationService, never()).expirePayment(2L);
+    }
+
+    private void moveTo(Instant instant) {
+        when(clock.millis()).thenReturn(instant.toEpochMilli());
+        scheduler.tick();
+    }
+
+    private void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+    }
+
+    private static LocalDateTime at(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
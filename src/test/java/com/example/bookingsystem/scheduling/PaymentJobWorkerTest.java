@@ -0,0 +1,324 @@
+package com.example.bookingsystem.scheduling;
+
+import com.example.bookingsystem.dto.ClaimedPaymentJob;
+import com.example.bookingsystem.exception.PaymentGatewayException;
+import com.example.bookingsystem.exception.ResourceNotFoundException;
+import com.example.bookingsystem.gateway.GatewayResponse;
+import com.example.bookingsystem.gateway.PaymentGateway;
+import com.example.bookingsystem.metrics.BookingMetrics;
+import com.example.bookingsystem.repository.PaymentJobRepository;
+import com.example.bookingsystem.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentJobWorkerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+    @Mock
+    private PaymentJobRepository jobRepository;
+    @Mock
+    private PaymentService paymentService;
+    @Mock
+    private PaymentGateway paymentGateway;
+    @Mock
+    private PaymentStage paymentStage;
+
+    private final List<Runnable> submitted = new ArrayList<>();
+    private SimpleMeterRegistry registry;
+    private PaymentJobWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(paymentStage.submit(eq(PaymentStage.TASK_PROCESSING), any())).thenAnswer(invocation -> {
+            submitted.add(invocation.getArgument(1));
+            return true;
+        });
+        when(paymentStage.idleWorkers()).thenReturn(1);
+        when(paymentStage.executor(PaymentStage.TASK_PROCESSING)).thenReturn(Runnable::run);
+        when(paymentGateway.authorize(anyLong(), any()))
+                .thenReturn(CompletableFuture.completedFuture(GatewayResponse.approved("auth")));
+        when(paymentGateway.capture(anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(GatewayResponse.approved("capture")));
+        when(paymentGateway.refund(anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(GatewayResponse.approved("refund")));
+        when(paymentService.processPayment(anyLong())).thenReturn(true);
+        registry = new SimpleMeterRegistry();
+        worker = new PaymentJobWorker(60, 60, 5000, 2, jobRepository, paymentService, paymentGateway,
+                new BookingMetrics(registry), paymentStage, CLOCK);
+    }
+
+    private static ClaimedPaymentJob job(long jobId, long paymentId, int attempts) {
+        return new ClaimedPaymentJob(jobId, paymentId, BigDecimal.TEN, attempts, null, null, NOW.plusMinutes(2));
+    }
+
+    private static ClaimedPaymentJob job(int attempts, String authorization, String capture) {
+        return new ClaimedPaymentJob(1L, 10L, BigDecimal.TEN, attempts, authorization, capture, NOW.plusMinutes(2));
+    }
+
+    @Test
+    void testPoll_chargesClaimedJobsAndProcessesCapturedPayments() {
+        when(jobRepository.claimDue(NOW, NOW.plusSeconds(60), 2)).thenReturn(List.of(job(1L, 10L, 1), job(2L, 20L, 1)));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(paymentGateway).authorize(10L, BigDecimal.TEN);
+        verify(paymentGateway, times(2)).capture("auth", BigDecimal.TEN);
+        verify(paymentService).processPayment(10L);
+        verify(paymentService).processPayment(20L);
+        assertThat(registry.get("payment.tasks.outstanding").gauge().value()).isZero();
+        assertThat(registry.get("payment.gateway.requests").tag("outcome", "approved").timers()).hasSize(2);
+    }
+
+    @Test
+    void testPoll_declinedPaymentLosesItsJob() {
+        when(paymentGateway.authorize(anyLong(), any()))
+                .thenReturn(CompletableFuture.completedFuture(GatewayResponse.declined("Card declined")));
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(paymentGateway, never()).capture(anyString(), any());
+        verify(paymentService, never()).processPayment(anyLong());
+        verify(jobRepository).deleteById(1L);
+    }
+
+    @Test
+    void testPoll_gatewayFailureKeepsJobForRetry() {
+        when(paymentGateway.authorize(anyLong(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Gateway rate limit exceeded")));
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(paymentService, never()).processPayment(anyLong());
+        verify(jobRepository, never()).deleteById(anyLong());
+        assertThat(registry.get("payment.gateway.requests").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testPoll_saturatedStageIsNotOfferedNewJobs() {
+        when(paymentStage.idleWorkers()).thenReturn(0);
+
+        worker.poll();
+
+        verify(jobRepository, never()).claimDue(any(), any(), anyInt());
+    }
+
+    @Test
+    void testPoll_rejectedJobIsLeftForItsLeaseToExpire() {
+        when(paymentStage.submit(eq(PaymentStage.TASK_PROCESSING), any())).thenReturn(false);
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+
+        verify(paymentService, never()).processPayment(anyLong());
+        verify(jobRepository, never()).deleteById(anyLong());
+        assertThat(registry.get("payment.tasks.outstanding").gauge().value()).isZero();
+    }
+
+    @Test
+    void testPoll_failedJobIsKeptForRetryUntilAttemptsAreExhausted() {
+        when(paymentGateway.authorize(anyLong(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Gateway rate limit exceeded")));
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+        submitted.remove(0).run();
+
+        verify(jobRepository, never()).deleteById(anyLong());
+
+        when(jobRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(job(1L, 10L, PaymentJobWorker.MAX_ATTEMPTS)));
+        worker.poll();
+        submitted.remove(0).run();
+
+        verify(jobRepository).deleteById(1L);
+        assertThat(submitted).isEmpty();
+    }
+
+    @Test
+    void testPoll_capturedJobIsRefundedWhenAttemptsAreExhausted() {
+        doThrow(new ResourceNotFoundException("Payment not found: ID = 10")).when(paymentService).processPayment(10L);
+        when(jobRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(job(PaymentJobWorker.MAX_ATTEMPTS, "auth", "capture")));
+
+        worker.poll();
+        submitted.remove(0).run();
+
+        verify(paymentGateway).refund("capture", BigDecimal.TEN);
+        verify(jobRepository, never()).deleteById(anyLong());
+        submitted.remove(0).run();
+        verify(jobRepository).deleteByPaymentId(10L);
+    }
+
+    @Test
+    void testPoll_paymentExpiredMeanwhileIsRefunded() {
+        when(paymentService.processPayment(10L)).thenReturn(false);
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+        // The outcome submits the deletion of the refunded job
+        while (!submitted.isEmpty()) {
+            submitted.remove(0).run();
+        }
+
+        InOrder order = inOrder(jobRepository, paymentGateway);
+        order.verify(jobRepository).recordCapture(10L, "capture", NOW);
+        order.verify(paymentGateway).refund("capture", BigDecimal.TEN);
+        order.verify(jobRepository).deleteByPaymentId(10L);
+    }
+
+    @Test
+    void testPoll_failedRefundKeepsTheCaptureForRetry() {
+        when(paymentService.processPayment(10L)).thenReturn(false);
+        when(paymentGateway.refund(anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Gateway unavailable")));
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(2, "auth", "capture")));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(jobRepository, never()).deleteById(anyLong());
+        verify(jobRepository, never()).deleteByPaymentId(anyLong());
+    }
+
+    @Test
+    void testPoll_paymentCloseToItsDeadlineIsNotCaptured() {
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(new ClaimedPaymentJob(
+                1L, 10L, BigDecimal.TEN, 1, null, null, NOW.plusSeconds(3))));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(paymentGateway, never()).capture(anyString(), any());
+        verify(paymentService, never()).processPayment(anyLong());
+        verify(jobRepository).deleteById(1L);
+    }
+
+    @Test
+    void testPoll_captureNotRecordedOnSaturatedStageIsNeverAbandoned() {
+        when(paymentStage.executor(PaymentStage.TASK_PROCESSING)).thenReturn(task -> {
+            throw new RejectedExecutionException("Payment stage rejected processing task");
+        });
+        worker = new PaymentJobWorker(60, 60, 5000, 2, jobRepository, paymentService, paymentGateway,
+                new BookingMetrics(registry), paymentStage, CLOCK);
+        when(jobRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(job(1L, 10L, PaymentJobWorker.MAX_ATTEMPTS)));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(jobRepository, never()).recordAuthorization(anyLong(), anyString());
+        verify(jobRepository, never()).deleteById(anyLong());
+        verify(paymentService, never()).processPayment(anyLong());
+    }
+
+    @Test
+    void testPoll_recordsGatewayReferencesBeforeProcessing() {
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        InOrder order = inOrder(jobRepository, paymentService);
+        order.verify(jobRepository).recordAuthorization(1L, "auth");
+        order.verify(jobRepository).recordCapture(10L, "capture", NOW);
+        order.verify(paymentService).processPayment(10L);
+    }
+
+    @Test
+    void testPoll_reclaimedCapturedJobIsProcessedWithoutCharging() {
+        when(jobRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(job(2, "auth", "capture")));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(paymentGateway, never()).authorize(anyLong(), any());
+        verify(paymentGateway, never()).capture(anyString(), any());
+        verify(paymentService).processPayment(10L);
+    }
+
+    @Test
+    void testPoll_reclaimedAuthorizedJobOnlyCaptures() {
+        when(jobRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(job(2, "auth-1", null)));
+
+        worker.poll();
+        submitted.forEach(Runnable::run);
+
+        verify(paymentGateway, never()).authorize(anyLong(), any());
+        verify(paymentGateway).capture("auth-1", BigDecimal.TEN);
+        verify(paymentService).processPayment(10L);
+    }
+
+    @Test
+    void testPoll_retriedProcessingDoesNotChargeTwice() {
+        when(paymentService.processPayment(10L)).thenThrow(new IllegalStateException("Connection reset")).thenReturn(true);
+        when(jobRepository.claimDue(any(), any(), anyInt())).thenReturn(List.of(job(1L, 10L, 1)));
+
+        worker.poll();
+        submitted.remove(0).run();
+
+        ArgumentCaptor<String> authorization = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> capture = ArgumentCaptor.forClass(String.class);
+        verify(jobRepository).recordAuthorization(eq(1L), authorization.capture());
+        verify(jobRepository).recordCapture(eq(10L), capture.capture(), eq(NOW));
+
+        // The lease ran out; the job comes back with what the first attempt recorded
+        when(jobRepository.claimDue(any(), any(), anyInt()))
+                .thenReturn(List.of(job(2, authorization.getValue(), capture.getValue())));
+        worker.poll();
+        submitted.remove(0).run();
+
+        verify(paymentGateway, times(1)).authorize(anyLong(), any());
+        verify(paymentGateway, times(1)).capture(anyString(), any());
+        verify(paymentService, times(2)).processPayment(10L);
+    }
+
+    @Test
+    void testDefaultLeaseSeconds_spreadsAttemptsBeforeTheDeadline() {
+        assertThat(PaymentJobWorker.defaultLeaseSeconds(60, 5000)).isEqualTo(12);
+        assertThat(PaymentJobWorker.defaultLeaseSeconds(100, 5000)).isEqualTo(11);
+
+        worker = new PaymentJobWorker(0, 60, 5000, 2, jobRepository, paymentService, paymentGateway,
+                new BookingMetrics(registry), paymentStage, CLOCK);
+        worker.poll();
+
+        verify(jobRepository).claimDue(NOW, NOW.plusSeconds(12), 2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bookingsystem.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentStageTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PaymentStage stage;
+
+    @AfterEach
+    void tearDown() {
+        if (stage != null) {
+            stage.shutdown();
+        }
+    }
+
+    @Test
+    void testConcurrency_defaultsToHalfOfTheConnectionPool() {
+        stage = new PaymentStage(0, 10, 10, registry);
+
+        assertThat(stage.concurrency()).isEqualTo(5);
+        assertThat(stage.idleWorkers()).isEqualTo(5);
+    }
+
+    @Test
+    void testConcurrency_isCappedByTheConnectionPool() {
+        stage = new PaymentStage(50, 10, 10, registry);
+
+        assertThat(stage.concurrency()).isEqualTo(10);
+    }
+
+    @Test
+    void testSubmit_rejectsTasksBeyondTheQueueAndCountsThem() throws InterruptedException {
+        stage = new PaymentStage(1, 10, 1, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(2);
+
+        assertThat(stage.submit(PaymentStage.TASK_PROCESSING, () -> {
+            started.countDown();
+            await(release);
+            finished.countDown();
+        })).isTrue();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(stage.submit(PaymentStage.TASK_EXPIRATION, finished::countDown)).isTrue();
+        assertThat(stage.idleWorkers()).isZero();
+
+        assertThat(stage.submit(PaymentStage.TASK_EXPIRATION, finished::countDown)).isFalse();
+        assertThat(registry.get("payment.stage.rejected").tag("task", PaymentStage.TASK_EXPIRATION).counter().count())
+                .isEqualTo(1);
+
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testExecutor_failsDependentFutureWhenTheStageRejects() throws Exception {
+        stage = new PaymentStage(1, 10, 1, registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch drained = new CountDownLatch(1);
+        assertThat(stage.submit(PaymentStage.TASK_PROCESSING, () -> await(release))).isTrue();
+        assertThat(stage.submit(PaymentStage.TASK_PROCESSING, drained::countDown)).isTrue();
+
+        CompletableFuture<String> rejected = CompletableFuture.completedFuture("auth")
+                .thenApplyAsync(reference -> reference, stage.executor(PaymentStage.TASK_PROCESSING));
+
+        assertThat(rejected).isCompletedExceptionally();
+        release.countDown();
+        assertThat(drained.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(CompletableFuture.completedFuture("auth")
+                .thenApplyAsync(reference -> reference, stage.executor(PaymentStage.TASK_PROCESSING))
+                .get(5, TimeUnit.SECONDS)).isEqualTo("auth");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
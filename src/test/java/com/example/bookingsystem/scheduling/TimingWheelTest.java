@@ -0,0 +1,87 @@
+package com.example.bookingsystem.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 200;
+    private static final long START = 1_750_000_000_000L;
+
+    @Test
+    void testAdvance_firesAtDeadlineRoundedUpToTick() {
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        wheel.schedule(1L, START + 150);
+        wheel.schedule(2L, START + 400);
+
+        assertThat(advance(wheel, START + 199)).isEmpty();
+        assertThat(advance(wheel, START + 200)).containsExactly(1L);
+        assertThat(advance(wheel, START + 399)).isEmpty();
+        assertThat(advance(wheel, START + 400)).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void testSchedule_pastDeadlineFiresOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        wheel.schedule(1L, START - 60_000);
+
+        assertThat(advance(wheel, START)).containsExactly(1L);
+    }
+
+    @Test
+    void testScheduleAndCancel_replaceOrDropPendingTimer() {
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        wheel.schedule(1L, START + 1_000);
+        wheel.schedule(1L, START + 120_000);
+        wheel.schedule(2L, START + 1_000);
+
+        assertThat(wheel.cancel(2L)).isTrue();
+        assertThat(wheel.cancel(2L)).isFalse();
+        assertThat(advance(wheel, START + 60_000)).isEmpty();
+        assertThat(advance(wheel, START + 120_000)).containsExactly(1L);
+    }
+
+    @Test
+    void testRandomSchedule_matchesBruteForceAcrossCascades() {
+        Random random = new Random(42);
+        TimingWheel wheel = new TimingWheel(TICK, START);
+        Map<Long, Long> pending = new HashMap<>();
+        long now = START;
+
+        for (int step = 0; step < 20_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                long id = random.nextInt(1_000);
+                long deadline = now - TICK + random.nextLong(TICK * (random.nextBoolean() ? 100 : 500_000));
+                wheel.schedule(id, deadline);
+                pending.put(id, deadline);
+            } else if (operation < 5) {
+                long id = random.nextInt(1_000);
+                assertThat(wheel.cancel(id)).isEqualTo(pending.remove(id) != null);
+            } else {
+                now += random.nextLong(TICK * (random.nextInt(5) == 0 ? 50_000 : 3));
+                long current = now;
+                for (long id : advance(wheel, current)) {
+                    assertThat(pending.remove(id)).as("fired id %d", id).isNotNull().isLessThanOrEqualTo(current);
+                }
+                pending.values().forEach(deadline ->
+                        assertThat(Math.ceilDiv(deadline, TICK) * TICK).as("pending deadline").isGreaterThan(current));
+            }
+            assertThat(wheel.size()).isEqualTo(pending.size());
+        }
+    }
+
+    private static List<Long> advance(TimingWheel wheel, long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(nowMillis, expired::add);
+        return expired;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.controller.BookingController;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.exception.ResourceNotFoundException;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class BookingEventStreamServiceImplTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private BookingIdempotencyService bookingIdempotencyService;
+
+    private BookingEventStreamServiceImpl streamService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        streamService = new BookingEventStreamServiceImpl(30, bookingRepository, userRepository, Runnable::run);
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookingController(bookingService,
+                bookingIdempotencyService, streamService, new ObjectMapper()))
+                                 .build();
+    }
+
+    @Test
+    void testOnBookingStatusChanged_pushesEventToSubscribersOfTheBooking() throws Exception {
+        when(bookingRepository.existsById(1L)).thenReturn(true);
+        when(bookingRepository.existsById(2L)).thenReturn(true);
+        MvcResult subscribed = subscribe(1L);
+        MvcResult other = subscribe(2L);
+        assertThat(streamService.subscriberCount()).isEqualTo(2);
+
+        streamService.onBookingStatusChanged(new BookingStatusChangedEvent(1L, 10L, 100L,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3), BookingStatus.PENDING, BookingStatus.CONFIRMED));
+
+        assertThat(subscribed.getResponse().getContentAsString())
+                .contains("event:" + BookingEventStreamServiceImpl.EVENT_NAME)
+                .contains("\"bookingId\":1", "\"status\":\"CONFIRMED\"");
+        assertThat(other.getResponse().getContentAsString()).isEmpty();
+    }
+
+    @Test
+    void testSubscribeToUser_registersSubscriber() {
+        when(userRepository.existsById(100L)).thenReturn(true);
+        SseEmitter emitter = streamService.subscribeToUser(100L);
+
+        assertThat(emitter).isNotNull();
+        assertThat(streamService.subscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testSubscribeToBooking_unknownBooking_throwsException() {
+        when(bookingRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> streamService.subscribeToBooking(99L));
+        assertThat(streamService.subscriberCount()).isZero();
+    }
+
+    private MvcResult subscribe(Long bookingId) throws Exception {
+        return mockMvc.perform(get("/api/bookings/{id}/events", bookingId).accept(MediaType.TEXT_EVENT_STREAM))
+                      .andExpect(request().asyncStarted())
+                      .andReturn();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.exception.IdempotencyKeyMismatchException;
+import com.example.bookingsystem.mapper.BookingMapper;
+import com.example.bookingsystem.model.Booking;
+import com.example.bookingsystem.model.IdempotencyKey;
+import com.example.bookingsystem.repository.BookingRepository;
+import com.example.bookingsystem.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIdempotencyServiceImplTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+    @Mock
+    private BookingService bookingService;
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingMapper bookingMapper;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookingIdempotencyServiceImpl idempotencyService;
+
+    private final BookingDto request = BookingDto.builder()
+                                                 .unitId(1L)
+                                                 .userId(2L)
+                                                 .startDate(LocalDate.of(2025, 7, 1))
+                                                 .endDate(LocalDate.of(2025, 7, 3))
+                                                 .build();
+    private final BookingDto created = BookingDto.builder().id(10L).unitId(1L).userId(2L).build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = new BookingIdempotencyServiceImpl(100, 24, bookingService, idempotencyKeyRepository,
+                bookingRepository, bookingMapper, CLOCK, transactionManager);
+    }
+
+    @Test
+    void testBookUnit_retryIsAnsweredFromMemory() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(bookingService.bookUnit(request)).thenReturn(created);
+
+        BookingDto first = idempotencyService.bookUnit("key", request);
+        BookingDto retry = idempotencyService.bookUnit("key", request);
+
+        assertThat(first).isSameAs(created);
+        assertThat(retry).isSameAs(created);
+        verify(bookingService, times(1)).bookUnit(request);
+        verify(idempotencyKeyRepository, times(1)).claim("key", "1:2:2025-07-01:2025-07-03", NOW);
+        verify(idempotencyKeyRepository).attachBooking("key", 10L);
+    }
+
+    @Test
+    void testBookUnit_keyReusedWithDifferentRequest_throwsException() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(bookingService.bookUnit(request)).thenReturn(created);
+        idempotencyService.bookUnit("key", request);
+
+        BookingDto other = BookingDto.builder()
+                                     .unitId(1L)
+                                     .userId(2L)
+                                     .startDate(LocalDate.of(2025, 8, 1))
+                                     .endDate(LocalDate.of(2025, 8, 3))
+                                     .build();
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.bookUnit("key", other));
+        verify(bookingService, never()).bookUnit(other);
+    }
+
+    @Test
+    void testBookUnit_keyClaimedElsewhere_returnsStoredBooking() {
+        Booking booking = Booking.builder().id(10L).build();
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), any())).thenReturn(0);
+        when(idempotencyKeyRepository.findById("key")).thenReturn(Optional.of(IdempotencyKey.builder()
+                                                                                             .key("key")
+                                                                                             .requestFingerprint("1:2:2025-07-01:2025-07-03")
+                                                                                             .bookingId(10L)
+                                                                                             .createdAt(NOW)
+                                                                                             .build()));
+        when(bookingRepository.findById(10L)).thenReturn(Optional.of(booking));
+        when(bookingMapper.toDto(booking)).thenReturn(created);
+
+        assertThat(idempotencyService.bookUnit("key", request)).isSameAs(created);
+        verify(bookingService, never()).bookUnit(any());
+    }
+
+    @Test
+    void testBookUnit_failedRequestIsNotRemembered() {
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(bookingService.bookUnit(request)).thenThrow(new IllegalStateException("boom")).thenReturn(created);
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.bookUnit("key", request));
+        assertThat(idempotencyService.bookUnit("key", request)).isSameAs(created);
+    }
+
+    @Test
+    void testBookUnit_concurrentDuplicatesShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idempotencyKeyRepository.claim(anyString(), anyString(), any())).thenReturn(1);
+        when(bookingService.bookUnit(request)).thenAnswer(invocation -> {
+            started.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+            return created;
+        });
+
+        CompletableFuture<BookingDto> first = CompletableFuture.supplyAsync(() -> idempotencyService.bookUnit("key", request));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<BookingDto> duplicate = CompletableFuture.supplyAsync(() -> idempotencyService.bookUnit("key", request));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(created);
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(created);
+        verify(bookingService, times(1)).bookUnit(request);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.bookingsystem.service;
+
+import com.example.bookingsystem.dto.BookingJournalEntry;
+import com.example.bookingsystem.dto.BookingJournalPosition;
+import com.example.bookingsystem.dto.BookingPeriod;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
+import com.example.bookingsystem.model.BookingEvent;
+import com.example.bookingsystem.model.BookingSnapshot;
+import com.example.bookingsystem.model.enums.BookingEventType;
+import com.example.bookingsystem.model.enums.BookingStatus;
+import com.example.bookingsystem.repository.BookingEventRepository;
+import com.example.bookingsystem.repository.BookingSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingJournalServiceImplTest {
+
+    private static final LocalDate JULY_1 = LocalDate.of(2025, 7, 1);
+    private static final LocalDate JULY_3 = LocalDate.of(2025, 7, 3);
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+    @Mock
+    private BookingEventRepository bookingEventRepository;
+    @Mock
+    private BookingSnapshotRepository bookingSnapshotRepository;
+
+    private BookingJournalServiceImpl journalService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        journalService = new BookingJournalServiceImpl(bookingEventRepository, bookingSnapshotRepository, CLOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOnBookingStatusChanged_appendsEventsOfTransactionInOneBatchBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        journalService.onBookingStatusChanged(new BookingStatusChangedEvent(
+                10L, 1L, 2L, JULY_1, JULY_3, null, BookingStatus.PENDING));
+        journalService.onBookingStatusChanged(new BookingStatusChangedEvent(
+                10L, 1L, 2L, JULY_1, JULY_3, BookingStatus.PENDING, BookingStatus.CONFIRMED));
+
+        verify(bookingEventRepository, never()).appendAll(anyList());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+
+        ArgumentCaptor<List<BookingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookingEventRepository).appendAll(captor.capture());
+        assertThat(captor.getValue()).extracting(BookingEvent::getType)
+                                     .containsExactly(BookingEventType.REQUESTED, BookingEventType.CONFIRMED);
+        assertThat(captor.getValue().get(0).getOccurredAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void testOnBookingStatusChanged_rolledBackTransactionAppendsNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        journalService.onBookingStatusChanged(new BookingStatusChangedEvent(
+                10L, 1L, 2L, JULY_1, JULY_3, null, BookingStatus.PENDING));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(bookingEventRepository, never()).appendAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOnBookingStatusChanged_withoutTransaction_appendsImmediately() {
+        journalService.onBookingStatusChanged(new BookingStatusChangedEvent(
+                10L, 1L, 2L, JULY_1, JULY_3, BookingStatus.PENDING, BookingStatus.CANCELLED));
+
+        ArgumentCaptor<List<BookingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookingEventRepository).appendAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+                                     .extracting(BookingEvent::getType).isEqualTo(BookingEventType.EXPIRED);
+    }
+
+    @Test
+    void testGetFeed_readsBelowTheTransactionHorizon() {
+        List<BookingJournalEntry> page = List.of(entry(7L, 105L, 10L, BookingEventType.REQUESTED, BookingStatus.PENDING));
+        when(bookingEventRepository.stableHorizon()).thenReturn(110L);
+        when(bookingEventRepository.findEntriesAfter(eq(100L), eq(6L), eq(110L), any())).thenReturn(page);
+
+        assertThat(journalService.getFeed(new BookingJournalPosition(100L, 6L), 10)).isEqualTo(page);
+    }
+
+    @Test
+    void testTakeSnapshot_roundTripsThroughLoadActivePeriods() {
+        when(bookingEventRepository.tryLockSnapshot()).thenReturn(true);
+        when(bookingEventRepository.stableHorizon()).thenReturn(200L);
+        when(bookingSnapshotRepository.findFirstByOrderByLastTxIdDescLastEventIdDesc()).thenReturn(Optional.empty());
+        when(bookingEventRepository.streamEntriesAfter(0L, 0L, 200L)).thenReturn(Stream.of(
+                entry(1L, 100L, 10L, BookingEventType.REQUESTED, BookingStatus.PENDING),
+                entry(3L, 100L, 11L, BookingEventType.REQUESTED, BookingStatus.PENDING),
+                entry(2L, 101L, 10L, BookingEventType.CONFIRMED, BookingStatus.CONFIRMED),
+                entry(4L, 102L, 11L, BookingEventType.EXPIRED, BookingStatus.CANCELLED)));
+
+        journalService.takeSnapshot();
+
+        ArgumentCaptor<BookingSnapshot> captor = ArgumentCaptor.forClass(BookingSnapshot.class);
+        verify(bookingSnapshotRepository).save(captor.capture());
+        BookingSnapshot snapshot = captor.getValue();
+        assertThat(snapshot.getLastTxId()).isEqualTo(102L);
+        assertThat(snapshot.getLastEventId()).isEqualTo(4L);
+        assertThat(snapshot.getBookingCount()).isEqualTo(1);
+
+        when(bookingSnapshotRepository.findFirstByOrderByLastTxIdDescLastEventIdDesc()).thenReturn(Optional.of(snapshot));
+        when(bookingEventRepository.streamEntriesAfter(102L, 4L, Long.MAX_VALUE)).thenReturn(Stream.of(
+                entry(5L, 250L, 12L, BookingEventType.REQUESTED, BookingStatus.PENDING)));
+
+        assertThat(journalService.loadActivePeriods()).containsExactlyInAnyOrder(
+                new BookingPeriod(10L, 1L, JULY_1, JULY_3),
+                new BookingPeriod(12L, 1L, JULY_1, JULY_3));
+    }
+
+    @Test
+    void testTakeSnapshot_prunesSnapshotsOlderThanThePreviousOne() {
+        BookingSnapshot previous = BookingSnapshot.builder().lastTxId(102L).lastEventId(4L).bookingCount(0)
+                                                  .payload(new byte[0]).takenAt(NOW.minusMinutes(10)).build();
+        when(bookingEventRepository.tryLockSnapshot()).thenReturn(true);
+        when(bookingEventRepository.stableHorizon()).thenReturn(200L);
+        when(bookingSnapshotRepository.findFirstByOrderByLastTxIdDescLastEventIdDesc()).thenReturn(Optional.of(previous));
+        when(bookingEventRepository.streamEntriesAfter(102L, 4L, 200L)).thenReturn(Stream.of(
+                entry(5L, 103L, 12L, BookingEventType.REQUESTED, BookingStatus.PENDING)));
+
+        journalService.takeSnapshot();
+
+        verify(bookingSnapshotRepository).save(any(BookingSnapshot.class));
+        verify(bookingSnapshotRepository).deleteOlderThan(102L, 4L);
+    }
+
+    @Test
+    void testTakeSnapshot_skipsWhenJournalDidNotAdvance() {
+        BookingSnapshot previous = BookingSnapshot.builder().lastTxId(102L).lastEventId(4L).bookingCount(0)
+                                                  .payload(new byte[0]).takenAt(NOW.minusMinutes(10)).build();
+        when(bookingEventRepository.tryLockSnapshot()).thenReturn(true);
+        when(bookingEventRepository.stableHorizon()).thenReturn(200L);
+        when(bookingSnapshotRepository.findFirstByOrderByLastTxIdDescLastEventIdDesc()).thenReturn(Optional.of(previous));
+        when(bookingEventRepository.streamEntriesAfter(102L, 4L, 200L)).thenReturn(Stream.empty());
+
+        journalService.takeSnapshot();
+
+        verify(bookingSnapshotRepository, never()).save(any(BookingSnapshot.class));
+    }
+
+    @Test
+    void testTakeSnapshot_skipsWhenAnotherInstanceHoldsTheLock() {
+        when(bookingEventRepository.tryLockSnapshot()).thenReturn(false);
+
+        journalService.takeSnapshot();
+
+        verify(bookingSnapshotRepository, never()).findFirstByOrderByLastTxIdDescLastEventIdDesc();
+        verify(bookingSnapshotRepository, never()).save(any(BookingSnapshot.class));
+    }
+
+    private static BookingJournalEntry entry(long id, long txId, long bookingId, BookingEventType type,
+                                             BookingStatus status) {
+        return new BookingJournalEntry(id, txId, bookingId, 1L, 2L, JULY_1, JULY_3, type, status, NOW);
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.bookingsystem.service;
 
+import com.example.bookingsystem.dto.BookingBatchItemResult;
 import com.example.bookingsystem.dto.BookingDto;
+import com.example.bookingsystem.dto.BookingPeriod;
 import com.example.bookingsystem.exception.ResourceNotFoundException;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
 import com.example.bookingsystem.exception.UnitNotAvailableException;
+import com.example.bookingsystem.index.BookingIntervalIndex;
 import com.example.bookingsystem.mapper.BookingMapper;
+import com.example.bookingsystem.metrics.BookingMetrics;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.User;
@@ -18,19 +23,26 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
-import static org.mockito.BDDMockito.times;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @SpringBootTest
@@ -52,7 +64,13 @@ class BookingServiceImplTest {
     PaymentService paymentService;
 
     @Mock
-    UnitService unitService;
+    BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    BookingMetrics bookingMetrics;
 
     @InjectMocks
     BookingServiceImpl bookingService;
@@ -90,35 +108,49 @@ class BookingServiceImplTest {
     }
 
     @Test
-    void testGetAll_returnAllBookingsMappedToDto() {
-        BookingDto dto1 = BookingDto.builder().build();
-        BookingDto dto2 = BookingDto.builder().build();
+    void testGetAll_returnsPageAfterCursor() {
+        BookingDto dto1 = BookingDto.builder().id(11L).build();
+        BookingDto dto2 = BookingDto.builder().id(12L).build();
 
-        List<Booking> bookings = List.of(booking, booking);
-        given(bookingRepository.findAll()).willReturn(bookings);
-        given(bookingMapper.toDto(any(Booking.class))).willReturn(dto1, dto2);
+        given(bookingRepository.findDtosByIdGreaterThan(10L, PageRequest.of(0, 2))).willReturn(List.of(dto1, dto2));
 
-        List<BookingDto> result = bookingService.getAll();
+        List<BookingDto> result = bookingService.getAll(10L, 2);
 
-        then(bookingRepository).should().findAll();
-        then(bookingMapper).should(times(2)).toDto(any(Booking.class));
+        then(bookingRepository).should().findDtosByIdGreaterThan(10L, PageRequest.of(0, 2));
+        then(bookingMapper).shouldHaveNoInteractions();
 
         assertThat(result).hasSize(2).containsExactly(dto1, dto2);
     }
 
+    @Test
+    void testGetAll_startsFromBeginningWithoutCursor() {
+        given(bookingRepository.findDtosByIdGreaterThan(0L, PageRequest.of(0, 100))).willReturn(List.of());
+
+        assertThat(bookingService.getAll(null, 100)).isEmpty();
+    }
+
+    @Test
+    void testStreamAll_passesEveryBookingToAction() {
+        BookingDto dto1 = BookingDto.builder().id(1L).build();
+        BookingDto dto2 = BookingDto.builder().id(2L).build();
+        given(bookingRepository.streamAllDtos()).willReturn(Stream.of(dto1, dto2));
+
+        List<BookingDto> consumed = new ArrayList<>();
+        bookingService.streamAll(consumed::add);
+
+        assertThat(consumed).containsExactly(dto1, dto2);
+    }
+
     @Test
     void testBookUnit_shouldBookUnitWhenAvailable() {
         given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
         given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
-        given(bookingRepository.findTopByUnitAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                any(Unit.class),
-                anyList(),
-                any(LocalDate.class),
-                any(LocalDate.class)
-        )).willReturn(Optional.empty());
+        given(bookingRepository.existsActiveOverlapping(anyLong(), any(LocalDate.class), any(LocalDate.class)))
+                .willReturn(false);
 
         given(bookingMapper.toEntity(bookingDto, user, unit)).willReturn(booking);
         given(bookingRepository.save(any(Booking.class))).willReturn(booking);
+        given(bookingIntervalIndex.reserve(any(BookingPeriod.class))).willReturn(true);
         given(bookingMapper.toDto(any(Booking.class))).willReturn(bookingDto);
 
         BookingDto result = bookingService.bookUnit(bookingDto);
@@ -130,7 +162,8 @@ class BookingServiceImplTest {
         assertThat(result).isEqualTo(bookingDto);
 
         verify(paymentService).initiatePayment(savedBooking, unit);
-        verify(unitService).evictBookingCacheByOverlappingDateRange(bookingDto.getStartDate(), bookingDto.getEndDate());
+        verify(bookingIntervalIndex).reserve(new BookingPeriod(10L, 1L, bookingDto.getStartDate(), bookingDto.getEndDate()));
+        verify(eventPublisher).publishEvent(BookingStatusChangedEvent.of(booking, null));
     }
 
     @Test
@@ -158,15 +191,224 @@ class BookingServiceImplTest {
         given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
 
         // simulate existing booking with overlapping dates
-        given(bookingRepository.findTopByUnitAndStatusInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
-                unit,
-                List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED),
+        given(bookingRepository.existsActiveOverlapping(
+                unit.getId(),
                 bookingDto.getStartDate(),
                 bookingDto.getEndDate()
-        )).willReturn(Optional.of(new Booking()));
+        )).willReturn(true);
+
+        assertThatThrownBy(() -> bookingService.bookUnit(bookingDto))
+                .isInstanceOf(UnitNotAvailableException.class)
+                .hasMessageContaining("Selected unit is not available");
+
+        then(bookingMetrics).should().bookingConflict(BookingMetrics.CONFLICT_DATABASE);
+    }
+
+    @Test
+    void testBookUnit_shouldThrowUnitNotAvailableException_WhenIndexReportsOverlap() {
+        given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
+        given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
+        given(bookingIntervalIndex.overlaps(unit.getId(), bookingDto.getStartDate(), bookingDto.getEndDate())).willReturn(true);
 
         assertThatThrownBy(() -> bookingService.bookUnit(bookingDto))
                 .isInstanceOf(UnitNotAvailableException.class)
                 .hasMessageContaining("Selected unit is not available");
+
+        then(bookingRepository).shouldHaveNoInteractions();
+        then(bookingMetrics).should().bookingConflict(BookingMetrics.CONFLICT_INDEX);
+    }
+
+    @Test
+    void testBookUnit_shouldThrowUnitNotAvailableException_WhenReservationLosesRace() {
+        given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
+        given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
+        given(bookingMapper.toEntity(bookingDto, user, unit)).willReturn(booking);
+        given(bookingRepository.save(any(Booking.class))).willReturn(booking);
+        given(bookingIntervalIndex.reserve(any(BookingPeriod.class))).willReturn(false);
+
+        assertThatThrownBy(() -> bookingService.bookUnit(bookingDto))
+                .isInstanceOf(UnitNotAvailableException.class);
+
+        then(paymentService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testBookUnit_shouldThrowUnitNotAvailableException_WhenExclusionConstraintViolated() {
+        given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
+        given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
+        given(bookingMapper.toEntity(bookingDto, user, unit)).willReturn(booking);
+        given(bookingRepository.save(any(Booking.class))).willThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> bookingService.bookUnit(bookingDto))
+                .isInstanceOf(UnitNotAvailableException.class)
+                .hasMessageContaining("Selected unit is not available");
+
+        then(bookingMetrics).should().bookingConflict(BookingMetrics.CONFLICT_DATABASE);
+        then(paymentService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testBookUnit_constraintMode_shouldSkipQueryAndFlushInsert() {
+        BookingServiceImpl constraintService = constraintModeService();
+        given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
+        given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
+        given(bookingMapper.toEntity(bookingDto, user, unit)).willReturn(booking);
+        given(bookingRepository.saveAndFlush(any(Booking.class))).willReturn(booking);
+        given(bookingIntervalIndex.reserve(any(BookingPeriod.class))).willReturn(true);
+        given(bookingMapper.toDto(any(Booking.class))).willReturn(bookingDto);
+
+        BookingDto result = constraintService.bookUnit(bookingDto);
+
+        assertThat(result).isEqualTo(bookingDto);
+        verify(bookingRepository, never()).existsActiveOverlapping(anyLong(), any(LocalDate.class), any(LocalDate.class));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(paymentService).initiatePayment(booking, unit);
+    }
+
+    @Test
+    void testBookUnit_constraintMode_shouldThrowUnitNotAvailableException_WhenExclusionConstraintViolated() {
+        BookingServiceImpl constraintService = constraintModeService();
+        given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
+        given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
+        given(bookingMapper.toEntity(bookingDto, user, unit)).willReturn(booking);
+        given(bookingRepository.saveAndFlush(any(Booking.class))).willThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> constraintService.bookUnit(bookingDto))
+                .isInstanceOf(UnitNotAvailableException.class)
+                .hasMessageContaining("Selected unit is not available");
+
+        then(paymentService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void testBookUnit_constraintMode_shouldRethrowOtherIntegrityViolations() {
+        BookingServiceImpl constraintService = constraintModeService();
+        given(unitRepository.findById(bookingDto.getUnitId())).willReturn(Optional.of(unit));
+        given(userRepository.findById(bookingDto.getUserId())).willReturn(Optional.of(user));
+        given(bookingMapper.toEntity(bookingDto, user, unit)).willReturn(booking);
+        given(bookingRepository.saveAndFlush(any(Booking.class))).willThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("null value in column", "23502")));
+
+        assertThatThrownBy(() -> constraintService.bookUnit(bookingDto))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBookUnits_shouldReportPerItemResults() {
+        Unit otherUnit = new Unit();
+        otherUnit.setId(3L);
+        BookingDto overlapsExisting = request(3L, bookingDto.getStartDate(), bookingDto.getEndDate());
+        BookingDto overlapsFirstItem = request(1L, bookingDto.getEndDate(), bookingDto.getEndDate().plusDays(2));
+        BookingDto unknownUnit = request(99L, bookingDto.getStartDate(), bookingDto.getEndDate());
+        BookingDto invalid = request(1L, bookingDto.getEndDate().plusDays(1), bookingDto.getEndDate());
+
+        given(unitRepository.findAllById(anyCollection())).willReturn(List.of(unit, otherUnit));
+        given(userRepository.findAllById(anyCollection())).willReturn(List.of(user));
+        given(bookingRepository.findActivePeriodsByUnitIdInOverlapping(
+                anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .willReturn(List.of(new BookingPeriod(5L, 3L, bookingDto.getStartDate(), bookingDto.getStartDate())));
+        given(bookingMapper.toEntity(any(BookingDto.class), any(User.class), any(Unit.class))).willAnswer(invocation -> {
+            BookingDto dto = invocation.getArgument(0);
+            return Booking.builder().startDate(dto.getStartDate()).endDate(dto.getEndDate()).build();
+        });
+        doAnswer(invocation -> {
+            List<Booking> inserted = invocation.getArgument(0);
+            inserted.get(0).setId(10L);
+            return null;
+        }).when(bookingRepository).insertAll(any(List.class));
+        given(bookingIntervalIndex.reserve(any(BookingPeriod.class))).willReturn(true);
+        given(bookingMapper.toDto(any(Booking.class))).willReturn(bookingDto);
+
+        List<BookingBatchItemResult> results = bookingService.bookUnits(
+                List.of(bookingDto, overlapsExisting, overlapsFirstItem, unknownUnit, invalid));
+
+        assertThat(results).extracting(BookingBatchItemResult::getStatus).containsExactly(
+                BookingBatchItemResult.Status.SUCCESS,
+                BookingBatchItemResult.Status.CONFLICT,
+                BookingBatchItemResult.Status.CONFLICT,
+                BookingBatchItemResult.Status.NOT_FOUND,
+                BookingBatchItemResult.Status.INVALID);
+        assertThat(results).extracting(BookingBatchItemResult::getIndex).containsExactly(0, 1, 2, 3, 4);
+        assertThat(results.get(0).getBooking()).isEqualTo(bookingDto);
+
+        ArgumentCaptor<List<Booking>> insertedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(bookingRepository).insertAll(insertedCaptor.capture());
+        Booking inserted = insertedCaptor.getValue().get(0);
+        assertThat(insertedCaptor.getValue()).hasSize(1);
+        assertThat(inserted.getUnit()).isEqualTo(unit);
+        assertThat(inserted.getUser()).isEqualTo(user);
+        assertThat(inserted.getStatus()).isEqualTo(BookingStatus.PENDING);
+
+        verify(paymentService).initiatePayments(List.of(inserted));
+        verify(eventPublisher).publishEvent(BookingStatusChangedEvent.of(inserted, null));
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBookUnits_shouldDeleteBookingsThatLoseReservationRace() {
+        given(unitRepository.findAllById(anyCollection())).willReturn(List.of(unit));
+        given(userRepository.findAllById(anyCollection())).willReturn(List.of(user));
+        given(bookingMapper.toEntity(any(BookingDto.class), any(User.class), any(Unit.class))).willReturn(booking);
+        given(bookingIntervalIndex.reserve(any(BookingPeriod.class))).willReturn(false);
+
+        List<BookingBatchItemResult> results = bookingService.bookUnits(List.of(bookingDto));
+
+        assertThat(results).extracting(BookingBatchItemResult::getStatus)
+                           .containsExactly(BookingBatchItemResult.Status.CONFLICT);
+        verify(bookingRepository).deleteAllByIdInBatch(List.of(10L));
+        verify(paymentService).initiatePayments(List.of());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBookUnits_shouldReportOnlyItemsSkippedByConstraintAsConflicts() {
+        Unit otherUnit = new Unit();
+        otherUnit.setId(3L);
+        BookingDto takenConcurrently = request(3L, bookingDto.getStartDate(), bookingDto.getEndDate());
+
+        given(unitRepository.findAllById(anyCollection())).willReturn(List.of(unit, otherUnit));
+        given(userRepository.findAllById(anyCollection())).willReturn(List.of(user));
+        given(bookingMapper.toEntity(any(BookingDto.class), any(User.class), any(Unit.class))).willAnswer(invocation -> {
+            BookingDto dto = invocation.getArgument(0);
+            return Booking.builder().startDate(dto.getStartDate()).endDate(dto.getEndDate()).build();
+        });
+        doAnswer(invocation -> {
+            List<Booking> inserted = invocation.getArgument(0);
+            inserted.get(0).setId(10L);
+            return null;
+        }).when(bookingRepository).insertAll(any(List.class));
+        given(bookingIntervalIndex.reserve(any(BookingPeriod.class))).willReturn(true);
+        given(bookingMapper.toDto(any(Booking.class))).willReturn(bookingDto);
+
+        List<BookingBatchItemResult> results = bookingService.bookUnits(List.of(bookingDto, takenConcurrently));
+
+        assertThat(results).extracting(BookingBatchItemResult::getStatus).containsExactly(
+                BookingBatchItemResult.Status.SUCCESS,
+                BookingBatchItemResult.Status.CONFLICT);
+        verify(bookingIntervalIndex).reserve(new BookingPeriod(10L, unit.getId(), bookingDto.getStartDate(),
+                bookingDto.getEndDate()));
+        verify(bookingMetrics).bookingConflict(BookingMetrics.CONFLICT_DATABASE);
+        verify(bookingRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    private BookingDto request(Long unitId, LocalDate startDate, LocalDate endDate) {
+        return BookingDto.builder()
+                         .unitId(unitId)
+                         .userId(bookingDto.getUserId())
+                         .startDate(startDate)
+                         .endDate(endDate)
+                         .build();
+    }
+
+    private BookingServiceImpl constraintModeService() {
+        return new BookingServiceImpl(ConflictCheckMode.CONSTRAINT, bookingRepository, userRepository, unitRepository,
+                bookingMapper, paymentService, bookingIntervalIndex, eventPublisher, bookingMetrics);
     }
 }
@@ -1,23 +1,28 @@
 package com.example.bookingsystem.service;
 
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Payment;
-import com.example.bookingsystem.model.PaymentExpiration;
+import com.example.bookingsystem.model.Unit;
+import com.example.bookingsystem.model.User;
 import com.example.bookingsystem.model.enums.BookingStatus;
 import com.example.bookingsystem.model.enums.PaymentStatus;
-import com.example.bookingsystem.repository.BookingRepository;
-import com.example.bookingsystem.repository.PaymentExpirationRepository;
 import com.example.bookingsystem.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,14 +30,16 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 class PaymentExpirationServiceTest {
 
+    private static final int SHARDS = 2;
+
     @Mock
-    private PaymentExpirationRepository expirationRepository;
+    private PaymentRepository paymentRepository;
 
     @Mock
-    private BookingRepository bookingRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Mock
-    private PaymentRepository paymentRepository;
+    private PlatformTransactionManager transactionManager;
 
     private PaymentExpirationService paymentExpirationService;
 
@@ -42,12 +49,9 @@ class PaymentExpirationServiceTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
         fixedClock = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneId.of("UTC"));
-        paymentExpirationService = new PaymentExpirationService(
-                expirationRepository,
-                bookingRepository,
-                paymentRepository,
-                fixedClock
-        );
+        paymentExpirationService = service(ExpirationSweepMode.ENTITY);
+        when(paymentRepository.tryLockShard(anyInt())).thenReturn(true);
+        when(paymentRepository.findAllDueInShard(any(), anyInt(), anyInt())).thenReturn(List.of());
     }
 
     @Test
@@ -56,42 +60,130 @@ class PaymentExpirationServiceTest {
         LocalDateTime now = LocalDateTime.now(fixedClock);
         Booking booking = new Booking();
         booking.setId(1L);
+        booking.setUnit(Unit.builder().id(3L).build());
+        booking.setUser(new User());
         booking.setStatus(BookingStatus.PENDING);
 
         Payment payment = new Payment();
         payment.setId(2L);
         payment.setStatus(PaymentStatus.INITIATED);
         payment.setBooking(booking);
+        payment.setExpiresAt(now.minusMinutes(1));
 
-        PaymentExpiration expiration = PaymentExpiration.builder()
-                                                        .payment(payment)
-                                                        .expirationDateTime(now.minusMinutes(1))
-                                                        .build();
+        when(paymentRepository.findAllDueInShard(now, 0, SHARDS)).thenReturn(List.of(payment));
 
-        when(expirationRepository.findAllByExpirationDateTimeBefore(now))
-                .thenReturn(List.of(expiration));
+        PaymentTransition expired = expiredPayment(2L);
+        when(paymentRepository.expirePayment(2L, now)).thenReturn(Optional.of(expired));
 
         // When
         paymentExpirationService.processExpiredPayments();
 
         // Then
-        assertEquals(BookingStatus.CANCELLED, booking.getStatus());
-        assertEquals(PaymentStatus.FAILED, payment.getStatus());
+        verify(paymentRepository).expirePayment(2L, now);
+        verify(paymentRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(BookingStatusChangedEvent.of(expired, BookingStatus.CANCELLED));
+    }
+
+    @Test
+    void testProcessExpiredPayments_paymentCompletedMeanwhile_leftUnchanged() {
+        LocalDateTime now = LocalDateTime.now(fixedClock);
+        Payment payment = new Payment();
+        payment.setId(2L);
+        payment.setStatus(PaymentStatus.INITIATED);
+        payment.setExpiresAt(now.minusMinutes(1));
+        when(paymentRepository.findAllDueInShard(now, 0, SHARDS)).thenReturn(List.of(payment));
+        when(paymentRepository.expirePayment(2L, now)).thenReturn(Optional.empty());
+
+        paymentExpirationService.processExpiredPayments();
 
-        verify(bookingRepository).save(booking);
-        verify(paymentRepository).save(payment);
-        verify(expirationRepository).delete(expiration);
+        verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testProcessExpiredPayments_noExpiredPayments_nothingProcessed() {
         LocalDateTime now = LocalDateTime.now(fixedClock);
-        when(expirationRepository.findAllByExpirationDateTimeBefore(now)).thenReturn(List.of());
 
         paymentExpirationService.processExpiredPayments();
 
-        verifyNoInteractions(bookingRepository);
-        verifyNoInteractions(paymentRepository);
-        verify(expirationRepository, never()).delete(any());
+        verify(paymentRepository).findAllDueInShard(now, 0, SHARDS);
+        verify(paymentRepository).findAllDueInShard(now, 1, SHARDS);
+        verify(paymentRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testExpirePayment_dueExpiration_publishesCancellation() {
+        LocalDateTime now = LocalDateTime.now(fixedClock);
+        PaymentTransition expired = expiredPayment(2L);
+        when(paymentRepository.expirePayment(2L, now)).thenReturn(Optional.of(expired));
+
+        paymentExpirationService.expirePayment(2L);
+
+        verify(eventPublisher).publishEvent(BookingStatusChangedEvent.of(expired, BookingStatus.CANCELLED));
+    }
+
+    @Test
+    void testExpirePayment_completedNotDueOrLocked_nothingPublished() {
+        when(paymentRepository.expirePayment(eq(2L), any())).thenReturn(Optional.empty());
+
+        paymentExpirationService.expirePayment(2L);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testProcessExpiredPayments_chunkedMode_drainsBatchesInSeparateTransactions() {
+        LocalDateTime now = LocalDateTime.now(fixedClock);
+        PaymentTransition first = expiredPayment(1L);
+        PaymentTransition second = expiredPayment(2L);
+        PaymentTransition third = expiredPayment(3L);
+        when(paymentRepository.expireDue(now, 2, 0, SHARDS))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        when(paymentRepository.expireDue(now, 2, 1, SHARDS)).thenReturn(List.of());
+
+        paymentExpirationService = service(ExpirationSweepMode.CHUNKED);
+        paymentExpirationService.processExpiredPayments();
+
+        verify(paymentRepository, times(2)).expireDue(now, 2, 0, SHARDS);
+        verify(paymentRepository).expireDue(now, 2, 1, SHARDS);
+        verify(paymentRepository, times(3)).tryLockShard(anyInt());
+        verify(transactionManager, times(3)).commit(any());
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(
+                30L, 5L, 7L, third.startDate(), third.endDate(), BookingStatus.PENDING, BookingStatus.CANCELLED));
+        verify(eventPublisher, times(3)).publishEvent(any(BookingStatusChangedEvent.class));
+        verify(paymentRepository, never()).findAllDueInShard(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testProcessExpiredPayments_shardLockedByAnotherInstance_shardSkipped() {
+        LocalDateTime now = LocalDateTime.now(fixedClock);
+        when(paymentRepository.tryLockShard(0)).thenReturn(false);
+        when(paymentRepository.expireDue(now, 2, 1, SHARDS)).thenReturn(List.of(expiredPayment(1L)));
+
+        paymentExpirationService = service(ExpirationSweepMode.CHUNKED);
+        paymentExpirationService.processExpiredPayments();
+
+        verify(paymentRepository, never()).expireDue(any(), anyInt(), eq(0), anyInt());
+        verify(paymentRepository).expireDue(now, 2, 1, SHARDS);
+        verify(eventPublisher).publishEvent(any(BookingStatusChangedEvent.class));
+    }
+
+    private PaymentExpirationService service(ExpirationSweepMode mode) {
+        return new PaymentExpirationService(
+                mode,
+                2,
+                SHARDS,
+                paymentRepository,
+                fixedClock,
+                eventPublisher,
+                transactionManager
+        );
+    }
+
+    private PaymentTransition expiredPayment(Long id) {
+        LocalDate start = LocalDate.now(fixedClock).plusDays(id);
+        return new PaymentTransition(id, id * 10, 5L, 7L, start, start.plusDays(2), BookingStatus.PENDING);
     }
 }
@@ -1,57 +1,64 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.PaymentDto;
+import com.example.bookingsystem.dto.PaymentTransition;
+import com.example.bookingsystem.event.BookingStatusChangedEvent;
 import com.example.bookingsystem.exception.ResourceNotFoundException;
-import com.example.bookingsystem.mapper.PaymentMapper;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Payment;
-import com.example.bookingsystem.model.PaymentExpiration;
+import com.example.bookingsystem.model.PaymentJob;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.enums.BookingStatus;
 import com.example.bookingsystem.model.enums.PaymentStatus;
-import com.example.bookingsystem.repository.BookingRepository;
-import com.example.bookingsystem.repository.PaymentExpirationRepository;
+import com.example.bookingsystem.repository.PaymentJobRepository;
 import com.example.bookingsystem.repository.PaymentRepository;
+import com.example.bookingsystem.scheduling.PaymentExpirationScheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 import static com.example.bookingsystem.service.PaymentServiceImpl.EXPIRATION_PAYMENT_MINUTES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest
 class PaymentServiceImplTest {
 
+    private static final long PROCESSING_DELAY_SECONDS = 60;
+
     @Mock
     private PaymentRepository paymentRepository;
     @Mock
-    private BookingRepository bookingRepository;
-    @Mock
-    private PaymentExpirationRepository paymentExpirationRepository;
+    private PaymentJobRepository paymentJobRepository;
     @Mock
-    private PaymentMapper paymentMapper;
+    private ApplicationEventPublisher eventPublisher;
     @Mock
-    private Executor virtualThreadExecutor;
+    private PaymentExpirationScheduler expirationScheduler;
     private PaymentServiceImpl paymentService;
     private Clock fixedClock;
 
@@ -61,13 +68,12 @@ class PaymentServiceImplTest {
 
         // Fix the clock to a known time for predictable expiration time
         fixedClock = Clock.fixed(Instant.parse("2025-06-15T10:00:00Z"), ZoneOffset.UTC);
-        paymentService = spy(new PaymentServiceImpl(0,
+        paymentService = spy(new PaymentServiceImpl(PROCESSING_DELAY_SECONDS,
                 paymentRepository,
-                bookingRepository,
-                paymentExpirationRepository,
-                paymentMapper,
-                virtualThreadExecutor,
-                fixedClock));
+                paymentJobRepository,
+                fixedClock,
+                eventPublisher,
+                expirationScheduler));
 
     }
 
@@ -96,44 +102,74 @@ class PaymentServiceImplTest {
         assertEquals(booking, savedPayment.getBooking());
         assertEquals(BigDecimal.valueOf(100.00), savedPayment.getAmount());
         assertEquals(PaymentStatus.INITIATED, savedPayment.getStatus());
+        assertEquals(LocalDateTime.now(fixedClock).plusMinutes(EXPIRATION_PAYMENT_MINUTES), savedPayment.getExpiresAt());
+        verify(expirationScheduler).schedule(savedPayment.getId(), savedPayment.getExpiresAt());
+
+        ArgumentCaptor<PaymentJob> jobCaptor = ArgumentCaptor.forClass(PaymentJob.class);
+        verify(paymentJobRepository).save(jobCaptor.capture());
+        PaymentJob job = jobCaptor.getValue();
+        assertEquals(savedPayment, job.getPayment());
+        assertEquals(LocalDateTime.now(fixedClock).plusSeconds(PROCESSING_DELAY_SECONDS), job.getDueAt());
+        assertTrue(job.getDueAt().isBefore(savedPayment.getExpiresAt()));
+    }
 
-        ArgumentCaptor<PaymentExpiration> expirationCaptor = ArgumentCaptor.forClass(PaymentExpiration.class);
-        verify(paymentExpirationRepository).save(expirationCaptor.capture());
-        PaymentExpiration savedExpiration = expirationCaptor.getValue();
-        assertEquals(savedPayment, savedExpiration.getPayment());
-        assertEquals(LocalDateTime.now(fixedClock).plusMinutes(EXPIRATION_PAYMENT_MINUTES), savedExpiration.getExpirationDateTime());
+    @Test
+    @SuppressWarnings("unchecked")
+    void initiatePayments_ShouldBatchInsertPaymentsWithExpirationAndJobs() {
+        Booking first = Booking.builder().id(1L).unit(Unit.builder().totalCost(BigDecimal.valueOf(100)).build()).build();
+        Booking second = Booking.builder().id(2L).unit(Unit.builder().totalCost(BigDecimal.valueOf(250)).build()).build();
+
+        paymentService.initiatePayments(List.of(first, second));
+
+        ArgumentCaptor<List<Payment>> paymentsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(paymentRepository).insertAll(paymentsCaptor.capture());
+        List<Payment> payments = paymentsCaptor.getValue();
+        assertEquals(2, payments.size());
+        assertEquals(first, payments.get(0).getBooking());
+        assertEquals(BigDecimal.valueOf(250), payments.get(1).getAmount());
+        assertEquals(PaymentStatus.INITIATED, payments.get(1).getStatus());
+        assertEquals(LocalDateTime.now(fixedClock).plusMinutes(EXPIRATION_PAYMENT_MINUTES), payments.get(0).getExpiresAt());
+
+        verify(paymentRepository, times(0)).save(any(Payment.class));
+
+        ArgumentCaptor<List<PaymentJob>> jobsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(paymentJobRepository).insertAll(jobsCaptor.capture());
+        List<PaymentJob> jobs = jobsCaptor.getValue();
+        assertEquals(2, jobs.size());
+        assertEquals(second, jobs.get(1).getPayment().getBooking());
+        assertEquals(LocalDateTime.now(fixedClock).plusSeconds(PROCESSING_DELAY_SECONDS), jobs.get(0).getDueAt());
     }
 
     @Test
     void testProcessPayment_success() {
-        Booking booking = new Booking();
-        booking.setId(10L);
-        booking.setStatus(BookingStatus.PENDING);
+        PaymentTransition completed = new PaymentTransition(20L, 10L, 1L, 2L,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3), BookingStatus.PENDING);
+        when(paymentRepository.complete(20L)).thenReturn(Optional.of(completed));
 
-        Payment payment = new Payment();
-        payment.setId(20L);
-        payment.setBooking(booking);
-        payment.setStatus(PaymentStatus.INITIATED);
+        assertTrue(paymentService.processPayment(20L));
 
-        when(paymentRepository.findById(20L)).thenReturn(Optional.of(payment));
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(i -> i.getArguments()[0]);
-        doNothing().when(paymentExpirationRepository).deleteByPayment(payment);
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(i -> i.getArguments()[0]);
+        verify(expirationScheduler).cancel(20L);
+        verify(eventPublisher).publishEvent(new BookingStatusChangedEvent(10L, 1L, 2L,
+                LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 3), BookingStatus.PENDING, BookingStatus.CONFIRMED));
+    }
 
-        paymentService.processPayment(20L);
+    @Test
+    void testProcessPayment_alreadyExpired_isNoOpAndReportsFailure() {
+        when(paymentRepository.complete(20L)).thenReturn(Optional.empty());
+        when(paymentRepository.findById(20L)).thenReturn(Optional.of(Payment.builder()
+                                                                            .id(20L)
+                                                                            .status(PaymentStatus.FAILED)
+                                                                            .build()));
 
-        // Payment status updated
-        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
-        // Booking status updated
-        assertEquals(BookingStatus.CONFIRMED, booking.getStatus());
+        assertFalse(paymentService.processPayment(20L));
 
-        verify(paymentRepository).save(payment);
-        verify(paymentExpirationRepository).deleteByPayment(payment);
-        verify(bookingRepository).save(booking);
+        verify(expirationScheduler, never()).cancel(any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testProcessPayment_paymentNotFound_throwsException() {
+        when(paymentRepository.complete(999L)).thenReturn(Optional.empty());
         when(paymentRepository.findById(999L)).thenReturn(Optional.empty());
 
         ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> paymentService.processPayment(999L));
@@ -142,25 +178,29 @@ class PaymentServiceImplTest {
 
     @Test
     void testGetAll_returnsPaymentDtos() {
-        Payment payment1 = new Payment();
-        payment1.setId(1L);
-        Payment payment2 = new Payment();
-        payment2.setId(2L);
-
         PaymentDto dto1 = PaymentDto.builder().id(1L).build();
         PaymentDto dto2 = PaymentDto.builder().id(2L).build();
 
-        when(paymentRepository.findAll()).thenReturn(List.of(payment1, payment2));
-        when(paymentMapper.toDto(payment1)).thenReturn(dto1);
-        when(paymentMapper.toDto(payment2)).thenReturn(dto2);
+        when(paymentRepository.findDtosByIdGreaterThan(0L, PageRequest.of(0, 2))).thenReturn(List.of(dto1, dto2));
 
-        List<PaymentDto> result = paymentService.getAll();
+        List<PaymentDto> result = paymentService.getAll(null, 2);
 
         assertEquals(2, result.size());
         assertTrue(result.contains(dto1));
         assertTrue(result.contains(dto2));
 
-        verify(paymentRepository).findAll();
-        verify(paymentMapper, times(2)).toDto(any(Payment.class));
+        verify(paymentRepository).findDtosByIdGreaterThan(0L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void testStreamAll_passesEveryPaymentToAction() {
+        PaymentDto dto1 = PaymentDto.builder().id(1L).build();
+        PaymentDto dto2 = PaymentDto.builder().id(2L).build();
+        when(paymentRepository.streamAllDtos()).thenReturn(Stream.of(dto1, dto2));
+
+        List<PaymentDto> consumed = new ArrayList<>();
+        paymentService.streamAll(consumed::add);
+
+        assertEquals(List.of(dto1, dto2), consumed);
     }
 }
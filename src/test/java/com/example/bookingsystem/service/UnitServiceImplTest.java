@@ -1,7 +1,16 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.UnitDto;
+import com.example.bookingsystem.dto.UnitFacets;
 import com.example.bookingsystem.dto.UnitSearchCriteria;
+import com.example.bookingsystem.dto.UnitSlice;
+import com.example.bookingsystem.exception.InvalidCursorException;
+import com.example.bookingsystem.event.UnitCreatedEvent;
+import com.example.bookingsystem.index.AvailabilityCountCache;
+import com.example.bookingsystem.index.BookingIntervalIndex;
+import com.example.bookingsystem.index.OccupancyBitmapEngine;
+import com.example.bookingsystem.index.UnitCatalog;
+import com.example.bookingsystem.index.UnitSearchCache;
 import com.example.bookingsystem.mapper.UnitMapper;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.repository.UnitRepository;
@@ -9,8 +18,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -20,10 +31,15 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -35,6 +51,16 @@ class UnitServiceImplTest {
     private UnitRepository unitRepository;
     @Mock
     private UnitMapper unitMapper;
+    @Mock
+    private OccupancyBitmapEngine occupancyEngine;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private AvailabilityCountCache availabilityCache = new AvailabilityCountCache(mock(BookingIntervalIndex.class));
+    @Spy
+    private UnitSearchCache searchCache = new UnitSearchCache(100);
+    @Mock
+    private UnitCatalog unitCatalog;
     @InjectMocks
     private UnitServiceImpl unitService;
 
@@ -69,6 +95,7 @@ class UnitServiceImplTest {
 
         assertThat(result).isNotNull();
         verify(unitRepository).save(entity);
+        verify(eventPublisher).publishEvent(new UnitCreatedEvent(result));
     }
 
     @SuppressWarnings("unchecked")
@@ -80,29 +107,168 @@ class UnitServiceImplTest {
         criteria.setEndDate(LocalDate.now().plusDays(5));
 
         Pageable pageable = PageRequest.of(0, 10, Sort.by("id").ascending());
-        Page<Unit> unitPage = new PageImpl<>(List.of(new Unit()));
+        Page<UnitDto> unitPage = new PageImpl<>(List.of(UnitDto.builder().description("unit 1").build()));
 
-        when(unitRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(unitPage);
-        when(unitMapper.toDto(any(Unit.class))).thenReturn(UnitDto.builder().description("unit 1").build());
+        when(unitRepository.findDtos(any(Specification.class), any(Pageable.class))).thenReturn(unitPage);
 
         Page<UnitDto> result = unitService.searchUnits(criteria, 0, 10, "id", "asc");
 
         assertThat(result.getContent()).hasSize(1);
-        verify(unitRepository).findAll((Specification<Unit>) any(), eq(pageable));
+        verify(unitRepository).findDtos((Specification<Unit>) any(), eq(pageable));
+        verify(unitMapper, times(0)).toDto(any(Unit.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearchUnits_answersRepeatedSearchFromCache() {
+        when(unitRepository.findDtos(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(UnitDto.builder().description("unit 1").build())));
+
+        unitService.searchUnits(UnitSearchCriteria.builder().type("flat").build(), 0, 10, "id", "asc");
+        Page<UnitDto> result = unitService.searchUnits(UnitSearchCriteria.builder().type("FLAT").build(), 0, 10, "id", "ASC");
+
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(searchCache.hitCount()).isEqualTo(1);
+        verify(unitRepository, times(1)).findDtos((Specification<Unit>) any(), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearchUnits_fetchesOnlyPageRowsOfCatalogMatches() {
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        LocalDate end = LocalDate.of(2025, 8, 3);
+        long[] available = {0b1111_1110L};
+        UnitSearchCriteria criteria = UnitSearchCriteria.builder().floor(2).startDate(start).endDate(end).build();
+        when(occupancyEngine.covers(start, end)).thenReturn(true);
+        when(occupancyEngine.availableUnits(start, end)).thenReturn(available);
+        when(unitCatalog.matchingIds(criteria, available, "floor", false))
+                .thenReturn(Optional.of(new long[]{7L, 3L, 5L, 1L, 2L}));
+        when(unitRepository.findDtoSlice(any(Specification.class), eq(Sort.unsorted()), eq(2)))
+                .thenReturn(List.of(unit(1L, 2), unit(5L, 2)));
+
+        Page<UnitDto> result = unitService.searchUnits(criteria, 1, 2, "floor", "desc");
+
+        assertThat(result.getContent()).extracting(UnitDto::getId).containsExactly(5L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        verify(unitRepository, times(0)).findDtos(any(Specification.class), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testGetFacets_countsFromCatalogWhenAvailabilityIsCovered() {
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        LocalDate end = LocalDate.of(2025, 8, 3);
+        long[] available = {0b1110L};
+        UnitSearchCriteria criteria = UnitSearchCriteria.builder().startDate(start).endDate(end).build();
+        UnitFacets facets = new UnitFacets(3, Map.of(), Map.of(2, 3L), Map.of(1, 3L));
+        when(occupancyEngine.covers(start, end)).thenReturn(true);
+        when(occupancyEngine.availableUnits(start, end)).thenReturn(available);
+        when(unitCatalog.facets(criteria, available)).thenReturn(Optional.of(facets));
+
+        assertThat(unitService.getFacets(criteria)).isEqualTo(facets);
+        verify(unitRepository, times(0)).countFacets(any(Specification.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testGetFacets_runsOneGroupedQueryOtherwise() {
+        UnitSearchCriteria criteria = UnitSearchCriteria.builder()
+                                                        .startDate(LocalDate.of(2025, 8, 1))
+                                                        .endDate(LocalDate.of(2025, 8, 3))
+                                                        .build();
+        UnitFacets facets = new UnitFacets(1, Map.of(), Map.of(1, 1L), Map.of(4, 1L));
+        when(unitRepository.countFacets(any(Specification.class))).thenReturn(facets);
+
+        assertThat(unitService.getFacets(criteria)).isEqualTo(facets);
+        verify(unitRepository, times(1)).countFacets(any(Specification.class));
+        verify(unitCatalog, times(0)).facets(any(), any());
     }
 
     @SuppressWarnings("unchecked")
     @Test
-    void testEvictOverlappingCacheKeys() {
-        unitService.getAvailableUnitsCount(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10));
-        unitService.getAvailableUnitsCount(LocalDate.of(2025, 6, 5), LocalDate.of(2025, 6, 15));
-        unitService.getAvailableUnitsCount(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 10));
+    void testGetAvailableUnitsCount_cachesEachRangeSeparately() {
+        when(unitRepository.count((Specification<Unit>) any())).thenReturn(3L, 4L);
 
-        unitService.evictBookingCacheByOverlappingDateRange(LocalDate.of(2025, 6, 8), LocalDate.of(2025, 7, 12));
+        long june = unitService.getAvailableUnitsCount(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10));
+        long july = unitService.getAvailableUnitsCount(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 10));
+        long juneAgain = unitService.getAvailableUnitsCount(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 10));
 
-        long remaining = unitService.getAvailableUnitsCount(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 10));
+        assertThat(june).isEqualTo(3);
+        assertThat(july).isEqualTo(4);
+        assertThat(juneAgain).isEqualTo(3);
+        assertThat(availabilityCache.size()).isEqualTo(2);
+        verify(unitRepository, times(2)).count((Specification<Unit>) any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testGetAvailableUnitsCount_usesOccupancyBitmapsWhenCovered() {
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        LocalDate end = LocalDate.of(2025, 8, 3);
+        when(occupancyEngine.covers(start, end)).thenReturn(true);
+        when(occupancyEngine.countAvailable(start, end)).thenReturn(42L);
+
+        long count = unitService.getAvailableUnitsCount(start, end);
+
+        assertThat(count).isEqualTo(42L);
+        verify(unitRepository, times(0)).count((Specification<Unit>) any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testScrollUnits_fetchesOneExtraRowAndReturnsCursorOfLastUnit() {
+        when(unitRepository.findDtoSlice(any(Specification.class), eq(Sort.by(Sort.Direction.ASC, "floor", "id")), eq(3)))
+                .thenReturn(List.of(unit(1L, 2), unit(2L, 2), unit(3L, 4)));
+
+        UnitSlice first = unitService.scrollUnits(UnitSearchCriteria.builder().build(), null, 2, "floor", "asc",
+                SearchCountMode.NONE);
+
+        assertThat(first.content()).extracting(UnitDto::getId).containsExactly(1L, 2L);
+        assertThat(first.hasNext()).isTrue();
+        assertThat(first.totalCount()).isNull();
+        verify(unitRepository, times(0)).count((Specification<Unit>) any());
+
+        when(unitRepository.findDtoSlice(any(Specification.class), any(Sort.class), anyInt())).thenReturn(List.of(unit(3L, 4)));
+        UnitSlice second = unitService.scrollUnits(UnitSearchCriteria.builder().build(), first.nextCursor(), 2, "floor",
+                "asc", SearchCountMode.NONE);
+
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+        assertThat(UnitSearchCursor.decode(first.nextCursor(), "floor", true))
+                .isEqualTo(new UnitSearchCursor("floor", true, 2, 2L));
+    }
+
+    @Test
+    void testScrollUnits_rejectsCursorOfAnotherOrderAndUnsupportedSort() {
+        String cursor = UnitSearchCursor.after("floor", true, unit(2L, 2)).encode();
+
+        assertThatThrownBy(() -> unitService.scrollUnits(UnitSearchCriteria.builder().build(), cursor, 2, "floor",
+                "desc", SearchCountMode.NONE)).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> unitService.scrollUnits(UnitSearchCriteria.builder().build(), "%%%", 2, "floor",
+                "asc", SearchCountMode.NONE)).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> unitService.scrollUnits(UnitSearchCriteria.builder().build(), null, 2, "description",
+                "asc", SearchCountMode.NONE)).isInstanceOf(InvalidCursorException.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testScrollUnits_estimatesCountFromAvailableShare() {
+        LocalDate start = LocalDate.of(2025, 8, 1);
+        LocalDate end = LocalDate.of(2025, 8, 3);
+        when(unitRepository.findDtoSlice(any(Specification.class), any(Sort.class), anyInt())).thenReturn(List.of());
+        when(unitRepository.count((Specification<Unit>) any())).thenReturn(40L);
+        when(unitRepository.count()).thenReturn(100L);
+        when(occupancyEngine.covers(start, end)).thenReturn(true);
+        when(occupancyEngine.countAvailable(start, end)).thenReturn(25L);
+
+        UnitSlice slice = unitService.scrollUnits(UnitSearchCriteria.builder().startDate(start).endDate(end).build(),
+                null, 10, "id", "asc", SearchCountMode.ESTIMATE);
+
+        assertThat(slice.totalCount()).isEqualTo(10L);
+        assertThat(slice.totalEstimated()).isTrue();
+    }
 
-        verify(unitRepository, times(4)).count((Specification<Unit>) any());
-        assertThat(remaining).isZero(); // Because mock returns 0 by default on count
+    private static UnitDto unit(long id, int floor) {
+        return UnitDto.builder().id(id).floor(floor).build();
     }
 }
@@ -1,20 +1,18 @@
 package com.example.bookingsystem.service;
 
 import com.example.bookingsystem.dto.UserDto;
-import com.example.bookingsystem.mapper.UserMapper;
-import com.example.bookingsystem.model.User;
 import com.example.bookingsystem.repository.UserRepository;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,9 +25,6 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
-    @Mock
-    private UserMapper userMapper;
-
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -37,29 +32,38 @@ class UserServiceImplTest {
     @Test
     void testGetAll_ReturnsListOfUserDto() {
         // Prepare test data
-        User user1 = new User();
-        user1.setName(USER_NAME_1);
-        User user2 = new User();
-        user2.setName(USER_NAME_2);
-
         UserDto dto1 = new UserDto(1L, USER_NAME_1, "user1@test.com");
         UserDto dto2 = new UserDto(2L, USER_NAME_2, "user2@test.com");
 
         // Mock repository
-        when(userRepository.findAll()).thenReturn(List.of(user1, user2));
-
-        // Mock mapper
-        when(userMapper.toDto(user1)).thenReturn(dto1);
-        when(userMapper.toDto(user2)).thenReturn(dto2);
+        when(userRepository.findDtosByIdGreaterThan(0L, PageRequest.of(0, 10))).thenReturn(List.of(dto1, dto2));
 
         // Call service method
-        List<UserDto> result = userService.getAll();
+        List<UserDto> result = userService.getAll(null, 10);
 
         // Verify interactions and results
-        verify(userRepository).findAll();
-        verify(userMapper).toDto(user1);
-        verify(userMapper).toDto(user2);
+        verify(userRepository).findDtosByIdGreaterThan(0L, PageRequest.of(0, 10));
 
         assertThat(result).containsExactly(dto1, dto2);
     }
+
+    @Test
+    void testGetAll_ContinuesAfterCursor() {
+        UserDto dto = new UserDto(6L, USER_NAME_1, "user1@test.com");
+        when(userRepository.findDtosByIdGreaterThan(5L, PageRequest.of(0, 1))).thenReturn(List.of(dto));
+
+        assertThat(userService.getAll(5L, 1)).containsExactly(dto);
+    }
+
+    @Test
+    void testStreamAll_PassesEveryUserToAction() {
+        UserDto dto1 = new UserDto(1L, USER_NAME_1, "user1@test.com");
+        UserDto dto2 = new UserDto(2L, USER_NAME_2, "user2@test.com");
+        when(userRepository.streamAllDtos()).thenReturn(Stream.of(dto1, dto2));
+
+        List<UserDto> consumed = new ArrayList<>();
+        userService.streamAll(consumed::add);
+
+        assertThat(consumed).containsExactly(dto1, dto2);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.bookingsystem.specification;
 
+import com.example.bookingsystem.config.PostgresFunctionContributor;
 import com.example.bookingsystem.model.Booking;
 import com.example.bookingsystem.model.Unit;
 import com.example.bookingsystem.model.enums.AccommodationType;
@@ -185,8 +186,8 @@ class UnitSpecificationTest {
         Root<Booking> bookingRoot = mock(Root.class);
         Path<Object> unitIdPath = mock(Path.class);
         Path<Object> statusPath = mock(Path.class);
-        Path<Object> startDatePath = mock(Path.class);
-        Path<Object> endDatePath = mock(Path.class);
+        Path<Object> periodPath = mock(Path.class);
+        Expression<Boolean> overlaps = mock(Expression.class);
 
         when(query.subquery(Long.class)).thenReturn(subquery);
         when(subquery.from(Booking.class)).thenReturn(bookingRoot);
@@ -196,20 +197,22 @@ class UnitSpecificationTest {
         when(bookingRoot.get("unit").get("id")).thenReturn(unitIdPath);
         when(root.get("id")).thenReturn(unitIdPath);
         when(bookingRoot.get("status")).thenReturn(statusPath);
-        when(bookingRoot.get("startDate")).thenReturn(startDatePath);
-        when(bookingRoot.get("endDate")).thenReturn(endDatePath);
+        when(bookingRoot.get("period")).thenReturn(periodPath);
 
         when(criteriaBuilder.count(any())).thenReturn(mock(Expression.class));
         when(criteriaBuilder.equal(any(), eq(0L))).thenReturn(mock(Predicate.class));
         when(criteriaBuilder.notEqual(any(), any())).thenReturn(mock(Predicate.class));
-        when(criteriaBuilder.or(any(), any(), any())).thenReturn(mock(Predicate.class));
-        when(criteriaBuilder.between(any(), any(LocalDate.class), any(LocalDate.class))).thenReturn(mock(Predicate.class));
-        when(criteriaBuilder.and(any(), any())).thenReturn(mock(Predicate.class));
+        when(criteriaBuilder.literal(start)).thenReturn(mock(Expression.class));
+        when(criteriaBuilder.literal(end)).thenReturn(mock(Expression.class));
+        when(criteriaBuilder.function(eq(PostgresFunctionContributor.DATE_RANGE_OVERLAPS), eq(Boolean.class),
+                eq(periodPath), any(), any())).thenReturn(overlaps);
+        when(criteriaBuilder.isTrue(overlaps)).thenReturn(mock(Predicate.class));
 
         Predicate predicate = UnitSpecification.isAvailableWithinDates(start, end).toPredicate(root, query, criteriaBuilder);
 
         assertNotNull(predicate);
         verify(query).subquery(Long.class);
         verify(criteriaBuilder).equal(any(), eq(0L));
+        verify(criteriaBuilder).isTrue(overlaps);
     }
 }
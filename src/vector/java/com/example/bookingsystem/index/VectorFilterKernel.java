@@ -0,0 +1,53 @@
+package com.example.bookingsystem.index;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Filter kernel built on the incubating Vector API, comparing and intersecting a full SIMD register of positions
+ * per instruction. Kept in the {@code vector} source set, the only one compiled against the incubator module, and
+ * loaded reflectively by the {@link UnitCatalog} when the {@code jdk.incubator.vector} module is present.
+ */
+final class VectorFilterKernel implements FilterKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void and(long[] target, long[] bits) {
+        int shared = Math.min(target.length, bits.length);
+        int word = 0;
+        for (int bound = SPECIES.loopBound(shared); word < bound; word += SPECIES.length()) {
+            LongVector.fromArray(SPECIES, target, word)
+                      .and(LongVector.fromArray(SPECIES, bits, word))
+                      .intoArray(target, word);
+        }
+        for (; word < shared; word++) {
+            target[word] &= bits[word];
+        }
+        for (word = shared; word < target.length; word++) {
+            target[word] = 0;
+        }
+    }
+
+    @Override
+    public void lessOrEqual(long[] target, long[] values, int count, long threshold) {
+        // Lane counts are powers of two up to 8, so every register fills a slice of a single bitmap word
+        int lanes = SPECIES.length();
+        long laneBits = (1L << lanes) - 1;
+        int bound = SPECIES.loopBound(count);
+        int position = 0;
+        for (; position < bound; position += lanes) {
+            long accepted = LongVector.fromArray(SPECIES, values, position)
+                                      .compare(VectorOperators.LE, threshold)
+                                      .toLong();
+            int shift = position & (Long.SIZE - 1);
+            target[position >>> 6] &= (accepted << shift) | ~(laneBits << shift);
+        }
+        for (; position < count; position++) {
+            if (values[position] > threshold) {
+                target[position >>> 6] &= ~(1L << position);
+            }
+        }
+    }
+}